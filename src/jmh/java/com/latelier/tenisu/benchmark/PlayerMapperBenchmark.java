@@ -0,0 +1,38 @@
+package com.latelier.tenisu.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.latelier.tenisu.dto.CreatePlayerDto;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.utils.PlayerMapper;
+
+/**
+ * Cost of mapping one {@code POST /players} body to a {@link Player}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerMapperBenchmark {
+
+    private final PlayerMapper mapper = new PlayerMapper();
+
+    private final CreatePlayerDto dto = SyntheticRoster.createPlayerDto();
+
+    @Benchmark
+    public Player toPlayer() {
+        return mapper.toPlayer(dto);
+    }
+}
@@ -0,0 +1,109 @@
+package com.latelier.tenisu.benchmark;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import com.latelier.tenisu.config.ChangeStreamProperties;
+import com.latelier.tenisu.config.StatisticsMode;
+import com.latelier.tenisu.config.StatisticsProperties;
+import com.latelier.tenisu.dto.StatisticsDto;
+import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.service.PlayerService;
+import com.latelier.tenisu.service.PlayerStatisticsEngine;
+import com.latelier.tenisu.utils.PlayerColumns;
+
+/**
+ * Throughput of each statistic of {@code GET /players/statistics} over an
+ * in-memory roster, for the list-based {@link PlayerService} implementation,
+ * the {@link PlayerColumns} snapshot, summarized sequentially or in chunks on
+ * the common fork/join pool, and the {@link PlayerStatisticsEngine} rebuild.
+ *
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec}, the gc profiler
+ * reports the allocation rate next to each score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms6g", "-Xmx6g" })
+public class PlayerStatisticsBenchmark {
+
+    @Param({ "1000", "100000", "1000000", "10000000" })
+    private int size;
+
+    private List<Player> players;
+
+    private PlayerService playerService;
+
+    private PlayerStatisticsEngine statisticsEngine;
+
+    private PlayerColumns columns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        players = SyntheticRoster.players(size);
+        // Les statistiques sur liste n'utilisent aucune dépendance du service
+        playerService = new PlayerService(null, null, null, null, null, null, null, null, null,
+                new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor()), null, null, null, null, null);
+        statisticsEngine = new PlayerStatisticsEngine(null, new StatisticsProperties(StatisticsMode.INCREMENTAL),
+                new ChangeStreamProperties(false, Duration.ofSeconds(10), Duration.ofSeconds(5)));
+        columns = PlayerColumns.of(players.iterator());
+    }
+
+    @Benchmark
+    public double medianHeight() {
+        return playerService.getMedianHeight(players);
+    }
+
+    @Benchmark
+    public double averageImc() {
+        return playerService.getAverageIMC(players);
+    }
+
+    @Benchmark
+    public Country countryWithHighestWinRatio() {
+        return playerService.getCountryWithHighestWinRatio(players);
+    }
+
+    @Benchmark
+    public StatisticsDto buildStatistics() {
+        return playerService.buildStatistics(players);
+    }
+
+    @Benchmark
+    public PlayerColumns.Summary columnarStatistics() {
+        return columns.summarize();
+    }
+
+    @Benchmark
+    public PlayerColumns.Summary parallelColumnarStatistics() {
+        // Seuil à zéro : toujours découpé, pour comparer au parcours séquentiel
+        return columns.summarize(ForkJoinPool.commonPool(), 0);
+    }
+
+    @Benchmark
+    public StatisticsDto engineRebuild() {
+        statisticsEngine.rebuild(players.stream());
+        return statisticsEngine.getStatistics();
+    }
+}
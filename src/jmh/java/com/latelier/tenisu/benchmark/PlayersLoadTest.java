@@ -0,0 +1,118 @@
+package com.latelier.tenisu.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test of a running instance, reporting throughput and
+ * latency percentiles, to compare the blocking stack with the {@code reactive}
+ * profile or the virtual-thread execution mode under the same load.
+ *
+ * For each concurrency level, every client sends its next request as soon as
+ * the previous one completes, for {@code seconds} seconds. A warmup of the same
+ * length at the first level runs beforehand.
+ *
+ * Usage: {@code PlayersLoadTest <baseUrl> [paths] [levels] [seconds]}, paths
+ * being comma separated and cycled through by each client, levels the comma
+ * separated numbers of simultaneous clients, e.g. {@code 100,1000,10000}.
+ */
+public final class PlayersLoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private PlayersLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI baseUrl = URI.create(args.length > 0 ? args[0] : "http://localhost:9090");
+        String[] paths = (args.length > 1 ? args[1] : "/players,/players/statistics,/players/52").split(",");
+        int[] levels = Arrays.stream((args.length > 2 ? args[2] : "200").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration duration = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 30);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        List<HttpRequest> requests = Arrays.stream(paths)
+                .map(path -> HttpRequest.newBuilder(baseUrl.resolve(path)).timeout(REQUEST_TIMEOUT).GET().build())
+                .toList();
+
+        System.out.printf("Warmup: %d clients for %d s on %s%n", levels[0], duration.toSeconds(), baseUrl);
+        run(client, requests, levels[0], duration);
+
+        System.out.printf("%8s %10s %8s %10s %9s %9s %9s %9s %9s%n", "clients", "requests", "errors", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (int concurrency : levels) {
+            Result result = run(client, requests, concurrency, duration);
+            long[] latencies = result.latencies();
+            Arrays.sort(latencies);
+            System.out.printf("%8d %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", concurrency,
+                    latencies.length, result.errors(), latencies.length / (double) duration.toSeconds(),
+                    percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                    percentile(latencies, 0.999), percentile(latencies, 1.0));
+        }
+    }
+
+    private static Result run(HttpClient client, List<HttpRequest> requests, int concurrency, Duration duration)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> clients = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                int offset = i;
+                clients.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    for (int n = offset; System.nanoTime() < deadline; n++) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(requests.get(n % requests.size()),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        List<long[]> all = new ArrayList<>(concurrency);
+        for (Future<long[]> future : clients) {
+            all.add(future.get());
+        }
+        return new Result(all.stream().flatMapToLong(Arrays::stream).toArray(), errors.get());
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private record Result(long[] latencies, long errors) {
+    }
+}
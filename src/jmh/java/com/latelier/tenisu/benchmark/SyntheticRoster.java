@@ -0,0 +1,72 @@
+package com.latelier.tenisu.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.latelier.tenisu.dto.CreatePlayerDto;
+import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
+
+/**
+ * Deterministic rosters of synthetic players, so that runs on different
+ * machines or commits measure the same data.
+ */
+final class SyntheticRoster {
+
+    private static final long SEED = 42L;
+
+    private static final int COUNTRIES = 200;
+
+    private SyntheticRoster() {
+    }
+
+    static List<Player> players(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Country[] countries = countries();
+        List<Player> players = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Player player = new Player();
+            player.setId(Integer.toString(i));
+            player.setFirstname("First" + i);
+            player.setLastname("Last" + i);
+            player.setShortname("F.L" + i);
+            player.setSex(random.nextBoolean() ? "M" : "F");
+            player.setCountry(countries[random.nextInt(COUNTRIES)]);
+            player.setData(data(random, i + 1));
+            players.add(player);
+        }
+        return players;
+    }
+
+    static CreatePlayerDto createPlayerDto() {
+        SplittableRandom random = new SplittableRandom(SEED);
+        return new CreatePlayerDto("Roger", "Federer", "R.FED", "M", countries()[0],
+                "https://tenisu.latelier.co/resources/Federer.png", data(random, 1));
+    }
+
+    private static Country[] countries() {
+        Country[] countries = new Country[COUNTRIES];
+        for (int i = 0; i < COUNTRIES; i++) {
+            String code = String.format("C%02d", i);
+            countries[i] = new Country("https://tenisu.latelier.co/resources/" + code + ".png", code);
+        }
+        return countries;
+    }
+
+    private static PlayerData data(SplittableRandom random, int rank) {
+        PlayerData data = new PlayerData();
+        data.setRank(rank);
+        data.setPoints(random.nextInt(100, 12_000));
+        data.setWeight(random.nextInt(55_000, 110_000));
+        data.setHeight(random.nextInt(155, 215));
+        data.setAge(random.nextInt(16, 40));
+        int[] last = new int[5];
+        for (int j = 0; j < last.length; j++) {
+            last[j] = random.nextInt(2);
+        }
+        data.setLast(last);
+        return data;
+    }
+}
@@ -0,0 +1,14 @@
+package com.latelier.tenisu.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Batch creation settings, bound from {@code tenisu.batch.*}.
+ *
+ * @param chunkSize number of players checked and inserted per round trip
+ */
+@ConfigurationProperties(prefix = "tenisu.batch")
+public record BatchProperties(@DefaultValue("1000") int chunkSize) {
+
+}
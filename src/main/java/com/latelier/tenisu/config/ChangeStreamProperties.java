@@ -0,0 +1,25 @@
+package com.latelier.tenisu.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Change stream settings, bound from {@code tenisu.change-stream.*}.
+ *
+ * @param enabled            true to follow the changes of the players
+ *                           collection, which requires a replica set
+ * @param checkpointInterval delay between two saves of the resume token and
+ *                           of the statistics aggregates
+ * @param retryDelay         delay before reopening the stream after an error,
+ *                           doubled after each consecutive error up to 12
+ *                           times this delay
+ */
+@ConfigurationProperties(prefix = "tenisu.change-stream")
+public record ChangeStreamProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10s") Duration checkpointInterval,
+        @DefaultValue("5s") Duration retryDelay) {
+
+}
@@ -0,0 +1,21 @@
+package com.latelier.tenisu.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Match ingestion settings, bound from {@code tenisu.ingestion.*}.
+ *
+ * @param queueCapacity matches waiting to be written beyond which new ones are
+ *                      rejected with 429 Too Many Requests
+ * @param batchSize     matches written per bulk write
+ * @param maxDelay      longest time a batch waits to be filled before it is
+ *                      written
+ */
+@ConfigurationProperties(prefix = "tenisu.ingestion")
+public record IngestionProperties(@DefaultValue("100000") int queueCapacity, @DefaultValue("1000") int batchSize,
+        @DefaultValue("100ms") Duration maxDelay) {
+
+}
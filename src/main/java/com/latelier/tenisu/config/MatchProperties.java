@@ -0,0 +1,20 @@
+package com.latelier.tenisu.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Match results settings, bound from {@code tenisu.matches.*}.
+ *
+ * @param history     the number of latest results kept in {@code data.last}
+ * @param formWindows the sizes of the rolling windows counted in
+ *                    {@code data.form}, a window longer than the history
+ *                    counting at most the whole history
+ */
+@ConfigurationProperties(prefix = "tenisu.matches")
+public record MatchProperties(@DefaultValue("52") int history,
+        @DefaultValue({ "5", "10", "52" }) List<Integer> formWindows) {
+
+}
@@ -0,0 +1,20 @@
+package com.latelier.tenisu.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Parallel computation of the columnar statistics, bound from
+ * {@code tenisu.statistics.parallel.*}.
+ *
+ * @param threshold   number of players below which the statistics are computed
+ *                    sequentially
+ * @param parallelism size of a dedicated fork/join pool, 0 to use the common
+ *                    pool
+ */
+@ConfigurationProperties(prefix = "tenisu.statistics.parallel")
+public record ParallelStatisticsProperties(
+        @DefaultValue("100000") int threshold,
+        @DefaultValue("0") int parallelism) {
+
+}
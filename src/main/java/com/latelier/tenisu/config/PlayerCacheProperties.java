@@ -0,0 +1,21 @@
+package com.latelier.tenisu.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Player cache settings, bound from {@code tenisu.cache.players.*}.
+ *
+ * @param maxSize     maximum number of cached lookups
+ * @param ttl         how long a found player stays cached
+ * @param negativeTtl how long an unknown id stays cached
+ */
+@ConfigurationProperties(prefix = "tenisu.cache.players")
+public record PlayerCacheProperties(
+        @DefaultValue("10000") long maxSize,
+        @DefaultValue("10m") Duration ttl,
+        @DefaultValue("30s") Duration negativeTtl) {
+
+}
@@ -0,0 +1,25 @@
+package com.latelier.tenisu.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Live ranking stream settings, bound from {@code tenisu.ranking-stream.*}.
+ *
+ * @param bufferSize events kept for a subscriber that reads slower than they
+ *                   are published, beyond which it is disconnected
+ * @param heartbeat  delay between two comments sent to keep idle connections
+ *                   open through proxies
+ * @param maxSubscribers clients streamed at once, beyond which a new one is
+ *                   refused (503); on the servlet stack it is also the number
+ *                   of threads that write the events
+ */
+@ConfigurationProperties(prefix = "tenisu.ranking-stream")
+public record RankingStreamProperties(
+        @DefaultValue("256") int bufferSize,
+        @DefaultValue("15s") Duration heartbeat,
+        @DefaultValue("200") int maxSubscribers) {
+
+}
@@ -0,0 +1,15 @@
+package com.latelier.tenisu.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Player search settings, bound from {@code tenisu.search.*}.
+ *
+ * @param scanThreshold number of players above which a search that no index
+ *                      can serve is rejected instead of scanning the collection
+ */
+@ConfigurationProperties(prefix = "tenisu.search")
+public record SearchProperties(@DefaultValue("10000") long scanThreshold) {
+
+}
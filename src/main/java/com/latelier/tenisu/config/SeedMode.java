@@ -0,0 +1,16 @@
+package com.latelier.tenisu.config;
+
+/**
+ * How the players collection is seeded at startup.
+ */
+public enum SeedMode {
+    /**
+     * Drops the collection and inserts the whole seed file on every boot.
+     */
+    REPLACE,
+    /**
+     * Skips seeding when the seed file checksum is unchanged, otherwise only
+     * upserts the players that differ. Players absent from the file are kept.
+     */
+    INCREMENTAL
+}
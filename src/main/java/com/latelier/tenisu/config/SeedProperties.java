@@ -0,0 +1,24 @@
+package com.latelier.tenisu.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Startup seeding settings, bound from {@code tenisu.seed.*}.
+ *
+ * @param location     Spring resource location of the JSON array of players,
+ *                     e.g. {@code classpath:data/initial_data.json} or
+ *                     {@code file:/data/players.json}
+ * @param batchSize    number of players inserted per round trip
+ * @param memoryMapped read a {@code file:} location through a memory-mapped
+ *                     file instead of a stream
+ * @param mode         replace the collection or apply only the changes
+ */
+@ConfigurationProperties(prefix = "tenisu.seed")
+public record SeedProperties(
+        @DefaultValue("classpath:data/initial_data.json") String location,
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("false") boolean memoryMapped,
+        @DefaultValue("incremental") SeedMode mode) {
+
+}
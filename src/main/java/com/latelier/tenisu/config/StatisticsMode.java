@@ -0,0 +1,20 @@
+package com.latelier.tenisu.config;
+
+/**
+ * How {@code GET /players/statistics} is computed.
+ */
+public enum StatisticsMode {
+    /**
+     * Running aggregates kept in the JVM and updated on every write.
+     */
+    INCREMENTAL,
+    /**
+     * MongoDB aggregation pipeline, only the result leaves the database.
+     */
+    AGGREGATION,
+    /**
+     * Primitive columnar snapshot of the players kept in the JVM, reloaded from
+     * MongoDB after writes.
+     */
+    COLUMNAR
+}
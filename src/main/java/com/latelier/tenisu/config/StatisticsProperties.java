@@ -0,0 +1,14 @@
+package com.latelier.tenisu.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Statistics settings, bound from {@code tenisu.statistics.*}.
+ *
+ * @param mode how the statistics are computed
+ */
+@ConfigurationProperties(prefix = "tenisu.statistics")
+public record StatisticsProperties(@DefaultValue("incremental") StatisticsMode mode) {
+
+}
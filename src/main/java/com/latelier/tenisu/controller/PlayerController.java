@@ -1,39 +1,269 @@
 package com.latelier.tenisu.controller;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import com.latelier.tenisu.dto.BatchResultDto;
+import com.latelier.tenisu.dto.CountryWinRatioDto;
 import com.latelier.tenisu.dto.CreatePlayerDto;
+import com.latelier.tenisu.dto.FormDto;
+import com.latelier.tenisu.dto.MatchResultDto;
+import com.latelier.tenisu.dto.PercentilesDto;
+import com.latelier.tenisu.dto.PlayerPageDto;
+import com.latelier.tenisu.dto.PlayerSearchCriteria;
+import com.latelier.tenisu.dto.PointsUpdateDto;
+import com.latelier.tenisu.dto.SerializedPlayersDto;
 import com.latelier.tenisu.dto.StatisticsDto;
 import com.latelier.tenisu.exception.NoContentException;
 import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.service.MatchIngestionPipeline;
 import com.latelier.tenisu.service.PlayerService;
+import com.latelier.tenisu.utils.AcceptEncoding;
+import com.latelier.tenisu.utils.NdjsonPlayerReader;
+import com.latelier.tenisu.utils.PlayerFields;
+import com.latelier.tenisu.utils.PlayerFieldsWriter;
+import com.latelier.tenisu.utils.PlayersFormat;
 
 import lombok.RequiredArgsConstructor;
+import reactor.core.Disposable;
 
 @RestController
 @RequestMapping("/players")
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @RequiredArgsConstructor
 public class PlayerController {
 
+    // Un délai nul laisse la requête asynchrone ouverte sans limite
+    private static final long NO_TIMEOUT = 0;
+
     private final PlayerService playerService;
 
+    private final ObjectMapper objectMapper;
+
+    private final PlayerFieldsWriter fieldsWriter;
+
+    private final MatchIngestionPipeline matchIngestion;
+
+    private final ServerProperties serverProperties;
+
     /**
      * Retrieves all players sorted by their rank from best to worst.
      *
+     * The list is served from its cached serialized form, as JSON, CBOR or Smile
+     * depending on the Accept header, gzip-compressed when the client accepts it
+     * and the list reaches {@code server.compression.min-response-size}, with a
+     * strong ETag so that unchanged lists are answered with 304 Not
+     * Modified.
+     *
+     * @param accept         the Accept header of the request.
+     * @param acceptEncoding the Accept-Encoding header of the request.
+     * @param request        the current request, used to check If-None-Match.
      * @return a ResponseEntity containing a list of players sorted by rank.
      */
     @GetMapping()
-    public ResponseEntity<List<Player>> getAllPlayersSortedByRank() {
-        List<Player> players = playerService.getPlayersSortedByRankBestToWorst();
+    public ResponseEntity<byte[]> getAllPlayersSortedByRank(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        PlayersFormat format = PlayersFormat.negotiate(accept);
+        SerializedPlayersDto players = playerService.getSerializedPlayersSortedByRank(format);
+        if (players.count() == 0) {
+            throw new NoContentException("No players found");
+        }
+
+        boolean gzip = AcceptEncoding.acceptsGzip(acceptEncoding)
+                && players.body().length >= serverProperties.getCompression().getMinResponseSize().toBytes();
+        String etag = gzip ? players.gzipEtag() : players.etag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(players.gzip());
+        }
+        return response.body(players.body());
+    }
+
+    /**
+     * Retrieves all players sorted by rank, restricted to the requested fields.
+     * Only these fields are read from Mongo and written to the response, which
+     * bypasses the cached full list.
+     *
+     * @param fields the comma separated field paths, e.g. id,country.code.
+     * @return a ResponseEntity containing the trimmed players sorted by rank.
+     */
+    @GetMapping(params = { "fields", "!limit" }, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAllPlayersSortedByRank(@RequestParam String fields) throws IOException {
+        PlayerFields playerFields = PlayerFields.of(fields);
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        int count = 0;
+        try (Stream<Player> players = playerService.streamPlayersSortedByRankBestToWorst(playerFields);
+                SequenceWriter writer = fieldsWriter.writer(playerFields).writeValuesAsArray(json)) {
+            Iterator<Player> iterator = players.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                count++;
+            }
+        }
+        if (count == 0) {
+            throw new NoContentException("No players found");
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json.toByteArray());
+    }
+
+    /**
+     * Retrieves a page of players sorted by rank, using keyset pagination on the
+     * rank instead of offsets.
+     *
+     * @param after the cursor returned by the previous page, or a rank.
+     * @param limit the maximum number of players of the page.
+     * @return a ResponseEntity containing the page and the cursor of the next one.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<PlayerPageDto> getPlayersPageSortedByRank(
+            @RequestParam(required = false) String after,
+            @RequestParam int limit) {
+        PlayerPageDto page = playerService.getPlayersPageSortedByRank(after, limit);
+        if (page.players().isEmpty() && after == null) {
+            throw new NoContentException("No players found");
+        }
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Streams all players sorted by rank as newline-delimited JSON, writing each
+     * player as soon as the Mongo cursor yields it.
+     *
+     * @param fields the comma separated field paths to keep, all when absent.
+     * @return a ResponseEntity streaming one JSON player per line.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPlayersSortedByRank(
+            @RequestParam(required = false) String fields) {
+        // Validé avant d'écrire la réponse, pour répondre 400 plutôt qu'un flux interrompu
+        PlayerFields playerFields = fields != null ? PlayerFields.of(fields) : null;
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = (playerFields != null ? fieldsWriter.writer(playerFields) : objectMapper.writer())
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n");
+            try (Stream<Player> players = playerFields != null
+                    ? playerService.streamPlayersSortedByRankBestToWorst(playerFields)
+                    : playerService.streamPlayersSortedByRankBestToWorst();
+                    SequenceWriter sequenceWriter = writer.writeValues(outputStream)) {
+                Iterator<Player> iterator = players.iterator();
+                while (iterator.hasNext()) {
+                    sequenceWriter.write(iterator.next());
+                }
+            }
+            outputStream.write('\n');
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Streams the live ranking as Server-Sent Events: a {@code snapshot} event
+     * holding the ranked players, then {@code created}, {@code updated} (rank
+     * and points) and {@code deleted} events as players change.
+     *
+     * The stream has no async timeout, whatever
+     * {@code spring.mvc.async.request-timeout}: it stays open until the client
+     * disconnects. Events are written one at a time on a thread of the
+     * broadcaster's own scheduler, so that a slow client fills its own buffer
+     * in the broadcaster instead of blocking the writes, and never takes a
+     * thread of the shared bounded elastic pool.
+     * Past {@code tenisu.ranking-stream.max-subscribers} clients, the stream
+     * is refused with a 503.
+     *
+     * @return the events, until the client disconnects or falls too far behind.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRanking() {
+        SseEmitter emitter = new SseEmitter(NO_TIMEOUT);
+        Disposable subscription = playerService.subscribeToRanking()
+                .subscribe(event -> send(emitter, event), emitter::completeWithError, emitter::complete);
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(e -> subscription.dispose());
+        return emitter;
+    }
+
+    private static void send(SseEmitter emitter, ServerSentEvent<Object> event) {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event();
+        if (event.id() != null) {
+            builder.id(event.id());
+        }
+        if (event.event() != null) {
+            builder.name(event.event());
+        }
+        if (event.comment() != null) {
+            builder.comment(event.comment());
+        }
+        if (event.data() != null) {
+            builder.data(event.data());
+        }
+        try {
+            emitter.send(builder);
+        } catch (IOException e) {
+            // Client déconnecté : l'erreur arrête l'abonnement
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Searches players by sex, country, rank, points and age ranges and lastname
+     * prefix, sorted by rank.
+     *
+     * @param criteria the filters, bound from the query parameters.
+     * @param limit    the maximum number of players.
+     * @return a ResponseEntity containing the matching players sorted by rank.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Player>> searchPlayers(PlayerSearchCriteria criteria,
+            @RequestParam(defaultValue = "100") int limit) {
+        List<Player> players = playerService.searchPlayers(criteria, limit);
         if (players.isEmpty()) {
             throw new NoContentException("No players found");
         }
@@ -52,6 +282,23 @@ public class PlayerController {
         return ResponseEntity.ok(player);
     }
 
+    /**
+     * Retrieves a player by their ID, restricted to the requested fields.
+     *
+     * @param id     the ID of the player to retrieve.
+     * @param fields the comma separated field paths, e.g. id,country.code.
+     * @return a ResponseEntity containing the trimmed player.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<byte[]> getPlayerById(@PathVariable String id, @RequestParam String fields)
+            throws IOException {
+        PlayerFields playerFields = PlayerFields.of(fields);
+        Player player = playerService.getPlayerById(id, playerFields);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(fieldsWriter.writer(playerFields).writeValueAsBytes(player));
+    }
+
     /**
      * Retrieves statistics about players, including the country with the highest
      * win ratio,
@@ -61,15 +308,143 @@ public class PlayerController {
      */
     @GetMapping("/statistics")
     public ResponseEntity<StatisticsDto> getPlayerStatistics() {
-        List<Player> players = playerService.getPlayersSortedByRankBestToWorst();
-        StatisticsDto statistics = playerService.buildStatistics(players);
+        StatisticsDto statistics = playerService.getStatistics();
         return ResponseEntity.ok(statistics);
     }
 
+    /**
+     * Retrieves the countries with the highest win ratios over all their players.
+     *
+     * @param top the maximum number of countries.
+     * @return a ResponseEntity containing the best countries, best first.
+     */
+    @GetMapping("/statistics/countries")
+    public ResponseEntity<List<CountryWinRatioDto>> getCountryLeaderboard(
+            @RequestParam(defaultValue = "10") int top) {
+        List<CountryWinRatioDto> countries = playerService.getCountryLeaderboard(top);
+        if (countries.isEmpty()) {
+            throw new NoContentException("No countries found");
+        }
+        return ResponseEntity.ok(countries);
+    }
+
+    /**
+     * Retrieves the form of a player over each configured window of their latest
+     * results.
+     *
+     * @param id the ID of the player.
+     * @return a ResponseEntity containing the wins, losses and ratio of each
+     *         window, shortest first.
+     */
+    @GetMapping("/{id}/form")
+    public ResponseEntity<List<FormDto>> getPlayerForm(@PathVariable String id) {
+        return ResponseEntity.ok(playerService.getForm(id));
+    }
+
+    /**
+     * Retrieves the players with the most wins over a window of their latest
+     * results, then by rank.
+     *
+     * @param window the window, one of tenisu.matches.form-windows.
+     * @param top    the maximum number of players.
+     * @return a ResponseEntity containing the hottest players, hottest first.
+     */
+    @GetMapping("/hottest")
+    public ResponseEntity<List<Player>> getHottestPlayers(@RequestParam(defaultValue = "10") int window,
+            @RequestParam(defaultValue = "10") int top) {
+        List<Player> players = playerService.getHottestPlayers(window, top);
+        if (players.isEmpty()) {
+            throw new NoContentException("No players found");
+        }
+        return ResponseEntity.ok(players);
+    }
+
+    /**
+     * Retrieves percentiles of a numeric player attribute.
+     *
+     * @param field the attribute: height, weight, age or points.
+     * @param p     the comma separated percentiles, between 0 and 100.
+     * @return a ResponseEntity containing the value at each percentile.
+     */
+    @GetMapping("/statistics/percentiles")
+    public ResponseEntity<PercentilesDto> getPlayerPercentiles(
+            @RequestParam String field,
+            @RequestParam(defaultValue = "50") String p) {
+        PercentilesDto percentiles = playerService.getPercentiles(field, p);
+        if (percentiles.count() == 0) {
+            throw new NoContentException("No players found");
+        }
+        return ResponseEntity.ok(percentiles);
+    }
+
     @PostMapping()
     public ResponseEntity<Player> addNewPlayer(@RequestBody CreatePlayerDto dto) {
         Player newPlayer = playerService.savePlayer(dto);
         return ResponseEntity.status(HttpStatus.CREATED).body(newPlayer);
     }
 
+    /**
+     * Creates a batch of players sent as a JSON array.
+     *
+     * @param dtos the players to create.
+     * @return a ResponseEntity containing the result of each item of the batch.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchResultDto> addNewPlayers(@RequestBody List<CreatePlayerDto> dtos) {
+        return ResponseEntity.ok(playerService.savePlayers(dtos.iterator()));
+    }
+
+    /**
+     * Creates a batch of players sent as newline-delimited JSON, reading the
+     * players as they arrive instead of buffering the whole request. A
+     * malformed line is rejected as an invalid item of the batch.
+     *
+     * @param body the request body, one JSON player per line.
+     * @return a ResponseEntity containing the result of each item of the batch.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BatchResultDto> addNewPlayersFromNdjson(InputStream body) throws IOException {
+        NdjsonPlayerReader reader = new NdjsonPlayerReader(objectMapper);
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            return ResponseEntity.ok(reader.report(playerService.savePlayers(reader.read(lines))));
+        }
+    }
+
+    /**
+     * Sets the points of a player and recomputes the ranks that change.
+     *
+     * @param id  the ID of the player.
+     * @param dto the new points.
+     * @return a ResponseEntity containing the player with its new points and rank.
+     */
+    @PatchMapping("/{id}/points")
+    public ResponseEntity<Player> updatePoints(@PathVariable String id, @RequestBody PointsUpdateDto dto) {
+        return ResponseEntity.ok(playerService.updatePoints(id, dto));
+    }
+
+    /**
+     * Records the result of a match: appends it to the latest results of both
+     * players, adds the points they earned and recomputes the ranks that change.
+     *
+     * @param match the winner, the loser and their points.
+     * @return a ResponseEntity containing the winner and the loser, updated.
+     */
+    @PostMapping("/matches")
+    public ResponseEntity<List<Player>> recordMatch(@RequestBody MatchResultDto match) {
+        return ResponseEntity.ok(playerService.recordMatch(match));
+    }
+
+    /**
+     * Queues match results to be recorded in micro-batches, coalesced per
+     * player, for feeds sending many results per second.
+     *
+     * @param matches the winners, the losers and their points.
+     * @return a ResponseEntity with 202 Accepted once all the matches are queued,
+     *         or 429 Too Many Requests, with none queued, when the queue is full.
+     */
+    @PostMapping(value = "/matches/ingest", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> ingestMatches(@RequestBody List<MatchResultDto> matches) {
+        matchIngestion.offer(matches);
+        return ResponseEntity.accepted().build();
+    }
 }
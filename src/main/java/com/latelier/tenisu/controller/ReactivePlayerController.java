@@ -0,0 +1,383 @@
+package com.latelier.tenisu.controller;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.latelier.tenisu.dto.BatchResultDto;
+import com.latelier.tenisu.dto.CountryWinRatioDto;
+import com.latelier.tenisu.dto.CreatePlayerDto;
+import com.latelier.tenisu.dto.FormDto;
+import com.latelier.tenisu.dto.MatchResultDto;
+import com.latelier.tenisu.dto.PercentilesDto;
+import com.latelier.tenisu.dto.PlayerPageDto;
+import com.latelier.tenisu.dto.PlayerSearchCriteria;
+import com.latelier.tenisu.dto.PointsUpdateDto;
+import com.latelier.tenisu.dto.StatisticsDto;
+import com.latelier.tenisu.exception.NoContentException;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.service.MatchIngestionPipeline;
+import com.latelier.tenisu.service.ReactivePlayerService;
+import com.latelier.tenisu.utils.AcceptEncoding;
+import com.latelier.tenisu.utils.NdjsonPlayerReader;
+import com.latelier.tenisu.utils.PlayerFields;
+import com.latelier.tenisu.utils.PlayerFieldsWriter;
+import com.latelier.tenisu.utils.PlayersFormat;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes of {@link PlayerController} served by WebFlux, enabled with the
+ * {@code reactive} profile. Errors go through the same
+ * {@link com.latelier.tenisu.controller.handler.GlobalExceptionHandler}.
+ */
+@RestController
+@RequestMapping("/players")
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactivePlayerController {
+
+    private final ReactivePlayerService playerService;
+
+    private final ObjectMapper objectMapper;
+
+    private final PlayerFieldsWriter fieldsWriter;
+
+    private final MatchIngestionPipeline matchIngestion;
+
+    private final ServerProperties serverProperties;
+
+    /**
+     * Retrieves all players sorted by their rank from best to worst, served like
+     * on the blocking stack from the cached serialized list: JSON, CBOR or Smile
+     * depending on the Accept header, gzip-compressed when the client accepts it
+     * and the list reaches {@code server.compression.min-response-size}, with a
+     * strong ETag so that unchanged lists are answered with 304 Not Modified.
+     *
+     * @param accept         the Accept header of the request.
+     * @param acceptEncoding the Accept-Encoding header of the request.
+     * @return the players sorted by rank.
+     */
+    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            "application/x-jackson-smile" })
+    public Mono<ResponseEntity<byte[]>> getAllPlayersSortedByRank(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        PlayersFormat format = PlayersFormat.negotiate(accept);
+        return playerService.getSerializedPlayersSortedByRank(format)
+                .filter(players -> players.count() > 0)
+                .switchIfEmpty(Mono.error(() -> new NoContentException("No players found")))
+                .map(players -> {
+                    boolean gzip = AcceptEncoding.acceptsGzip(acceptEncoding)
+                            && players.body().length >= serverProperties.getCompression().getMinResponseSize().toBytes();
+                    // L'ETag est comparé à If-None-Match par WebFlux, qui répond 304
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .contentType(format.mediaType())
+                            .eTag(gzip ? players.gzipEtag() : players.etag())
+                            .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+                    if (gzip) {
+                        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(players.gzip());
+                    }
+                    return response.body(players.body());
+                });
+    }
+
+    /**
+     * Retrieves all players sorted by their rank from best to worst as a JSON
+     * array, restricted to the requested fields.
+     *
+     * @param fields the comma separated field paths, e.g. id,country.code.
+     * @return the trimmed players sorted by rank.
+     */
+    @GetMapping(params = { "fields", "!limit" }, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getAllPlayersSortedByRank(@RequestParam String fields) {
+        PlayerFields playerFields = PlayerFields.of(fields);
+        ObjectWriter writer = fieldsWriter.writer(playerFields);
+        return playerService.getPlayersSortedByRankBestToWorst(playerFields)
+                .collectList()
+                .filter(players -> !players.isEmpty())
+                .switchIfEmpty(Mono.error(() -> new NoContentException("No players found")))
+                .handle((players, sink) -> {
+                    try {
+                        sink.next(ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(writer.writeValueAsBytes(players)));
+                    } catch (JsonProcessingException e) {
+                        sink.error(e);
+                    }
+                });
+    }
+
+    /**
+     * Retrieves a page of players sorted by rank, using keyset pagination on the
+     * rank instead of offsets.
+     *
+     * @param after the cursor returned by the previous page, or a rank.
+     * @param limit the maximum number of players of the page.
+     * @return the page and the cursor of the next one.
+     */
+    @GetMapping(params = "limit")
+    public Mono<PlayerPageDto> getPlayersPageSortedByRank(
+            @RequestParam(required = false) String after,
+            @RequestParam int limit) {
+        return playerService.getPlayersPageSortedByRank(after, limit)
+                .filter(page -> !page.players().isEmpty() || after != null)
+                .switchIfEmpty(Mono.error(() -> new NoContentException("No players found")));
+    }
+
+    /**
+     * Streams all players sorted by rank as newline-delimited JSON, one player
+     * per line, at the pace the client reads them.
+     *
+     * @return the players sorted by rank.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Player> streamAllPlayersSortedByRank() {
+        return playerService.getPlayersSortedByRankBestToWorst();
+    }
+
+    /**
+     * Streams all players sorted by rank as newline-delimited JSON, restricted to
+     * the requested fields.
+     *
+     * @param fields the comma separated field paths, e.g. id,country.code.
+     * @return one trimmed JSON player per line.
+     */
+    @GetMapping(params = "fields", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<byte[]> streamAllPlayersSortedByRank(@RequestParam String fields) {
+        PlayerFields playerFields = PlayerFields.of(fields);
+        ObjectWriter writer = fieldsWriter.writer(playerFields);
+        return playerService.getPlayersSortedByRankBestToWorst(playerFields)
+                .handle((player, sink) -> {
+                    try {
+                        byte[] json = writer.writeValueAsBytes(player);
+                        byte[] line = Arrays.copyOf(json, json.length + 1);
+                        line[json.length] = '\n';
+                        sink.next(line);
+                    } catch (JsonProcessingException e) {
+                        sink.error(e);
+                    }
+                });
+    }
+
+    /**
+     * Streams the live ranking as Server-Sent Events: a {@code snapshot} event
+     * holding the ranked players, then {@code created}, {@code updated} (rank
+     * and points) and {@code deleted} events as players change.
+     *
+     * @return the events, until the client disconnects or falls too far behind.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamRanking() {
+        return playerService.subscribeToRanking();
+    }
+
+    /**
+     * Searches players by sex, country, rank, points and age ranges and lastname
+     * prefix, sorted by rank.
+     *
+     * @param criteria the filters, bound from the query parameters.
+     * @param limit    the maximum number of players.
+     * @return the matching players sorted by rank.
+     */
+    @GetMapping("/search")
+    public Mono<List<Player>> searchPlayers(PlayerSearchCriteria criteria,
+            @RequestParam(defaultValue = "100") int limit) {
+        return playerService.searchPlayers(criteria, limit)
+                .filter(players -> !players.isEmpty())
+                .switchIfEmpty(Mono.error(() -> new NoContentException("No players found")));
+    }
+
+    /**
+     * Retrieves a player by their ID.
+     *
+     * @param id the ID of the player to retrieve.
+     * @return the player with the specified ID.
+     */
+    @GetMapping("/{id}")
+    public Mono<Player> getPlayerById(@PathVariable String id) {
+        return playerService.getPlayerById(id);
+    }
+
+    /**
+     * Retrieves a player by their ID, restricted to the requested fields.
+     *
+     * @param id     the ID of the player to retrieve.
+     * @param fields the comma separated field paths, e.g. id,country.code.
+     * @return the trimmed player.
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    public Mono<ResponseEntity<byte[]>> getPlayerById(@PathVariable String id, @RequestParam String fields) {
+        PlayerFields playerFields = PlayerFields.of(fields);
+        ObjectWriter writer = fieldsWriter.writer(playerFields);
+        return playerService.getPlayerById(id, playerFields)
+                .handle((player, sink) -> {
+                    try {
+                        sink.next(ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(writer.writeValueAsBytes(player)));
+                    } catch (JsonProcessingException e) {
+                        sink.error(e);
+                    }
+                });
+    }
+
+    /**
+     * Retrieves statistics about players, including the country with the highest
+     * win ratio, average IMC, and median height.
+     *
+     * @return the statistics of players.
+     */
+    @GetMapping("/statistics")
+    public Mono<StatisticsDto> getPlayerStatistics() {
+        return playerService.getStatistics();
+    }
+
+    /**
+     * Retrieves the countries with the highest win ratios over all their players.
+     *
+     * @param top the maximum number of countries.
+     * @return the best countries, best first.
+     */
+    @GetMapping("/statistics/countries")
+    public Mono<List<CountryWinRatioDto>> getCountryLeaderboard(@RequestParam(defaultValue = "10") int top) {
+        return playerService.getCountryLeaderboard(top)
+                .filter(countries -> !countries.isEmpty())
+                .switchIfEmpty(Mono.error(() -> new NoContentException("No countries found")));
+    }
+
+    /**
+     * Retrieves the form of a player over each configured window of their latest
+     * results.
+     *
+     * @param id the ID of the player.
+     * @return the wins, losses and ratio of each window, shortest first.
+     */
+    @GetMapping("/{id}/form")
+    public Mono<List<FormDto>> getPlayerForm(@PathVariable String id) {
+        return playerService.getForm(id);
+    }
+
+    /**
+     * Retrieves the players with the most wins over a window of their latest
+     * results, then by rank.
+     *
+     * @param window the window, one of tenisu.matches.form-windows.
+     * @param top    the maximum number of players.
+     * @return the hottest players, hottest first.
+     */
+    @GetMapping("/hottest")
+    public Mono<List<Player>> getHottestPlayers(@RequestParam(defaultValue = "10") int window,
+            @RequestParam(defaultValue = "10") int top) {
+        return playerService.getHottestPlayers(window, top)
+                .filter(players -> !players.isEmpty())
+                .switchIfEmpty(Mono.error(() -> new NoContentException("No players found")));
+    }
+
+    /**
+     * Retrieves percentiles of a numeric player attribute.
+     *
+     * @param field the attribute: height, weight, age or points.
+     * @param p     the comma separated percentiles, between 0 and 100.
+     * @return the value at each percentile.
+     */
+    @GetMapping("/statistics/percentiles")
+    public Mono<PercentilesDto> getPlayerPercentiles(
+            @RequestParam String field,
+            @RequestParam(defaultValue = "50") String p) {
+        return playerService.getPercentiles(field, p)
+                .filter(percentiles -> percentiles.count() > 0)
+                .switchIfEmpty(Mono.error(() -> new NoContentException("No players found")));
+    }
+
+    @PostMapping()
+    public Mono<ResponseEntity<Player>> addNewPlayer(@RequestBody CreatePlayerDto dto) {
+        return playerService.savePlayer(dto)
+                .map(newPlayer -> ResponseEntity.status(HttpStatus.CREATED).body(newPlayer));
+    }
+
+    /**
+     * Creates a batch of players sent as a JSON array, decoded as it arrives.
+     *
+     * @param dtos the players to create.
+     * @return the result of each item of the batch.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<BatchResultDto> addNewPlayers(@RequestBody Flux<CreatePlayerDto> dtos) {
+        return playerService.savePlayers(dtos);
+    }
+
+    /**
+     * Creates a batch of players sent as newline-delimited JSON, decoded as it
+     * arrives. A malformed line is rejected as an invalid item of the batch.
+     *
+     * @param lines the lines of the request body, one JSON player per line.
+     * @return the result of each item of the batch.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<BatchResultDto> addNewPlayersFromNdjson(@RequestBody Flux<String> lines) {
+        return Mono.defer(() -> {
+            NdjsonPlayerReader reader = new NdjsonPlayerReader(objectMapper);
+            return playerService.savePlayers(lines.filter(line -> !line.isBlank()).map(reader::read))
+                    .map(reader::report);
+        });
+    }
+
+    /**
+     * Sets the points of a player and recomputes the ranks that change.
+     *
+     * @param id  the ID of the player.
+     * @param dto the new points.
+     * @return the player with its new points and rank.
+     */
+    @PatchMapping("/{id}/points")
+    public Mono<Player> updatePoints(@PathVariable String id, @RequestBody PointsUpdateDto dto) {
+        return playerService.updatePoints(id, dto);
+    }
+
+    /**
+     * Records the result of a match, see {@link PlayerController#recordMatch}.
+     *
+     * @param match the winner, the loser and their points.
+     * @return the winner and the loser, updated.
+     */
+    @PostMapping("/matches")
+    public Mono<List<Player>> recordMatch(@RequestBody MatchResultDto match) {
+        return playerService.recordMatch(match);
+    }
+
+    /**
+     * Queues match results, see {@link PlayerController#ingestMatches}. Queuing
+     * never blocks, so it runs on the event loop.
+     *
+     * @param matches the winners, the losers and their points.
+     * @return 202 Accepted once all the matches are queued.
+     */
+    @PostMapping(value = "/matches/ingest", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Void>> ingestMatches(@RequestBody List<MatchResultDto> matches) {
+        return Mono.fromRunnable(() -> matchIngestion.offer(matches))
+                .thenReturn(ResponseEntity.accepted().build());
+    }
+}
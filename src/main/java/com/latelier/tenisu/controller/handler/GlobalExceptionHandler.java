@@ -1,47 +1,83 @@
 package com.latelier.tenisu.controller.handler;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.latelier.tenisu.dto.ErrorMessage;
 import com.latelier.tenisu.exception.ExistingPlayerException;
+import com.latelier.tenisu.exception.IngestionQueueFullException;
 import com.latelier.tenisu.exception.NoContentException;
 import com.latelier.tenisu.exception.PlayerNotFoundException;
+import com.latelier.tenisu.exception.RankingStreamFullException;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Maps exceptions to error responses, and counts them as
+ * {@code tenisu.errors{exception,status}}.
+ */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(NoContentException.class)
     public ResponseEntity<ErrorMessage> handleNoContentException(NoContentException ex) {
         HttpStatus noContent = HttpStatus.NO_CONTENT;
-        return new ResponseEntity<>(new ErrorMessage(ex.getMessage(), noContent.value()), noContent);
+        return respond(ex, ex.getMessage(), noContent);
     }
 
     @ExceptionHandler(PlayerNotFoundException.class)
     public ResponseEntity<ErrorMessage> handlePlayerNotFoundException(PlayerNotFoundException ex) {
         HttpStatus notFound = HttpStatus.NOT_FOUND;
-        return new ResponseEntity<>(new ErrorMessage(ex.getMessage(), notFound.value()), notFound);
+        return respond(ex, ex.getMessage(), notFound);
     }
 
     @ExceptionHandler(ExistingPlayerException.class)
     public ResponseEntity<ErrorMessage> handleExistingPlayerException(ExistingPlayerException ex) {
         HttpStatus conflict = HttpStatus.CONFLICT;
-        return new ResponseEntity<>(new ErrorMessage(ex.getMessage(), conflict.value()), conflict);
+        return respond(ex, ex.getMessage(), conflict);
+    }
+
+    @ExceptionHandler(IngestionQueueFullException.class)
+    public ResponseEntity<ErrorMessage> handleIngestionQueueFullException(IngestionQueueFullException ex) {
+        HttpStatus tooManyRequests = HttpStatus.TOO_MANY_REQUESTS;
+        return respond(ex, ex.getMessage(), tooManyRequests);
+    }
+
+    @ExceptionHandler(RankingStreamFullException.class)
+    public ResponseEntity<ErrorMessage> handleRankingStreamFullException(RankingStreamFullException ex) {
+        HttpStatus serviceUnavailable = HttpStatus.SERVICE_UNAVAILABLE;
+        // Refusé sur GET /players/stream, qui ne produit que text/event-stream : le message reste en JSON
+        return ResponseEntity.status(serviceUnavailable)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(respond(ex, ex.getMessage(), serviceUnavailable).getBody());
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorMessage> handleIllegalArgumentException(IllegalArgumentException ex) {
         HttpStatus badRequest = HttpStatus.BAD_REQUEST;
-        return new ResponseEntity<>(new ErrorMessage(ex.getMessage(), badRequest.value()), badRequest);
+        return respond(ex, ex.getMessage(), badRequest);
     }
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorMessage> handleGenericException(Exception ex) {
         HttpStatus internalServerError = HttpStatus.INTERNAL_SERVER_ERROR;
-        return new ResponseEntity<>(
-                new ErrorMessage("An unexpected error occurred: " + ex.getMessage(), internalServerError.value()),
-                internalServerError);
+        return respond(ex, "An unexpected error occurred: " + ex.getMessage(), internalServerError);
+    }
+
+    private ResponseEntity<ErrorMessage> respond(Exception ex, String message, HttpStatus status) {
+        meterRegistry.counter("tenisu.errors",
+                "exception", ex.getClass().getSimpleName(),
+                "status", String.valueOf(status.value()))
+                .increment();
+        return new ResponseEntity<>(new ErrorMessage(message, status.value()), status);
     }
 }
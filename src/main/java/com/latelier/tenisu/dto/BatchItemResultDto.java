@@ -0,0 +1,13 @@
+package com.latelier.tenisu.dto;
+
+/**
+ * Outcome of one item of a batch creation.
+ *
+ * @param index   position of the item in the batch
+ * @param status  what happened to the item
+ * @param id      id of the created player, null if it was not created
+ * @param message reason of the rejection, null if it was created
+ */
+public record BatchItemResultDto(int index, BatchItemStatus status, String id, String message) {
+
+}
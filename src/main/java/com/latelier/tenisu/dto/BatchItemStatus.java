@@ -0,0 +1,11 @@
+package com.latelier.tenisu.dto;
+
+public enum BatchItemStatus {
+    CREATED,
+    /**
+     * Same firstname and lastname as an earlier item of the batch or an existing
+     * player.
+     */
+    DUPLICATE,
+    INVALID
+}
@@ -0,0 +1,10 @@
+package com.latelier.tenisu.dto;
+
+import java.util.List;
+
+/**
+ * Result of a batch creation of players.
+ */
+public record BatchResultDto(int created, int rejected, List<BatchItemResultDto> items) {
+
+}
@@ -0,0 +1,19 @@
+package com.latelier.tenisu.dto;
+
+import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.utils.CountryWinTally;
+
+/**
+ * Win ratio of a country, aggregated over the last results of all its players.
+ *
+ * @param country the country
+ * @param wins    the number of won games
+ * @param games   the number of games
+ * @param ratio   wins over games, 0.0 without games
+ */
+public record CountryWinRatioDto(Country country, long wins, long games, double ratio) {
+
+    public static CountryWinRatioDto of(CountryWinTally tally) {
+        return new CountryWinRatioDto(tally.getCountry(), tally.getWins(), tally.getGames(), tally.getRatio());
+    }
+}
@@ -0,0 +1,14 @@
+package com.latelier.tenisu.dto;
+
+/**
+ * Form of a player over a rolling window of its latest results, returned by
+ * {@code GET /players/{id}/form}.
+ *
+ * @param window the size of the window
+ * @param wins   the wins among the results of the window
+ * @param losses the losses among the results of the window
+ * @param ratio  the share of wins, 0 without results
+ */
+public record FormDto(int window, int wins, int losses, double ratio) {
+
+}
@@ -0,0 +1,13 @@
+package com.latelier.tenisu.dto;
+
+/**
+ * Result of a match, sent to {@code POST /players/matches}.
+ *
+ * @param winner       the id of the winner, whose {@code data.last} gets a 1
+ * @param loser        the id of the loser, whose {@code data.last} gets a 0
+ * @param winnerPoints the points earned by the winner, 0 when absent
+ * @param loserPoints  the points earned by the loser, 0 when absent
+ */
+public record MatchResultDto(String winner, String loser, int winnerPoints, int loserPoints) {
+
+}
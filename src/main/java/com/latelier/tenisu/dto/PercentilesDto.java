@@ -0,0 +1,15 @@
+package com.latelier.tenisu.dto;
+
+import java.util.Map;
+
+/**
+ * Percentiles of a numeric player attribute.
+ *
+ * @param field       the attribute, e.g. {@code height}
+ * @param count       the number of players the percentiles are computed over
+ * @param percentiles the value at each requested percentile, keyed by the
+ *                    percentile as requested, in request order
+ */
+public record PercentilesDto(String field, int count, Map<String, Double> percentiles) {
+
+}
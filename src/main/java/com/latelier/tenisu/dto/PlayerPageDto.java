@@ -0,0 +1,16 @@
+package com.latelier.tenisu.dto;
+
+import java.util.List;
+
+import com.latelier.tenisu.model.Player;
+
+/**
+ * A page of players sorted by rank.
+ *
+ * @param players the players of the page
+ * @param next    the cursor to pass as {@code after} to get the next page, null
+ *                on the last page
+ */
+public record PlayerPageDto(List<Player> players, String next) {
+
+}
@@ -0,0 +1,14 @@
+package com.latelier.tenisu.dto;
+
+import java.util.List;
+
+/**
+ * Results of a player over several matches, written in a single update.
+ *
+ * @param points  the total points earned
+ * @param results the results to append to {@code data.last}, oldest first, 1
+ *                for a win and 0 for a loss
+ */
+public record PlayerResultsDto(int points, List<Integer> results) {
+
+}
@@ -0,0 +1,65 @@
+package com.latelier.tenisu.dto;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Filters of {@code GET /players/search}, all optional and combined with a
+ * logical and. Ranges are inclusive.
+ *
+ * @param sex       the sex, M or F
+ * @param country   the country code, e.g. SUI
+ * @param minRank   the best rank
+ * @param maxRank   the worst rank
+ * @param minPoints the minimum points
+ * @param maxPoints the maximum points
+ * @param minAge    the minimum age
+ * @param maxAge    the maximum age
+ * @param name      a prefix of the lastname, case sensitive
+ */
+public record PlayerSearchCriteria(String sex, String country, Integer minRank, Integer maxRank,
+        Integer minPoints, Integer maxPoints, Integer minAge, Integer maxAge, String name) {
+
+    /**
+     * Mongo paths that can be filtered.
+     */
+    public static final Set<String> PATHS = Set.of("sex", "country.code", "data.rank", "data.points", "data.age",
+            "lastname");
+
+    public PlayerSearchCriteria {
+        // Un paramètre vide (?sex=) ne filtre pas
+        sex = emptyToNull(sex);
+        country = emptyToNull(country);
+        name = emptyToNull(name);
+    }
+
+    /**
+     * @return the Mongo paths of the filters that are set
+     */
+    public Set<String> filteredPaths() {
+        Set<String> paths = new LinkedHashSet<>();
+        if (sex != null) {
+            paths.add("sex");
+        }
+        if (country != null) {
+            paths.add("country.code");
+        }
+        if (minRank != null || maxRank != null) {
+            paths.add("data.rank");
+        }
+        if (minPoints != null || maxPoints != null) {
+            paths.add("data.points");
+        }
+        if (minAge != null || maxAge != null) {
+            paths.add("data.age");
+        }
+        if (name != null) {
+            paths.add("lastname");
+        }
+        return paths;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,10 @@
+package com.latelier.tenisu.dto;
+
+/**
+ * New points of a player, sent to {@code PATCH /players/{id}/points}.
+ *
+ * @param points the points, positive or zero
+ */
+public record PointsUpdateDto(Integer points) {
+
+}
@@ -0,0 +1,15 @@
+package com.latelier.tenisu.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Change of the ranking of a player, sent on {@code GET /players/stream}.
+ *
+ * @param id     the id of the player
+ * @param rank   the new rank, absent when the player is deleted
+ * @param points the new points, absent when the player is deleted
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RankingDeltaDto(String id, Integer rank, Integer points) {
+
+}
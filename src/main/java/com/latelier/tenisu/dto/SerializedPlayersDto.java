@@ -0,0 +1,21 @@
+package com.latelier.tenisu.dto;
+
+/**
+ * The ranked players list, already serialized in one of the
+ * {@link com.latelier.tenisu.utils.PlayersFormat}s.
+ *
+ * @param body  the array of players
+ * @param gzip  the same array, gzip-compressed
+ * @param etag  strong entity tag of the identity representation, unquoted
+ * @param count the number of players in the list
+ */
+public record SerializedPlayersDto(byte[] body, byte[] gzip, String etag, int count) {
+
+    /**
+     * @return the entity tag of the gzip representation, which must differ from
+     *         the identity one
+     */
+    public String gzipEtag() {
+        return etag + "-gzip";
+    }
+}
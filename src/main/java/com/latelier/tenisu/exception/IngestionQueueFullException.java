@@ -0,0 +1,8 @@
+package com.latelier.tenisu.exception;
+
+public class IngestionQueueFullException extends RuntimeException {
+    public IngestionQueueFullException(String message) {
+        super(message);
+    }
+
+}
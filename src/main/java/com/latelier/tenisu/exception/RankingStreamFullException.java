@@ -0,0 +1,8 @@
+package com.latelier.tenisu.exception;
+
+public class RankingStreamFullException extends RuntimeException {
+    public RankingStreamFullException(String message) {
+        super(message);
+    }
+
+}
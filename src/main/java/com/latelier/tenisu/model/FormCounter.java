@@ -0,0 +1,17 @@
+package com.latelier.tenisu.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Wins among the latest results of a player over a rolling window, stored in
+ * {@code data.form}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FormCounter {
+    private int wins;
+    private int games;
+}
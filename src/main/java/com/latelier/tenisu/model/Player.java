@@ -1,12 +1,25 @@
 package com.latelier.tenisu.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.Data;
 
 @Data
 @Document(collection = "players")
+@CompoundIndexes({
+        // Classement et pagination par clé (rang puis id)
+        @CompoundIndex(name = "rank_idx", def = "{'data.rank': 1, '_id': 1}"),
+        // Détection des doublons à l'insertion
+        @CompoundIndex(name = "firstname_lastname_idx", def = "{'firstname': 1, 'lastname': 1}", unique = true),
+        // Recherche : égalité sur le pays ou le sexe, puis tri par rang sans étape SORT
+        @CompoundIndex(name = "country_rank_idx", def = "{'country.code': 1, 'data.rank': 1, '_id': 1}"),
+        @CompoundIndex(name = "sex_rank_idx", def = "{'sex': 1, 'data.rank': 1, '_id': 1}"),
+        // Recherche par préfixe du nom
+        @CompoundIndex(name = "lastname_idx", def = "{'lastname': 1}")
+})
 public class Player {
     @Id
     private String id;
@@ -0,0 +1,43 @@
+package com.latelier.tenisu.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Position in the change stream of the players collection, saved with the
+ * statistics aggregates computed up to that position.
+ *
+ * The aggregates are empty when the statistics are not computed
+ * incrementally.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "change_stream_checkpoints")
+public class PlayerChangeCheckpoint {
+    @Id
+    private String id;
+    /** Resume token of the last applied change, as extended JSON. */
+    private String resumeToken;
+    private List<Tally> tallies;
+    /** Number of players of each height, indexed by height. */
+    private long[] heights;
+    private double imcSum;
+    private long imcCount;
+    private Instant savedAt;
+
+    /**
+     * Win and game counters of a country.
+     */
+    public record Tally(Country country, long wins, long games) {
+    }
+
+    public boolean hasAggregates() {
+        return heights != null && tallies != null;
+    }
+}
@@ -1,5 +1,7 @@
 package com.latelier.tenisu.model;
 
+import java.util.Map;
+
 import lombok.Data;
 
 @Data
@@ -10,4 +12,6 @@ public class PlayerData {
     private int height;
     private int age;
     private int[] last;
+    // Compteurs glissants sur les derniers résultats, par taille de fenêtre
+    private Map<String, FormCounter> form;
 }
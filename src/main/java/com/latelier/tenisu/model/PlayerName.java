@@ -0,0 +1,9 @@
+package com.latelier.tenisu.model;
+
+/**
+ * Projection of a player on its firstname and lastname, the natural key of the
+ * players collection.
+ */
+public record PlayerName(String firstname, String lastname) {
+
+}
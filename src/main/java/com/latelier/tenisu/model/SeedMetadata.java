@@ -0,0 +1,25 @@
+package com.latelier.tenisu.model;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last seed file applied to the database, keyed by its resource location.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Document(collection = "seed_metadata")
+public class SeedMetadata {
+    @Id
+    private String location;
+    private String checksum;
+    private long players;
+    private Instant appliedAt;
+}
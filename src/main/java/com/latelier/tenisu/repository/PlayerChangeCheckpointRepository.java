@@ -0,0 +1,11 @@
+package com.latelier.tenisu.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.latelier.tenisu.model.PlayerChangeCheckpoint;
+
+@Repository
+public interface PlayerChangeCheckpointRepository extends MongoRepository<PlayerChangeCheckpoint, String> {
+
+}
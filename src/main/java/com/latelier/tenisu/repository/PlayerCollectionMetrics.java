@@ -0,0 +1,32 @@
+package com.latelier.tenisu.repository;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.latelier.tenisu.model.Player;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publishes the size of the players collection as {@code tenisu.players}.
+ *
+ * The gauge is read at each scrape from the collection metadata
+ * ({@code estimatedDocumentCount}), which does not scan the documents.
+ */
+@Component
+@RequiredArgsConstructor
+public class PlayerCollectionMetrics implements MeterBinder {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tenisu.players", mongoTemplate, template -> template.estimatedCount(Player.class))
+                .description("Number of documents in the players collection")
+                .baseUnit("players")
+                .register(registry);
+    }
+}
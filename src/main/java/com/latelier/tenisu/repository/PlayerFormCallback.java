@@ -0,0 +1,51 @@
+package com.latelier.tenisu.repository;
+
+import org.reactivestreams.Publisher;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.data.mongodb.core.mapping.event.ReactiveBeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+import com.latelier.tenisu.config.MatchProperties;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.utils.PlayerForm;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts {@code data.form} again from {@code data.last} for every player
+ * written as a whole document (creation, seeding), whatever the client sent,
+ * as only the match results update the counters incrementally.
+ *
+ * It must not depend on the Mongo templates, which load it while they are
+ * created.
+ */
+@Component
+@RequiredArgsConstructor
+public class PlayerFormCallback implements BeforeConvertCallback<Player> {
+
+    private final MatchProperties matchProperties;
+
+    @Override
+    public Player onBeforeConvert(Player player, String collection) {
+        if (player.getData() != null) {
+            player.getData().setForm(PlayerForm.of(player.getData().getLast(), matchProperties.formWindows()));
+        }
+        return player;
+    }
+
+    /**
+     * Same counting for the players written by the reactive repository.
+     */
+    @Component
+    @RequiredArgsConstructor
+    static class Reactive implements ReactiveBeforeConvertCallback<Player> {
+
+        private final PlayerFormCallback callback;
+
+        @Override
+        public Publisher<Player> onBeforeConvert(Player player, String collection) {
+            return Mono.just(callback.onBeforeConvert(player, collection));
+        }
+    }
+}
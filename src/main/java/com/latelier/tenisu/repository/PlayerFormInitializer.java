@@ -0,0 +1,95 @@
+package com.latelier.tenisu.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.latelier.tenisu.config.MatchProperties;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.utils.PlayerForm;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills {@code data.form} at startup for the stored players that miss one of
+ * the configured windows, written before the counters existed or before a
+ * window was added, and creates the index of each window used by the hottest
+ * players query. Players written afterwards get their form from
+ * {@link PlayerFormCallback} or from the incremental updates.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlayerFormInitializer {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final MatchProperties matchProperties;
+
+    /**
+     * Fills the form of the stored players that miss a configured window, then
+     * creates the index of each window.
+     *
+     * @return the number of players filled
+     */
+    public long initialize() {
+        long start = System.nanoTime();
+        List<Criteria> missing = matchProperties.formWindows().stream()
+                .map(window -> Criteria.where("data.form." + PlayerForm.key(window)).exists(false))
+                .toList();
+        Query query = Query.query(Criteria.where("data").ne(null).orOperator(missing));
+        query.fields().include("data.last");
+        long[] filled = { 0 };
+        List<Player> batch = new ArrayList<>(BATCH_SIZE);
+        try (Stream<Player> players = mongoTemplate.stream(query, Player.class)) {
+            players.forEach(player -> {
+                batch.add(player);
+                if (batch.size() == BATCH_SIZE) {
+                    filled[0] += fill(batch);
+                }
+            });
+        }
+        filled[0] += fill(batch);
+        if (filled[0] > 0) {
+            log.info("Filled the form of {} players in {} ms", filled[0], (System.nanoTime() - start) / 1_000_000);
+        }
+
+        IndexOperations indexOps = mongoTemplate.indexOps(Player.class);
+        for (int window : matchProperties.formWindows()) {
+            indexOps.createIndex(new Index()
+                    .on("data.form." + PlayerForm.key(window) + ".wins", Sort.Direction.DESC)
+                    .on("data.rank", Sort.Direction.ASC)
+                    .named("form_" + window + "_idx"));
+        }
+        return filled[0];
+    }
+
+    private int fill(List<Player> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Player.class);
+        for (Player player : batch) {
+            bulk.updateOne(Query.query(Criteria.where("id").is(player.getId())), Update.update("data.form",
+                    PlayerForm.of(player.getData().getLast(), matchProperties.formWindows())));
+        }
+        bulk.execute();
+        int filled = batch.size();
+        batch.clear();
+        return filled;
+    }
+}
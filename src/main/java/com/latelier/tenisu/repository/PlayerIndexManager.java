@@ -0,0 +1,74 @@
+package com.latelier.tenisu.repository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+
+import com.latelier.tenisu.model.Player;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates the indexes declared on {@link Player} and reports their status.
+ *
+ * Spring Boot does not create annotated indexes by default, and the seeding
+ * may drop the collection, so this has to run once the data is loaded.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlayerIndexManager {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Creates the missing indexes of the players collection.
+     *
+     * @return the indexes of the collection once created
+     */
+    public List<IndexInfo> ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Player.class);
+        Set<String> existing = indexOps.getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toSet());
+
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        resolver.resolveIndexFor(Player.class).forEach(index -> {
+            long start = System.nanoTime();
+            String name = indexOps.createIndex(index);
+            if (existing.contains(name)) {
+                log.info("Index {} on players already built", name);
+            } else {
+                log.info("Index {} on players built in {} ms", name, (System.nanoTime() - start) / 1_000_000);
+            }
+        });
+
+        List<IndexInfo> indexes = indexOps.getIndexInfo();
+        indexes.forEach(info -> log.info("players index {}: {} unique={}", info.getName(),
+                info.getIndexFields(), info.isUnique()));
+        return indexes;
+    }
+
+    /**
+     * Fields that lead an index declared on {@link Player}: a query filtering on
+     * one of them can be answered from an index range instead of a collection
+     * scan.
+     *
+     * @return the first key of each declared index
+     */
+    public Set<String> leadingKeys() {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        Set<String> keys = new HashSet<>();
+        resolver.resolveIndexFor(Player.class)
+                .forEach(index -> keys.add(index.getIndexKeys().keySet().iterator().next()));
+        return Set.copyOf(keys);
+    }
+}
@@ -1,13 +1,61 @@
 package com.latelier.tenisu.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerName;
 
 @Repository
-public interface PlayerRepository extends MongoRepository<Player, String> {
+public interface PlayerRepository extends MongoRepository<Player, String>, PlayerRepositoryCustom {
+
+    /**
+     * Rank order, ties broken by id so that keyset pagination is stable.
+     */
+    Sort BY_RANK_THEN_ID = Sort.by(Sort.Direction.ASC, "data.rank")
+            .and(Sort.by(Sort.Direction.ASC, "id"));
+
+    /**
+     * Names of the players whose firstname and lastname are both in the given
+     * sets. This is a superset of the exact (firstname, lastname) pairs, to be
+     * filtered by the caller, answered from the unique name index.
+     */
+    List<PlayerName> findByFirstnameInAndLastnameIn(Collection<String> firstnames, Collection<String> lastnames);
+
+    /**
+     * Streams every player from a Mongo cursor, without loading the whole
+     * collection in memory. The stream must be closed by the caller.
+     */
+    Stream<Player> streamAllBy();
+
+    /**
+     * Streams every player in the given order from a Mongo cursor. The stream
+     * must be closed by the caller.
+     */
+    Stream<Player> streamAllBy(Sort sort);
+
+    /**
+     * First page of the keyset pagination on {@code data.rank}.
+     */
+    List<Player> findAllBy(Sort sort, Limit limit);
+
+    /**
+     * Players ranked strictly after {@code rank}.
+     */
+    List<Player> findByDataRankGreaterThan(int rank, Sort sort, Limit limit);
 
-    boolean existsByFirstnameAndLastname(String firstname, String lastname);
+    /**
+     * Next page of the keyset pagination on {@code data.rank}: the players
+     * ranked after {@code rank}, or with the same rank and a greater id.
+     */
+    @Query("{ '$or': [ { 'data.rank': { '$gt': ?0 } }, { 'data.rank': ?0, '_id': { '$gt': ?1 } } ] }")
+    List<Player> findAllAfter(int rank, String id, Sort sort, Limit limit);
 
 }
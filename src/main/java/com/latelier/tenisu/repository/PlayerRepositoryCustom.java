@@ -0,0 +1,121 @@
+package com.latelier.tenisu.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+
+import com.latelier.tenisu.dto.PlayerResultsDto;
+import com.latelier.tenisu.dto.PlayerSearchCriteria;
+import com.latelier.tenisu.model.Player;
+
+/**
+ * Player queries that need {@link org.springframework.data.mongodb.core.MongoTemplate}.
+ */
+public interface PlayerRepositoryCustom {
+
+    /**
+     * Inserts the players with a single unordered bulk write: a rejected
+     * document does not stop the others.
+     *
+     * @param players the players to insert, with their ids already assigned
+     * @return the positions in {@code players} of the documents rejected by the
+     *         unique firstname + lastname index
+     */
+    Set<Integer> insertAllUnordered(List<Player> players);
+
+    /**
+     * Writes each player by id with a single unordered bulk write: a player is
+     * inserted whole when absent, otherwise its stored fields are set, except
+     * the insert-only ones which keep their stored values.
+     *
+     * @param players    the players to write, with their ids assigned
+     * @param insertOnly the field paths only written on insertion, e.g.
+     *                   data.points
+     * @return the number of documents inserted or modified
+     */
+    int upsertAll(List<Player> players, Collection<String> insertOnly);
+
+    /**
+     * Sets the points of a player.
+     *
+     * @param id     the id of the player
+     * @param points the new points
+     * @return the player as it was before the update, null if it does not exist
+     */
+    Player setPoints(String id, int points);
+
+    /**
+     * Adds the results of several players with a single unordered bulk write,
+     * one update per player: the results are appended to {@code data.last},
+     * which keeps only the latest ones, and the earned points are added. The
+     * form counters are then counted over the stored {@code data.last} and
+     * written only if it did not change meanwhile, read and written again
+     * otherwise. Unknown ids are ignored.
+     *
+     * @param results the results and earned points of each player, by id
+     * @param history the number of results kept in {@code data.last}
+     * @param windows the window sizes of the form counters
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the
+     *         results keep changing while the form is counted
+     */
+    void addResults(Map<String, PlayerResultsDto> results, int history, List<Integer> windows);
+
+    /**
+     * Sets the rank of each player with a single unordered bulk write.
+     *
+     * @param ranks the new rank of each player, by id
+     */
+    void updateRanks(Map<String, Integer> ranks);
+
+    /**
+     * Players in the best form over a window, served by the index of the
+     * window.
+     *
+     * @param window the window size, one of the configured ones
+     * @param limit  the maximum number of players
+     * @return the players with the most wins over the window, ties broken by
+     *         rank
+     */
+    List<Player> findHottest(int window, int limit);
+
+    /**
+     * Streams every player in the given order, reading only the given fields
+     * from Mongo. The stream must be closed by the caller.
+     *
+     * @param sort   the order of the players
+     * @param fields the field paths to read, the id is always read
+     * @return the partially loaded players
+     */
+    Stream<Player> streamAllProjected(Sort sort, Collection<String> fields);
+
+    /**
+     * Reads only the given fields of a player.
+     *
+     * @param id     the id of the player
+     * @param fields the field paths to read, the id is always read
+     * @return the partially loaded player, empty if it does not exist
+     */
+    Optional<Player> findProjectedById(String id, Collection<String> fields);
+
+    /**
+     * Players matching all the filters of {@code criteria}.
+     *
+     * @param criteria the filters
+     * @param sort     the order of the players
+     * @param limit    the maximum number of players
+     * @return the matching players
+     */
+    List<Player> search(PlayerSearchCriteria criteria, Sort sort, Limit limit);
+
+    /**
+     * @return the number of players from the collection metadata, without
+     *         counting the documents
+     */
+    long estimatedCount();
+}
@@ -0,0 +1,222 @@
+package com.latelier.tenisu.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.data.domain.Limit;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.latelier.tenisu.dto.PlayerResultsDto;
+import com.latelier.tenisu.dto.PlayerSearchCriteria;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.utils.PlayerForm;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class PlayerRepositoryCustomImpl implements PlayerRepositoryCustom {
+
+    private static final int FORM_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Set<Integer> insertAllUnordered(List<Player> players) {
+        if (players.isEmpty()) {
+            return Set.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkMode.UNORDERED, Player.class)
+                    .insert(players)
+                    .execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            Set<Integer> duplicates = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+                duplicates.add(error.getIndex());
+            }
+            return duplicates;
+        }
+    }
+
+    @Override
+    public int upsertAll(List<Player> players, Collection<String> insertOnly) {
+        if (players.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Player.class);
+        for (Player player : players) {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(player, document);
+            document.remove("_id");
+            Update update = new Update();
+            split("", document, insertOnly, update);
+            bulk.upsert(Query.query(Criteria.where("id").is(player.getId())), update);
+        }
+        BulkWriteResult result = bulk.execute();
+        return result.getUpserts().size() + result.getModifiedCount();
+    }
+
+    // $setOnInsert pour les champs réservés à l'insertion, $set pour les autres, en
+    // descendant dans les sous-documents qui en contiennent
+    private static void split(String prefix, Document document, Collection<String> insertOnly, Update update) {
+        document.forEach((key, value) -> {
+            String path = prefix + key;
+            if (insertOnly.contains(path)) {
+                update.setOnInsert(path, value);
+            } else if (value instanceof Document nested
+                    && insertOnly.stream().anyMatch(field -> field.startsWith(path + "."))) {
+                split(path + ".", nested, insertOnly, update);
+            } else {
+                update.set(path, value);
+            }
+        });
+    }
+
+    @Override
+    public Player setPoints(String id, int points) {
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("id").is(id)),
+                new Update().set("data.points", points), Player.class);
+    }
+
+    @Override
+    public void addResults(Map<String, PlayerResultsDto> results, int history, List<Integer> windows) {
+        if (results.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Player.class);
+        results.forEach((id, playerResults) -> {
+            Update update = new Update().inc("data.points", playerResults.points());
+            update.push("data.last").slice(-history).each(playerResults.results().toArray());
+            bulk.updateOne(Query.query(Criteria.where("id").is(id)), update);
+        });
+        bulk.execute();
+        countForm(results.keySet(), windows);
+    }
+
+    // Les compteurs sont recomptés sur data.last tel qu'il est stocké, et écrits
+    // seulement s'il n'a pas changé depuis : sinon une autre écriture est passée
+    // entre la lecture et l'écriture, qui sont refaites
+    private void countForm(Collection<String> ids, List<Integer> windows) {
+        for (int attempt = 0; attempt < FORM_ATTEMPTS; attempt++) {
+            Query query = Query.query(Criteria.where("id").in(ids));
+            query.fields().include("data.last");
+            List<Player> players = mongoTemplate.find(query, Player.class);
+            if (players.isEmpty()) {
+                return;
+            }
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Player.class);
+            for (Player player : players) {
+                int[] last = player.getData() != null ? player.getData().getLast() : null;
+                bulk.updateOne(Query.query(Criteria.where("id").is(player.getId()).and("data.last").is(last)),
+                        Update.update("data.form", PlayerForm.of(last, windows)));
+            }
+            if (bulk.execute().getMatchedCount() == players.size()) {
+                return;
+            }
+        }
+        throw new OptimisticLockingFailureException("The latest results of players " + ids
+                + " kept changing while counting their form");
+    }
+
+    @Override
+    public void updateRanks(Map<String, Integer> ranks) {
+        if (ranks.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Player.class);
+        ranks.forEach((id, rank) -> bulk.updateOne(Query.query(Criteria.where("id").is(id)),
+                Update.update("data.rank", rank)));
+        bulk.execute();
+    }
+
+    @Override
+    public List<Player> findHottest(int window, int limit) {
+        String wins = "data.form." + PlayerForm.key(window) + ".wins";
+        Query query = Query.query(Criteria.where(wins).gt(0))
+                .with(Sort.by(Sort.Order.desc(wins), Sort.Order.asc("data.rank")))
+                .limit(limit);
+        return mongoTemplate.find(query, Player.class);
+    }
+
+    @Override
+    public Stream<Player> streamAllProjected(Sort sort, Collection<String> fields) {
+        return mongoTemplate.stream(project(new Query().with(sort), fields), Player.class);
+    }
+
+    @Override
+    public Optional<Player> findProjectedById(String id, Collection<String> fields) {
+        return Optional.ofNullable(
+                mongoTemplate.findOne(project(Query.query(Criteria.where("id").is(id)), fields), Player.class));
+    }
+
+    @Override
+    public List<Player> search(PlayerSearchCriteria criteria, Sort sort, Limit limit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (criteria.sex() != null) {
+            filters.add(Criteria.where("sex").is(criteria.sex()));
+        }
+        if (criteria.country() != null) {
+            filters.add(Criteria.where("country.code").is(criteria.country()));
+        }
+        addRange(filters, "data.rank", criteria.minRank(), criteria.maxRank());
+        addRange(filters, "data.points", criteria.minPoints(), criteria.maxPoints());
+        addRange(filters, "data.age", criteria.minAge(), criteria.maxAge());
+        if (criteria.name() != null) {
+            // Préfixe ancré et sensible à la casse : borné sur l'index lastname_idx
+            filters.add(Criteria.where("lastname").regex("^" + escapeRegex(criteria.name())));
+        }
+        Query query = filters.isEmpty() ? new Query() : Query.query(new Criteria().andOperator(filters));
+        return mongoTemplate.find(query.with(sort).limit(limit), Player.class);
+    }
+
+    @Override
+    public long estimatedCount() {
+        return mongoTemplate.estimatedCount(Player.class);
+    }
+
+    private static void addRange(List<Criteria> filters, String path, Integer min, Integer max) {
+        if (min == null && max == null) {
+            return;
+        }
+        Criteria range = Criteria.where(path);
+        if (min != null) {
+            range.gte(min);
+        }
+        if (max != null) {
+            range.lte(max);
+        }
+        filters.add(range);
+    }
+
+    private static String escapeRegex(String literal) {
+        return literal.replaceAll("[^\\p{L}\\p{N}]", "\\\\$0");
+    }
+
+    private static Query project(Query query, Collection<String> fields) {
+        fields.forEach(query.fields()::include);
+        return query;
+    }
+}
@@ -0,0 +1,22 @@
+package com.latelier.tenisu.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.latelier.tenisu.model.Player;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking access to the players collection, used by the reactive stack.
+ */
+@Repository
+public interface ReactivePlayerRepository extends ReactiveMongoRepository<Player, String> {
+
+    /**
+     * All players in the given order, emitted as the cursor is read: the
+     * demand of the subscriber drives the batches fetched from Mongo.
+     */
+    Flux<Player> findAllBy(Sort sort);
+}
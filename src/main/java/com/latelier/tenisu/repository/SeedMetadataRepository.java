@@ -0,0 +1,11 @@
+package com.latelier.tenisu.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.latelier.tenisu.model.SeedMetadata;
+
+@Repository
+public interface SeedMetadataRepository extends MongoRepository<SeedMetadata, String> {
+
+}
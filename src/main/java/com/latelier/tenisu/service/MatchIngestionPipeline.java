@@ -0,0 +1,231 @@
+package com.latelier.tenisu.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.latelier.tenisu.config.IngestionProperties;
+import com.latelier.tenisu.dto.MatchResultDto;
+import com.latelier.tenisu.dto.PlayerResultsDto;
+import com.latelier.tenisu.exception.IngestionQueueFullException;
+import com.latelier.tenisu.model.Player;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Queue of the match results sent to {@code POST /players/matches/ingest},
+ * written in micro-batches instead of one round trip per match.
+ *
+ * A single thread takes up to {@code tenisu.ingestion.batch-size} matches,
+ * waiting at most {@code tenisu.ingestion.max-delay} for the batch to fill,
+ * coalesces them per player, and writes each player once through
+ * {@link PlayerService#recordResults}: one bulk write of {@code $inc} on the
+ * points and {@code $push}/{@code $slice} on {@code data.last}, then the
+ * reranking. Results of players that do not exist are ignored.
+ *
+ * Past {@code tenisu.ingestion.queue-capacity} matches waiting or being
+ * written, new requests are rejected as a whole, answered with 429 Too Many
+ * Requests. A batch whose write fails is dropped and counted, as the bulk write
+ * may have been partially applied and cannot safely be replayed.
+ *
+ * The writing thread is started once the application is ready, and stopped
+ * with the context after writing the accepted matches.
+ */
+@Slf4j
+@Component
+public class MatchIngestionPipeline implements DisposableBean {
+
+    // Au-delà, l'arrêt abandonne les matchs restants
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private final PlayerService playerService;
+
+    private final IngestionProperties properties;
+
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    // Matchs en attente ou en cours d'écriture, bornés par queue-capacity
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Timer lag;
+
+    private final DistributionSummary batchSize;
+
+    private final DistributionSummary batchPlayers;
+
+    private final Counter rejected;
+
+    private final Counter ignored;
+
+    private final Counter failed;
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    private record Pending(MatchResultDto match, long enqueuedAt) {
+    }
+
+    public MatchIngestionPipeline(PlayerService playerService, IngestionProperties properties,
+            MeterRegistry meterRegistry) {
+        this.playerService = playerService;
+        this.properties = properties;
+        Gauge.builder("tenisu.ingestion.pending", pending, AtomicInteger::get)
+                .description("Ingested matches waiting to be written")
+                .register(meterRegistry);
+        this.lag = Timer.builder("tenisu.ingestion.lag")
+                .description("Time from the ingestion of a match to its write")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("tenisu.ingestion.batch.size")
+                .description("Matches written per bulk write")
+                .register(meterRegistry);
+        this.batchPlayers = DistributionSummary.builder("tenisu.ingestion.batch.players")
+                .description("Players updated per bulk write, once their matches are coalesced")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("tenisu.ingestion.rejected")
+                .description("Matches rejected because the ingestion queue was full")
+                .register(meterRegistry);
+        this.ignored = Counter.builder("tenisu.ingestion.ignored")
+                .description("Results ignored because the player does not exist")
+                .register(meterRegistry);
+        this.failed = Counter.builder("tenisu.ingestion.failed")
+                .description("Matches dropped because their bulk write failed")
+                .register(meterRegistry);
+    }
+
+    // Les matchs acceptés avant que l'application soit prête attendent dans la file
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        running = true;
+        thread = Thread.ofPlatform().name("match-ingestion").daemon().start(this::run);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // Les matchs déjà acceptés sont encore écrits avant l'arrêt
+        running = false;
+        if (thread != null) {
+            thread.join(SHUTDOWN_TIMEOUT_MILLIS);
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Queues match results to be written in the next batches.
+     *
+     * @param matches the results to record
+     * @throws IllegalArgumentException     if a match is invalid, or if there are
+     *                                      more matches than the queue can hold
+     * @throws IngestionQueueFullException if the queue cannot take all of them,
+     *                                      none is queued then
+     */
+    public void offer(List<MatchResultDto> matches) {
+        if (matches == null || matches.isEmpty()) {
+            throw new IllegalArgumentException("Matches are required");
+        }
+        if (matches.size() > properties.queueCapacity()) {
+            throw new IllegalArgumentException("At most " + properties.queueCapacity() + " matches per request");
+        }
+        matches.forEach(PlayerService::validate);
+        int current;
+        do {
+            current = pending.get();
+            if (current + matches.size() > properties.queueCapacity()) {
+                rejected.increment(matches.size());
+                throw new IngestionQueueFullException(
+                        "Match ingestion queue is full: " + current + " matches pending, retry later");
+            }
+        } while (!pending.compareAndSet(current, current + matches.size()));
+        long now = System.nanoTime();
+        matches.forEach(match -> queue.add(new Pending(match, now)));
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(properties.batchSize());
+        boolean interrupted = false;
+        while (!interrupted && (running || !queue.isEmpty())) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Fills the batch until it holds batch-size matches, or max-delay after its
+     * first match.
+     */
+    private void collect(List<Pending> batch) throws InterruptedException {
+        // Attente bornée, pour remarquer l'arrêt
+        Pending first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + properties.maxDelay().toNanos();
+        while (batch.size() < properties.batchSize()) {
+            queue.drainTo(batch, properties.batchSize() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= properties.batchSize() || remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        Map<String, PlayerResultsDto> results = coalesce(batch);
+        try {
+            List<Player> updated = playerService.recordResults(results);
+            ignored.increment(results.size() - updated.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.error("Dropped a batch of {} ingested matches, its write failed", batch.size(), e);
+        } finally {
+            long now = System.nanoTime();
+            batch.forEach(written -> lag.record(now - written.enqueuedAt(), TimeUnit.NANOSECONDS));
+            batchSize.record(batch.size());
+            batchPlayers.record(results.size());
+            pending.addAndGet(-batch.size());
+        }
+    }
+
+    // Un seul $inc et un seul $push par joueur, les résultats dans l'ordre d'arrivée
+    private static Map<String, PlayerResultsDto> coalesce(List<Pending> batch) {
+        Map<String, Integer> points = new LinkedHashMap<>();
+        Map<String, List<Integer>> results = new LinkedHashMap<>();
+        for (Pending queued : batch) {
+            MatchResultDto match = queued.match();
+            points.merge(match.winner(), match.winnerPoints(), Integer::sum);
+            results.computeIfAbsent(match.winner(), id -> new ArrayList<>()).add(1);
+            points.merge(match.loser(), match.loserPoints(), Integer::sum);
+            results.computeIfAbsent(match.loser(), id -> new ArrayList<>()).add(0);
+        }
+        Map<String, PlayerResultsDto> coalesced = new LinkedHashMap<>();
+        results.forEach((id, playerResults) -> coalesced.put(id, new PlayerResultsDto(points.get(id), playerResults)));
+        return coalesced;
+    }
+}
@@ -0,0 +1,96 @@
+package com.latelier.tenisu.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.latelier.tenisu.config.PlayerCacheProperties;
+import com.latelier.tenisu.model.Player;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded read-through cache of the player lookups by id.
+ *
+ * Unknown ids are cached as {@link Optional#empty()} with a shorter TTL, so
+ * that repeated lookups of bad ids do not reach Mongo. Hits, misses and
+ * evictions are published as {@code cache.*} metrics with the tag
+ * {@code cache=players}.
+ */
+@Component
+public class PlayerCache {
+
+    private final Cache<String, Optional<Player>> cache;
+
+    public PlayerCache(PlayerCacheProperties properties, MeterRegistry meterRegistry) {
+        Duration ttl = properties.ttl();
+        Duration negativeTtl = properties.negativeTtl();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfter(Expiry.<String, Optional<Player>>writing(
+                        (id, player) -> player.isPresent() ? ttl : negativeTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "players");
+    }
+
+    /**
+     * Returns the cached lookup of {@code id}, loading it on a miss.
+     *
+     * @param id     the player id
+     * @param loader the lookup to run on a miss
+     * @return the player, or empty if the id is unknown
+     */
+    public Optional<Player> get(String id, Function<String, Optional<Player>> loader) {
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Returns the cached lookup of {@code id} without loading it, for callers
+     * that load players asynchronously or read only some of their fields.
+     *
+     * @param id the player id
+     * @return a hit holding the cached player, empty if the id is known to be
+     *         unknown, or {@link Lookup#MISS}
+     */
+    public Lookup lookup(String id) {
+        Optional<Player> player = cache.getIfPresent(id);
+        return player != null ? new Lookup(true, player) : Lookup.MISS;
+    }
+
+    public void put(String id, Optional<Player> player) {
+        cache.put(id, player);
+    }
+
+    public void invalidate(String id) {
+        if (id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Result of {@link #lookup(String)}.
+     *
+     * @param hit    whether the id was cached; if not, the player has to be read
+     * @param player the cached player, empty on a miss or for an unknown id
+     */
+    public record Lookup(boolean hit, Optional<Player> player) {
+
+        public static final Lookup MISS = new Lookup(false, Optional.empty());
+    }
+}
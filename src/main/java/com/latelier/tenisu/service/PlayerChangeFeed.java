@@ -0,0 +1,377 @@
+package com.latelier.tenisu.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.latelier.tenisu.config.ChangeStreamProperties;
+import com.latelier.tenisu.config.StatisticsMode;
+import com.latelier.tenisu.config.StatisticsProperties;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerChangeCheckpoint;
+import com.latelier.tenisu.repository.PlayerChangeCheckpointRepository;
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.mongodb.client.model.changestream.OperationType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Follows the changes of the players collection, made by this node or any
+ * other, with a MongoDB change stream, and applies them to the local caches
+ * and to the incremental statistics. Enabled with
+ * {@code tenisu.change-stream.enabled}, it requires a replica set.
+ *
+ * The resume token of the stream and the statistics aggregates computed up to
+ * it are saved together every {@code tenisu.change-stream.checkpoint-interval},
+ * so a restarted node restores the aggregates and only replays the changes made
+ * since. Without a usable checkpoint the aggregates are rebuilt from a snapshot
+ * read, and the stream starts right after the time of that snapshot.
+ *
+ * Removing the previous version of an updated or deleted player from the
+ * aggregates needs its pre-image: pre- and post-images are enabled on the
+ * collection at startup (MongoDB 6.0+), and a change without them falls back
+ * to a rebuild.
+ *
+ * Any other error reopens the stream after the last applied change, once a
+ * delay that doubles with each consecutive error has elapsed. A change that
+ * still fails after {@value #MAX_REPLAYS} attempts is skipped by a rebuild, and
+ * a change the aggregates cannot take triggers a rebuild right away, so that
+ * neither blocks the following changes.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "tenisu.change-stream", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class PlayerChangeFeed implements DisposableBean {
+
+    static final String CHECKPOINT_ID = "players";
+
+    // Codes MongoDB : jeton absent de l'oplog, ou flux impossible à reprendre
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    // Délai maximal entre deux reprises, en multiple de retryDelay
+    private static final int MAX_RETRY_FACTOR = 12;
+
+    // Essais d'un même changement avant de repartir d'un snapshot
+    static final int MAX_REPLAYS = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final PlayerCache playerCache;
+
+    private final RankedPlayersResponseCache rankedPlayersResponseCache;
+
+    private final PlayerColumnarStore columnarStore;
+
+    private final PlayerStatisticsEngine statisticsEngine;
+
+    private final PlayerChangeCheckpointRepository checkpointRepository;
+
+    private final PlayerRankingBroadcaster rankingBroadcaster;
+
+    private final PlayerRanking ranking;
+
+    private final StatisticsProperties statisticsProperties;
+
+    private final ChangeStreamProperties properties;
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    // Position du dernier changement appliqué, lue et écrite par le seul thread du flux
+    private Position position;
+
+    // Échecs depuis la dernière reprise réussie, par le même thread
+    private int failures;
+
+    // Position rejouée après une erreur inattendue, et nombre d'échecs à cette position
+    private Position failing;
+
+    private int replays;
+
+    /**
+     * Position to open the stream at: after a resume token, or at an operation
+     * time.
+     */
+    private record Position(BsonDocument resumeToken, BsonTimestamp startAt) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        enablePreAndPostImages();
+        running = true;
+        thread = Thread.ofPlatform().name("player-change-feed").daemon().start(this::run);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            // tryNext rend la main après maxAwaitTime, puis le dernier jeton est sauvegardé
+            thread.join(properties.retryDelay().toMillis());
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (position == null) {
+                    position = initialize();
+                }
+                follow();
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST || e.getErrorCode() == CHANGE_STREAM_FATAL_ERROR) {
+                    log.warn("Player change stream cannot be resumed, rebuilding: {}", e.getErrorMessage());
+                    checkpointRepository.deleteById(CHECKPOINT_ID);
+                    position = null;
+                } else {
+                    pause(e);
+                }
+            } catch (MongoException | DataAccessException e) {
+                pause(e);
+            } catch (RuntimeException e) {
+                // Erreur inattendue en appliquant un changement : le flux reprend
+                // au dernier jeton, le changement est rejoué
+                log.error("Unexpected error while following player changes", e);
+                replays = position != null && position.equals(failing) ? replays + 1 : 1;
+                failing = position;
+                if (position != null && replays >= MAX_REPLAYS) {
+                    log.error("Player change failed {} times, rebuilding past it", replays);
+                    checkpointRepository.deleteById(CHECKPOINT_ID);
+                    position = null;
+                    failing = null;
+                    replays = 0;
+                }
+                pause(e);
+            }
+        }
+    }
+
+    private void pause(RuntimeException e) {
+        if (!running) {
+            return;
+        }
+        // Le délai double à chaque échec consécutif
+        long factor = Math.min(1L << Math.min(failures, 4), MAX_RETRY_FACTOR);
+        Duration delay = properties.retryDelay().multipliedBy(factor);
+        failures++;
+        log.warn("Player change stream interrupted, resuming in {}", delay, e);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private Position initialize() {
+        Optional<PlayerChangeCheckpoint> checkpoint = checkpointRepository.findById(CHECKPOINT_ID)
+                .filter(saved -> saved.getResumeToken() != null)
+                .filter(saved -> !isIncremental() || saved.hasAggregates());
+        if (checkpoint.isEmpty()) {
+            return resync();
+        }
+        if (isIncremental()) {
+            statisticsEngine.restore(checkpoint.get());
+        }
+        log.info("Resuming player changes from the checkpoint saved at {}", checkpoint.get().getSavedAt());
+        return new Position(BsonDocument.parse(checkpoint.get().getResumeToken()), null);
+    }
+
+    /**
+     * Drops the local state and rebuilds the aggregates from a snapshot read.
+     *
+     * @return the position right after the snapshot
+     */
+    private Position resync() {
+        BsonTimestamp snapshotTime;
+        try (ClientSession session = mongoTemplate.getMongoDatabaseFactory()
+                .getSession(ClientSessionOptions.builder().snapshot(true).build())) {
+            MongoTemplate snapshot = mongoTemplate.withSession(session);
+            if (isIncremental()) {
+                try (Stream<Player> players = snapshot.stream(new Query(), Player.class)) {
+                    statisticsEngine.rebuild(players);
+                }
+            } else {
+                // Une lecture suffit pour fixer l'instant du snapshot
+                snapshot.findOne(new Query(), Player.class);
+            }
+            snapshotTime = session.getSnapshotTimestamp();
+        }
+        playerCache.invalidateAll();
+        rankedPlayersResponseCache.invalidate();
+        columnarStore.invalidate();
+        ranking.invalidate();
+        rankingBroadcaster.publishSnapshot();
+        log.info("Player change stream starting after the snapshot at {}", snapshotTime);
+        // Les changements au plus tard à l'instant du snapshot sont déjà lus
+        return new Position(null, snapshotTime != null
+                ? new BsonTimestamp(snapshotTime.getTime(), snapshotTime.getInc() + 1)
+                : null);
+    }
+
+    /**
+     * Applies the changes until the node stops or the stream has to be
+     * rebuilt, which resets the position.
+     */
+    private void follow() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Player.class))
+                .watch()
+                .fullDocument(FullDocument.WHEN_AVAILABLE)
+                .fullDocumentBeforeChange(FullDocumentBeforeChange.WHEN_AVAILABLE)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (position.resumeToken() != null) {
+            stream = stream.resumeAfter(position.resumeToken());
+        } else if (position.startAt() != null) {
+            stream = stream.startAtOperationTime(position.startAt());
+        }
+
+        BsonDocument savedToken = position.resumeToken();
+        long nextCheckpoint = System.nanoTime() + properties.checkpointInterval().toNanos();
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null && !apply(change)) {
+                    position = null;
+                    return;
+                }
+                if (cursor.getResumeToken() != null) {
+                    position = new Position(cursor.getResumeToken(), null);
+                    failures = 0;
+                }
+                BsonDocument resumeToken = position.resumeToken();
+                if (resumeToken != null && !resumeToken.equals(savedToken)
+                        && System.nanoTime() - nextCheckpoint >= 0) {
+                    saveCheckpoint(resumeToken);
+                    savedToken = resumeToken;
+                    nextCheckpoint = System.nanoTime() + properties.checkpointInterval().toNanos();
+                }
+            }
+        }
+        if (position.resumeToken() != null && !position.resumeToken().equals(savedToken)) {
+            saveCheckpoint(position.resumeToken());
+        }
+    }
+
+    private boolean apply(ChangeStreamDocument<Document> change) {
+        OperationType type = change.getOperationType();
+        if (type != OperationType.INSERT && type != OperationType.UPDATE && type != OperationType.REPLACE
+                && type != OperationType.DELETE) {
+            // drop, rename, invalidate... : l'état local repart de zéro
+            log.info("Players collection {}, rebuilding", type.getValue());
+            return false;
+        }
+        return onChange(type, documentId(change.getDocumentKey()),
+                read(change.getFullDocumentBeforeChange()), read(change.getFullDocument()));
+    }
+
+    /**
+     * Applies a change of a player to the aggregates, then to the caches and the
+     * ranking subscribers, so that a change that has to be replayed or rebuilt
+     * is never published twice.
+     *
+     * @param type   the operation, insert, update, replace or delete
+     * @param id     the id of the player
+     * @param before the pre-image, null for an insertion or when unavailable
+     * @param after  the post-image, null for a deletion or when unavailable
+     * @return false when the aggregates cannot be updated and must be rebuilt
+     */
+    boolean onChange(OperationType type, String id, Player before, Player after) {
+        if (isIncremental()) {
+            boolean missingBefore = type != OperationType.INSERT && before == null;
+            boolean missingAfter = type != OperationType.DELETE && after == null;
+            if (missingBefore || missingAfter) {
+                log.warn("No pre- or post-image for the {} of player {}, rebuilding", type.getValue(), id);
+                return false;
+            }
+            try {
+                statisticsEngine.apply(before, after);
+            } catch (RuntimeException e) {
+                // Les agrégats ont pu être modifiés en partie : ils sont reconstruits
+                log.error("Failed to apply the {} of player {} to the statistics, rebuilding", type.getValue(), id,
+                        e);
+                return false;
+            }
+        }
+        playerCache.invalidate(id);
+        rankedPlayersResponseCache.invalidate();
+        columnarStore.invalidate();
+        ranking.onChange(id, after);
+        publish(type, id, before, after);
+        return true;
+    }
+
+    private void publish(OperationType type, String id, Player before, Player after) {
+        if (type == OperationType.DELETE) {
+            rankingBroadcaster.publishDeleted(id);
+        } else if (after == null) {
+            log.debug("No post-image for the {} of player {}, not published", type.getValue(), id);
+        } else if (type == OperationType.INSERT) {
+            rankingBroadcaster.publishCreated(after);
+        } else {
+            rankingBroadcaster.publishUpdated(before, after);
+        }
+    }
+
+    private void saveCheckpoint(BsonDocument resumeToken) {
+        PlayerChangeCheckpoint checkpoint = isIncremental() ? statisticsEngine.checkpoint()
+                : new PlayerChangeCheckpoint();
+        checkpoint.setId(CHECKPOINT_ID);
+        checkpoint.setResumeToken(resumeToken.toJson());
+        checkpoint.setSavedAt(Instant.now());
+        checkpointRepository.save(checkpoint);
+    }
+
+    private void enablePreAndPostImages() {
+        try {
+            mongoTemplate.executeCommand(new Document("collMod", mongoTemplate.getCollectionName(Player.class))
+                    .append("changeStreamPreAndPostImages", new Document("enabled", true)));
+        } catch (DataAccessException e) {
+            log.warn("Pre- and post-images unavailable on players (MongoDB 6.0+), updates will trigger rebuilds: {}",
+                    e.getMessage());
+        }
+    }
+
+    private Player read(Document document) {
+        return document != null ? mongoTemplate.getConverter().read(Player.class, document) : null;
+    }
+
+    private static String documentId(BsonDocument documentKey) {
+        BsonValue id = documentKey.get("_id");
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private boolean isIncremental() {
+        return statisticsProperties.mode() == StatisticsMode.INCREMENTAL;
+    }
+}
@@ -0,0 +1,121 @@
+package com.latelier.tenisu.service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import com.latelier.tenisu.config.ParallelStatisticsProperties;
+import com.latelier.tenisu.dto.CountryWinRatioDto;
+import com.latelier.tenisu.dto.StatisticsDto;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.repository.PlayerRepository;
+import com.latelier.tenisu.utils.PlayerColumns;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds a {@link PlayerColumns} snapshot of the players collection for the
+ * {@code columnar} statistics mode. The snapshot is read from Mongo on first
+ * use and again lazily after {@link #invalidate()}, so that computing the
+ * statistics never touches a {@link Player} object.
+ *
+ * From {@code tenisu.statistics.parallel.threshold} players the statistics are
+ * computed in chunks on a fork/join pool, the common one unless
+ * {@code tenisu.statistics.parallel.parallelism} asks for a dedicated pool.
+ */
+@Slf4j
+@Component
+public class PlayerColumnarStore implements DisposableBean {
+
+    private final PlayerRepository playerRepository;
+
+    private final ForkJoinPool pool;
+
+    private final int parallelThreshold;
+
+    // The version and the columns change together, so that columns built
+    // before an invalidate() cannot be kept after it
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(new Snapshot(0, null));
+
+    public PlayerColumnarStore(PlayerRepository playerRepository, ParallelStatisticsProperties parallelProperties) {
+        this.playerRepository = playerRepository;
+        this.pool = parallelProperties.parallelism() > 0 ? new ForkJoinPool(parallelProperties.parallelism())
+                : ForkJoinPool.commonPool();
+        this.parallelThreshold = parallelProperties.threshold();
+    }
+
+    public PlayerColumns get() {
+        PlayerColumns columns = current.get().columns();
+        if (columns != null) {
+            return columns;
+        }
+        synchronized (this) {
+            Snapshot snapshot = current.get();
+            if (snapshot.columns() != null) {
+                return snapshot.columns();
+            }
+            PlayerColumns built = build();
+            // A write during the build makes the result stale, serve it once
+            // without keeping it
+            current.compareAndSet(snapshot, new Snapshot(snapshot.version(), built));
+            return built;
+        }
+    }
+
+    /**
+     * Computes the statistics from the current snapshot.
+     *
+     * @return the statistics of all the players
+     */
+    public StatisticsDto getStatistics() {
+        PlayerColumns.Summary summary = get().summarize(pool, parallelThreshold);
+        return new StatisticsDto(
+                Objects.requireNonNullElse(summary.bestCountry(), PlayerStatisticsEngine.UNKNOWN_COUNTRY),
+                summary.averageImc(), summary.medianHeight());
+    }
+
+    /**
+     * Ranks the countries of the current snapshot by win ratio.
+     *
+     * @param top the maximum number of countries
+     * @return the best countries, best first
+     */
+    public List<CountryWinRatioDto> getCountryLeaderboard(int top) {
+        return get().summarize(pool, parallelThreshold).topCountries(top).stream()
+                .map(CountryWinRatioDto::of)
+                .toList();
+    }
+
+    /**
+     * Drops the snapshot, to be called whenever the roster changes.
+     */
+    public void invalidate() {
+        current.updateAndGet(snapshot -> new Snapshot(snapshot.version() + 1, null));
+    }
+
+    @Override
+    public void destroy() {
+        if (pool != ForkJoinPool.commonPool()) {
+            pool.shutdown();
+        }
+    }
+
+    private PlayerColumns build() {
+        long start = System.nanoTime();
+        PlayerColumns columns;
+        try (Stream<Player> players = playerRepository.streamAllBy()) {
+            columns = PlayerColumns.of(players.iterator());
+        }
+        log.info("Loaded {} players in columns ({} countries) in {} ms", columns.size(), columns.countryCount(),
+                (System.nanoTime() - start) / 1_000_000);
+        return columns;
+    }
+
+    private record Snapshot(long version, PlayerColumns columns) {
+    }
+}
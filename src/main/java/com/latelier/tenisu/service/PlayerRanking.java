@@ -0,0 +1,404 @@
+package com.latelier.tenisu.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Component;
+
+import com.latelier.tenisu.config.MatchProperties;
+import com.latelier.tenisu.dto.MatchResultDto;
+import com.latelier.tenisu.dto.PlayerResultsDto;
+import com.latelier.tenisu.dto.RankingDeltaDto;
+import com.latelier.tenisu.exception.PlayerNotFoundException;
+import com.latelier.tenisu.model.FormCounter;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
+import com.latelier.tenisu.repository.PlayerRepository;
+import com.latelier.tenisu.utils.OrderStatisticTree;
+import com.latelier.tenisu.utils.PlayerForm;
+import com.latelier.tenisu.utils.PlayerMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps {@code data.rank} consistent with the points: the players are ranked
+ * by points, highest first, ties broken by id.
+ *
+ * The order is held in memory in an {@link OrderStatisticTree}, so moving a
+ * player after a change of points costs O(log n), and only the ranks that
+ * actually changed, between the old and the new position of the player, are
+ * written with a bulk update. A created player is inserted in the tree, which
+ * only shifts the ranks below its position. The tree is loaded on the first
+ * change, which also realigns the stored ranks on the points, and dropped when
+ * players are deleted or changed elsewhere.
+ *
+ * Changes are serialized by this node: concurrent changes made through
+ * several nodes are only reconciled by the next load.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlayerRanking {
+
+    static final Comparator<Standing> ORDER = Comparator.comparingInt(Standing::points).reversed()
+            .thenComparing(Standing::id);
+
+    private static final List<String> RANKED_FIELDS = List.of("data.points", "data.rank");
+
+    private final PlayerRepository playerRepository;
+
+    private final PlayerMapper mapper;
+
+    private final MatchProperties matchProperties;
+
+    // null tant que le classement n'est pas chargé
+    private OrderStatisticTree<Standing> order;
+
+    private final Map<String, Standing> standings = new HashMap<>();
+
+    // Rang enregistré de chaque joueur, pour n'écrire que ceux qui changent
+    private final Map<String, Integer> storedRanks = new HashMap<>();
+
+    record Standing(String id, int points) {
+    }
+
+    /**
+     * Players changed by a ranking operation.
+     *
+     * @param before    the changed players before the operation
+     * @param after     the changed players after it, with their new rank
+     * @param deltas    the new rank and points of every player whose rank or
+     *                  points were written
+     * @param realigned true if the stored ranks were realigned on the points
+     *                  while loading the ranking, which changes more players
+     *                  than the deltas
+     */
+    public record Update(List<Player> before, List<Player> after, List<RankingDeltaDto> deltas,
+            boolean realigned) {
+    }
+
+    /**
+     * Sets the points of a player and reranks the players between its old and
+     * new positions.
+     *
+     * @param id     the id of the player
+     * @param points the new points
+     * @return the changed player and the new ranks
+     * @throws PlayerNotFoundException if the player does not exist
+     */
+    public synchronized Update setPoints(String id, int points) {
+        boolean realigned = load();
+        requireRanked(id);
+        Player before = playerRepository.setPoints(id, points);
+        if (before == null) {
+            throw missing(id);
+        }
+        Player after = mapper.copy(before);
+        after.getData().setPoints(points);
+        return move(List.of(before), List.of(after), realigned);
+    }
+
+    /**
+     * Records a match: appends the result of each player to its latest results,
+     * adds the points they earned, and reranks them.
+     *
+     * @param match the result of the match
+     * @return the winner and the loser, in this order, and the new ranks
+     * @throws PlayerNotFoundException if a player does not exist
+     */
+    public synchronized Update recordMatch(MatchResultDto match) {
+        boolean realigned = load();
+        // Vérifié avant toute écriture, pour ne pas enregistrer un demi-match
+        requireRanked(match.winner());
+        requireRanked(match.loser());
+        Map<String, PlayerResultsDto> results = new LinkedHashMap<>();
+        results.put(match.winner(), new PlayerResultsDto(match.winnerPoints(), List.of(1)));
+        results.put(match.loser(), new PlayerResultsDto(match.loserPoints(), List.of(0)));
+        Map<String, Player> players = find(results.keySet());
+        for (String id : results.keySet()) {
+            if (!players.containsKey(id)) {
+                throw missing(id);
+            }
+        }
+        return addResults(results, players, realigned);
+    }
+
+    /**
+     * Records the results of several players, coalesced from several matches,
+     * with one bulk write, and reranks them. The players that do not exist are
+     * ignored.
+     *
+     * If the write fails it may have been partially applied, so the ranking is
+     * dropped and reloaded on the next change.
+     *
+     * @param results the results and earned points of each player, by id
+     * @return the changed players and the new ranks
+     */
+    public synchronized Update recordResults(Map<String, PlayerResultsDto> results) {
+        boolean realigned = load();
+        List<String> ids = results.keySet().stream().filter(standings::containsKey).toList();
+        if (ids.isEmpty()) {
+            return new Update(List.of(), List.of(), List.of(), realigned);
+        }
+        return addResults(results, find(ids), realigned);
+    }
+
+    /**
+     * Inserts created players in the ranking, and reranks the players from the
+     * highest position of a created player, the only ones shifted. Nothing is
+     * done while the ranking is not loaded, as the next load ranks them.
+     *
+     * @param created the created players, already written
+     * @return the created players, with their new rank, and the new ranks of
+     *         the shifted players
+     */
+    public synchronized Update insert(List<Player> created) {
+        if (order == null) {
+            return new Update(List.of(), List.of(), List.of(), false);
+        }
+        List<Player> inserted = new ArrayList<>(created.size());
+        for (Player player : created) {
+            // Déjà pris en compte par un chargement fait depuis son écriture
+            if (!standings.containsKey(player.getId())) {
+                Standing standing = new Standing(player.getId(), points(player));
+                order.add(standing);
+                standings.put(standing.id(), standing);
+                storedRanks.put(standing.id(), rank(player));
+                inserted.add(player);
+            }
+        }
+        if (inserted.isEmpty()) {
+            return new Update(List.of(), List.of(), List.of(), false);
+        }
+        int from = inserted.stream().mapToInt(player -> order.indexOf(standings.get(player.getId()))).min()
+                .getAsInt();
+        Map<String, Integer> ranks = rewrite(List.of(new int[] { from, order.size() - 1 }));
+
+        // Les joueurs créés sont annoncés comme tels, seuls les décalés sont des deltas
+        Set<String> ids = new HashSet<>();
+        for (Player player : inserted) {
+            if (player.getData() != null) {
+                player.getData().setRank(storedRanks.get(player.getId()));
+            }
+            ids.add(player.getId());
+        }
+        List<RankingDeltaDto> deltas = new ArrayList<>();
+        ranks.forEach((id, rank) -> {
+            if (!ids.contains(id)) {
+                deltas.add(new RankingDeltaDto(id, rank, standings.get(id).points()));
+            }
+        });
+        return new Update(List.of(), inserted, deltas, false);
+    }
+
+    /**
+     * Drops the ranking, reloaded on the next change. To be called when players
+     * are deleted.
+     */
+    public synchronized void invalidate() {
+        order = null;
+        standings.clear();
+        storedRanks.clear();
+    }
+
+    /**
+     * Follows a change of a player made by any node: the ranking is dropped
+     * when its points no longer match.
+     *
+     * @param id    the id of the player
+     * @param after the player after the change, null when deleted or unknown
+     */
+    public synchronized void onChange(String id, Player after) {
+        if (order == null) {
+            return;
+        }
+        Standing standing = standings.get(id);
+        if (after == null || standing == null || standing.points() != points(after)) {
+            invalidate();
+            return;
+        }
+        storedRanks.put(id, rank(after));
+    }
+
+    private Map<String, Player> find(Collection<String> ids) {
+        Map<String, Player> players = new HashMap<>();
+        playerRepository.findAllById(ids).forEach(player -> players.put(player.getId(), player));
+        return players;
+    }
+
+    /**
+     * Writes the results of the found players, then reranks them. The form
+     * counters are counted by the write, and slid over the new results on the
+     * returned copies.
+     */
+    private Update addResults(Map<String, PlayerResultsDto> results, Map<String, Player> players,
+            boolean realigned) {
+        List<Player> before = new ArrayList<>(players.size());
+        List<Player> after = new ArrayList<>(players.size());
+        Map<String, PlayerResultsDto> written = new LinkedHashMap<>();
+        results.forEach((id, playerResults) -> {
+            Player previous = players.get(id);
+            if (previous == null) {
+                return;
+            }
+            Player next = mapper.copy(previous);
+            append(next.getData(), playerResults);
+            written.put(id, playerResults);
+            before.add(previous);
+            after.add(next);
+        });
+        try {
+            playerRepository.addResults(written, matchProperties.history(), matchProperties.formWindows());
+        } catch (RuntimeException e) {
+            invalidate();
+            throw e;
+        }
+        return move(before, after, realigned);
+    }
+
+    // Reproduit localement le pipeline de l'écriture, en faisant glisser les compteurs
+    private void append(PlayerData data, PlayerResultsDto results) {
+        Map<String, FormCounter> form = PlayerForm.append(data, results.results(), matchProperties.formWindows(),
+                matchProperties.history());
+        data.setPoints(data.getPoints() + results.points());
+        int[] previous = data.getLast() != null ? data.getLast() : new int[0];
+        int[] last = Arrays.copyOf(previous, previous.length + results.results().size());
+        for (int i = 0; i < results.results().size(); i++) {
+            last[previous.length + i] = results.results().get(i);
+        }
+        data.setLast(last.length > matchProperties.history()
+                ? Arrays.copyOfRange(last, last.length - matchProperties.history(), last.length)
+                : last);
+        data.setForm(form);
+    }
+
+    private Update move(List<Player> before, List<Player> after, boolean realigned) {
+        List<int[]> ranges = new ArrayList<>();
+        for (Player player : after) {
+            Standing previous = standings.get(player.getId());
+            Standing next = new Standing(player.getId(), points(player));
+            int from = order.indexOf(previous);
+            order.remove(previous);
+            order.add(next);
+            standings.put(next.id(), next);
+            int to = order.indexOf(next);
+            ranges.add(new int[] { Math.min(from, to), Math.max(from, to) });
+        }
+
+        // Seuls les rangs compris entre l'ancienne et la nouvelle position changent
+        Map<String, Integer> ranks = rewrite(merge(ranges));
+
+        Map<String, RankingDeltaDto> deltas = new LinkedHashMap<>();
+        for (Player player : after) {
+            player.getData().setRank(storedRanks.get(player.getId()));
+            deltas.put(player.getId(), new RankingDeltaDto(player.getId(), player.getData().getRank(),
+                    player.getData().getPoints()));
+        }
+        ranks.forEach((id, rank) -> deltas.computeIfAbsent(id,
+                key -> new RankingDeltaDto(key, rank, standings.get(key).points())));
+        return new Update(before, after, List.copyOf(deltas.values()), realigned);
+    }
+
+    // Écrit les rangs des positions données qui diffèrent des rangs enregistrés
+    private Map<String, Integer> rewrite(List<int[]> ranges) {
+        Map<String, Integer> ranks = new LinkedHashMap<>();
+        for (int[] range : ranges) {
+            List<Standing> moved = order.subList(range[0], range[1] + 1);
+            for (int i = 0; i < moved.size(); i++) {
+                String id = moved.get(i).id();
+                int rank = range[0] + i + 1;
+                if (!Objects.equals(storedRanks.get(id), rank)) {
+                    ranks.put(id, rank);
+                }
+            }
+        }
+        playerRepository.updateRanks(ranks);
+        storedRanks.putAll(ranks);
+        return ranks;
+    }
+
+    /**
+     * Loads the ranking if needed, and writes the stored ranks that do not
+     * match the points.
+     *
+     * @return true if the ranking was loaded by this call
+     */
+    private boolean load() {
+        if (order != null) {
+            return false;
+        }
+        long start = System.nanoTime();
+        OrderStatisticTree<Standing> loaded = new OrderStatisticTree<>(ORDER);
+        try (Stream<Player> players = playerRepository.streamAllProjected(PlayerRepository.BY_RANK_THEN_ID,
+                RANKED_FIELDS)) {
+            players.forEach(player -> {
+                Standing standing = new Standing(player.getId(), points(player));
+                loaded.add(standing);
+                standings.put(standing.id(), standing);
+                storedRanks.put(standing.id(), rank(player));
+            });
+        }
+        Map<String, Integer> ranks = new HashMap<>();
+        List<Standing> all = loaded.subList(0, loaded.size());
+        for (int i = 0; i < all.size(); i++) {
+            if (storedRanks.get(all.get(i).id()) != i + 1) {
+                ranks.put(all.get(i).id(), i + 1);
+            }
+        }
+        playerRepository.updateRanks(ranks);
+        storedRanks.putAll(ranks);
+        order = loaded;
+        log.info("Loaded the ranking of {} players in {} ms, {} ranks realigned on points", all.size(),
+                (System.nanoTime() - start) / 1_000_000, ranks.size());
+        return !ranks.isEmpty();
+    }
+
+    private void requireRanked(String id) {
+        if (!standings.containsKey(id)) {
+            throw missing(id);
+        }
+    }
+
+    private PlayerNotFoundException missing(String id) {
+        // Supprimé par un autre nœud : le classement n'est plus à jour
+        if (standings.containsKey(id)) {
+            invalidate();
+        }
+        return new PlayerNotFoundException("Player not found with id: " + id);
+    }
+
+    // Fusionne les intervalles qui se chevauchent ou se touchent
+    private static List<int[]> merge(List<int[]> ranges) {
+        List<int[]> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingInt(range -> range[0]));
+        List<int[]> merged = new ArrayList<>();
+        for (int[] range : sorted) {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(range.clone());
+            }
+        }
+        return merged;
+    }
+
+    private static int points(Player player) {
+        return player.getData() != null ? player.getData().getPoints() : 0;
+    }
+
+    private static int rank(Player player) {
+        return player.getData() != null ? player.getData().getRank() : 0;
+    }
+}
@@ -0,0 +1,230 @@
+package com.latelier.tenisu.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+
+import com.latelier.tenisu.config.ChangeStreamProperties;
+import com.latelier.tenisu.config.RankingStreamProperties;
+import com.latelier.tenisu.dto.RankingDeltaDto;
+import com.latelier.tenisu.dto.SerializedPlayersDto;
+import com.latelier.tenisu.exception.RankingStreamFullException;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Source of the live ranking sent on {@code GET /players/stream}: each
+ * subscriber receives the ranked players list once, then only the players
+ * created, the rank and points of the players updated, and the ids of the
+ * players deleted.
+ *
+ * All the subscribers share one sink fed by the write paths of
+ * {@link PlayerService}, or by the {@link PlayerChangeFeed} when it is
+ * enabled. Each one reads it through its own buffer of
+ * {@code tenisu.ranking-stream.buffer-size} events, and a subscriber that lets
+ * it overflow is disconnected rather than slowing down the writes or the other
+ * subscribers. Its EventSource then reconnects and starts again from a fresh
+ * list.
+ *
+ * At most {@code tenisu.ranking-stream.max-subscribers} clients are streamed at
+ * once. Clients whose writes block, on the servlet stack, are served by
+ * {@link #writers()}, a scheduler of as many threads kept apart from
+ * {@link Schedulers#boundedElastic()}.
+ */
+@Slf4j
+@Component
+public class PlayerRankingBroadcaster implements DisposableBean {
+
+    static final String SNAPSHOT = "snapshot";
+
+    static final String CREATED = "created";
+
+    static final String UPDATED = "updated";
+
+    static final String DELETED = "deleted";
+
+    private final RankedPlayersResponseCache rankedPlayersResponseCache;
+
+    private final RankingStreamProperties properties;
+
+    private final ChangeStreamProperties changeStreamProperties;
+
+    // Un abonné sans demande ne bloque jamais l'émission : son tampon déborde
+    private final Sinks.Many<ServerSentEvent<Object>> events = Sinks.many().multicast().directBestEffort();
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    private final Counter dropped;
+
+    private final Disposable heartbeats;
+
+    private final Scheduler writers;
+
+    // Dernière liste envoyée, décodée une seule fois pour tous les abonnés
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(SerializedPlayersDto players, String json) {
+    }
+
+    public PlayerRankingBroadcaster(RankedPlayersResponseCache rankedPlayersResponseCache,
+            RankingStreamProperties properties, ChangeStreamProperties changeStreamProperties,
+            MeterRegistry meterRegistry) {
+        this.rankedPlayersResponseCache = rankedPlayersResponseCache;
+        this.properties = properties;
+        this.changeStreamProperties = changeStreamProperties;
+        Gauge.builder("tenisu.ranking.subscribers", subscribers, AtomicInteger::get)
+                .description("Clients connected to the live ranking stream")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("tenisu.ranking.dropped")
+                .description("Clients of the live ranking stream disconnected for reading too slowly")
+                .register(meterRegistry);
+        this.heartbeats = Flux.interval(properties.heartbeat())
+                .subscribe(tick -> emit(ServerSentEvent.builder().comment("heartbeat").build()));
+        this.writers = Schedulers.newBoundedElastic(properties.maxSubscribers(),
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "ranking-stream");
+    }
+
+    @Override
+    public void destroy() {
+        heartbeats.dispose();
+        events.tryEmitComplete();
+        writers.dispose();
+    }
+
+    /**
+     * @return the scheduler on which the events of a subscriber are written
+     *         when the writes block, one thread per subscriber
+     */
+    public Scheduler writers() {
+        return writers;
+    }
+
+    /**
+     * @return the ranked players list as a {@code snapshot} event, followed by
+     *         the changes published from the time of the subscription
+     * @throws RankingStreamFullException if
+     *                                    {@code tenisu.ranking-stream.max-subscribers}
+     *                                    clients are already streamed
+     */
+    public Flux<ServerSentEvent<Object>> subscribe() {
+        if (subscribers.get() >= properties.maxSubscribers()) {
+            throw new RankingStreamFullException(
+                    "Live ranking stream is full (" + properties.maxSubscribers() + " clients), retry later");
+        }
+        return Flux.defer(() -> {
+            // Suivi du sink avant de lire la liste : un changement publié pendant la
+            // lecture attend dans le tampon de l'abonné au lieu d'être perdu
+            Sinks.Many<ServerSentEvent<Object>> pending = Sinks.many().unicast()
+                    .onBackpressureBuffer(new ArrayBlockingQueue<>(properties.bufferSize()));
+            Disposable changes = events.asFlux().subscribe(event -> {
+                if (pending.tryEmitNext(event) == Sinks.EmitResult.FAIL_OVERFLOW) {
+                    pending.tryEmitError(Exceptions.failWithOverflow());
+                }
+            }, pending::tryEmitError, pending::tryEmitComplete);
+            return Mono.fromCallable(this::snapshotEvent)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .concatWith(pending.asFlux())
+                    .doFinally(signal -> changes.dispose());
+        })
+                .onErrorResume(Exceptions::isOverflow, e -> {
+                    dropped.increment();
+                    log.debug("Live ranking subscriber dropped after {} pending events", properties.bufferSize());
+                    return Mono.empty();
+                })
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    /**
+     * Publishes a player created by this node, unless the change feed publishes
+     * the writes of every node.
+     *
+     * @param player the created player
+     */
+    public void record(Player player) {
+        if (!changeStreamProperties.enabled()) {
+            publishCreated(player);
+        }
+    }
+
+    /**
+     * Publishes the rank and points of a player changed by this node, unless
+     * the change feed publishes the writes of every node.
+     *
+     * @param delta the new rank and points
+     */
+    public void record(RankingDeltaDto delta) {
+        if (!changeStreamProperties.enabled()) {
+            emit(ServerSentEvent.<Object>builder(delta).event(UPDATED).build());
+        }
+    }
+
+    public void publishCreated(Player player) {
+        emit(ServerSentEvent.<Object>builder(player).event(CREATED).build());
+    }
+
+    /**
+     * Publishes the rank and points of an updated player, when they changed.
+     *
+     * @param before the previous version, null when unknown
+     * @param after  the updated player
+     */
+    public void publishUpdated(Player before, Player after) {
+        PlayerData data = after.getData();
+        if (data == null) {
+            return;
+        }
+        PlayerData previous = before != null ? before.getData() : null;
+        if (previous != null && previous.getRank() == data.getRank() && previous.getPoints() == data.getPoints()) {
+            return;
+        }
+        emit(ServerSentEvent.<Object>builder(new RankingDeltaDto(after.getId(), data.getRank(), data.getPoints()))
+                .event(UPDATED)
+                .build());
+    }
+
+    public void publishDeleted(String id) {
+        emit(ServerSentEvent.<Object>builder(new RankingDeltaDto(id, null, null)).event(DELETED).build());
+    }
+
+    /**
+     * Sends the ranked players list again to the current subscribers, when
+     * changes may have been missed.
+     */
+    public void publishSnapshot() {
+        if (subscribers.get() > 0) {
+            emit(snapshotEvent());
+        }
+    }
+
+    private ServerSentEvent<Object> snapshotEvent() {
+        SerializedPlayersDto players = rankedPlayersResponseCache.get();
+        Snapshot current = snapshot;
+        if (current == null || current.players() != players) {
+            current = new Snapshot(players, new String(players.body(), StandardCharsets.UTF_8));
+            snapshot = current;
+        }
+        return ServerSentEvent.<Object>builder(current.json()).event(SNAPSHOT).build();
+    }
+
+    // Le sink n'accepte qu'un émetteur à la fois
+    private synchronized void emit(ServerSentEvent<Object> event) {
+        events.tryEmitNext(event);
+    }
+}
@@ -0,0 +1,121 @@
+package com.latelier.tenisu.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.latelier.tenisu.model.Player;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reads a JSON array of players with a streaming parser and hands them over in
+ * fixed-size batches, so that only one batch is held in memory at a time.
+ */
+@Component
+@RequiredArgsConstructor
+public class PlayerSeedReader {
+
+    private static final int CHECKSUM_BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param resource     the JSON array of players
+     * @param memoryMapped map the file in memory instead of streaming it, only
+     *                     for file resources
+     * @param batchSize    number of players per batch
+     * @param consumer     receives each batch, the list is not reused afterwards
+     * @return the number of players read
+     * @throws IOException if the resource cannot be read or is not a JSON array
+     */
+    public long read(Resource resource, boolean memoryMapped, int batchSize, Consumer<List<Player>> consumer)
+            throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        long count = 0;
+        try (InputStream inputStream = open(resource, memoryMapped);
+                JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of players in " + resource.getDescription());
+            }
+            List<Player> batch = new ArrayList<>(batchSize);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                batch.add(objectMapper.readValue(parser, Player.class));
+                count++;
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * SHA-256 of the raw resource content, to detect a changed seed file
+     * without parsing it.
+     *
+     * @param resource     the seed file
+     * @param memoryMapped map the file in memory instead of streaming it
+     * @return the lowercase hexadecimal digest
+     * @throws IOException if the resource cannot be read
+     */
+    public String checksum(Resource resource, boolean memoryMapped) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream inputStream = open(resource, memoryMapped)) {
+            byte[] buffer = new byte[CHECKSUM_BUFFER_SIZE];
+            for (int read; (read = inputStream.read(buffer)) != -1;) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static InputStream open(Resource resource, boolean memoryMapped) throws IOException {
+        return memoryMapped ? openMapped(resource.getFile().toPath()) : resource.getInputStream();
+    }
+
+    /**
+     * Maps the file in read-only regions of at most 2 GB, the limit of a single
+     * mapped buffer.
+     */
+    private static InputStream openMapped(Path path) throws IOException {
+        List<InputStream> regions = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                long length = Math.min(Integer.MAX_VALUE, size - position);
+                regions.add(new ByteBufferBackedInputStream(
+                        channel.map(FileChannel.MapMode.READ_ONLY, position, length)));
+            }
+        }
+        return new SequenceInputStream(Collections.enumeration(regions));
+    }
+}
@@ -0,0 +1,174 @@
+package com.latelier.tenisu.service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import com.latelier.tenisu.config.SeedMode;
+import com.latelier.tenisu.config.SeedProperties;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
+import com.latelier.tenisu.model.SeedMetadata;
+import com.latelier.tenisu.repository.PlayerRepository;
+import com.latelier.tenisu.repository.SeedMetadataRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads the seed file configured by {@code tenisu.seed.*} into the players
+ * collection.
+ *
+ * In {@link SeedMode#INCREMENTAL} mode the checksum of the last applied file is
+ * kept in {@code seed_metadata}: an unchanged file is not read at all, and a
+ * changed one only upserts the players that differ from the stored ones, so
+ * that restarts neither wipe the writes made through the API nor rewrite the
+ * whole collection.
+ *
+ * The rank, points, latest results and form of a player are maintained by the
+ * application once it plays: the file only sets them on the players it
+ * inserts, and they are neither compared nor overwritten on the stored ones.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlayerSeeder {
+
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    // Champs tenus à jour par les matchs et le classement, écrits à l'insertion seulement
+    static final List<String> RUNTIME_FIELDS = List.of("data.rank", "data.points", "data.last", "data.form");
+
+    private final MongoTemplate mongoTemplate;
+
+    private final PlayerRepository playerRepository;
+
+    private final SeedMetadataRepository seedMetadataRepository;
+
+    private final PlayerSeedReader playerSeedReader;
+
+    private final ResourceLoader resourceLoader;
+
+    private final SeedProperties seedProperties;
+
+    /**
+     * Applies the seed file according to the configured mode.
+     *
+     * @return the number of players inserted or modified
+     * @throws IOException if the seed file cannot be read
+     */
+    public long seed() throws IOException {
+        Resource resource = resourceLoader.getResource(seedProperties.location());
+        if (seedProperties.mode() == SeedMode.REPLACE) {
+            long inserted = replace(resource);
+            saveMetadata(resource, playerSeedReader.checksum(resource, seedProperties.memoryMapped()), inserted);
+            return inserted;
+        }
+
+        String checksum = playerSeedReader.checksum(resource, seedProperties.memoryMapped());
+        String applied = seedMetadataRepository.findById(seedProperties.location())
+                .map(SeedMetadata::getChecksum)
+                .orElse(null);
+        if (checksum.equals(applied) && mongoTemplate.collectionExists(Player.class)) {
+            log.info("Seed file {} unchanged (sha-256 {}), seeding skipped.", resource.getDescription(), checksum);
+            return 0;
+        }
+
+        // Collection vide : insertion directe, sinon seules les différences sont écrites
+        long written = mongoTemplate.estimatedCount(Player.class) == 0 ? insert(resource) : upsertChanged(resource);
+        saveMetadata(resource, checksum, written);
+        return written;
+    }
+
+    private long replace(Resource resource) throws IOException {
+        if (mongoTemplate.collectionExists(Player.class)) {
+            mongoTemplate.dropCollection(Player.class);
+            log.info("Dropped existing 'players' collection.");
+        }
+        return insert(resource);
+    }
+
+    private long insert(Resource resource) throws IOException {
+        return load(resource, "Inserted", batch -> {
+            mongoTemplate.insertAll(batch);
+            return batch.size();
+        });
+    }
+
+    private long upsertChanged(Resource resource) throws IOException {
+        return load(resource, "Upserted", batch -> {
+            List<Player> withId = new ArrayList<>(batch.size());
+            for (Player player : batch) {
+                if (player.getId() == null) {
+                    log.warn("Seed player {} {} has no id, skipped.", player.getFirstname(), player.getLastname());
+                } else {
+                    withId.add(player);
+                }
+            }
+            Map<String, Player> stored = playerRepository
+                    .findAllById(withId.stream().map(Player::getId).toList()).stream()
+                    .collect(Collectors.toMap(Player::getId, Function.identity()));
+            List<Player> changed = withId.stream()
+                    .filter(player -> !sameAsStored(player, stored.get(player.getId())))
+                    .toList();
+            return playerRepository.upsertAll(changed, RUNTIME_FIELDS);
+        });
+    }
+
+    // Seuls les champs portés par le fichier sont comparés : ceux de RUNTIME_FIELDS
+    // sont repris du joueur enregistré
+    private static boolean sameAsStored(Player player, Player stored) {
+        if (stored != null && player.getData() != null && stored.getData() != null) {
+            PlayerData data = player.getData();
+            data.setRank(stored.getData().getRank());
+            data.setPoints(stored.getData().getPoints());
+            data.setLast(stored.getData().getLast());
+            data.setForm(stored.getData().getForm());
+        }
+        return Objects.equals(player, stored);
+    }
+
+    /**
+     * Streams the seed file through {@code writer} batch by batch, logging the
+     * throughput every few seconds.
+     */
+    private long load(Resource resource, String verb, ToIntFunction<List<Player>> writer) throws IOException {
+        long start = System.nanoTime();
+        long[] progress = { 0, start }; // joueurs écrits, dernier log
+
+        long read = playerSeedReader.read(resource, seedProperties.memoryMapped(), seedProperties.batchSize(),
+                batch -> {
+                    progress[0] += writer.applyAsInt(batch);
+                    long now = System.nanoTime();
+                    if (now - progress[1] >= PROGRESS_INTERVAL_NANOS) {
+                        progress[1] = now;
+                        log.info("{} {} players ({} docs/s)", verb, progress[0], throughput(progress[0], now - start));
+                    }
+                });
+        long elapsed = System.nanoTime() - start;
+        log.info("{} {} of {} players from {} in {} ms ({} docs/s).", verb, progress[0], read,
+                resource.getDescription(), TimeUnit.NANOSECONDS.toMillis(elapsed), throughput(read, elapsed));
+        return progress[0];
+    }
+
+    private void saveMetadata(Resource resource, String checksum, long players) {
+        seedMetadataRepository.save(new SeedMetadata(seedProperties.location(), checksum, players, Instant.now()));
+        log.info("Seed file {} applied (sha-256 {}).", resource.getDescription(), checksum);
+    }
+
+    private static long throughput(long documents, long elapsedNanos) {
+        return elapsedNanos > 0 ? documents * TimeUnit.SECONDS.toNanos(1) / elapsedNanos : documents;
+    }
+}
@@ -1,32 +1,115 @@
 package com.latelier.tenisu.service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.bson.types.ObjectId;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
 
+import com.latelier.tenisu.config.BatchProperties;
+import com.latelier.tenisu.config.MatchProperties;
+import com.latelier.tenisu.config.SearchProperties;
+import com.latelier.tenisu.config.StatisticsProperties;
+import com.latelier.tenisu.dto.BatchItemResultDto;
+import com.latelier.tenisu.dto.BatchItemStatus;
+import com.latelier.tenisu.dto.BatchResultDto;
+import com.latelier.tenisu.dto.CountryWinRatioDto;
 import com.latelier.tenisu.dto.CreatePlayerDto;
+import com.latelier.tenisu.dto.FormDto;
+import com.latelier.tenisu.dto.MatchResultDto;
+import com.latelier.tenisu.dto.PercentilesDto;
+import com.latelier.tenisu.dto.PlayerPageDto;
+import com.latelier.tenisu.dto.PlayerResultsDto;
+import com.latelier.tenisu.dto.PlayerSearchCriteria;
+import com.latelier.tenisu.dto.PointsUpdateDto;
+import com.latelier.tenisu.dto.SerializedPlayersDto;
 import com.latelier.tenisu.dto.StatisticsDto;
 import com.latelier.tenisu.exception.ExistingPlayerException;
 import com.latelier.tenisu.exception.PlayerNotFoundException;
 import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.FormCounter;
 import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerName;
+import com.latelier.tenisu.repository.PlayerIndexManager;
 import com.latelier.tenisu.repository.PlayerRepository;
+import com.latelier.tenisu.utils.CountryWinTally;
+import com.latelier.tenisu.utils.Percentiles;
+import com.latelier.tenisu.utils.PlayerColumns;
+import com.latelier.tenisu.utils.PlayerField;
+import com.latelier.tenisu.utils.PlayerFields;
+import com.latelier.tenisu.utils.PlayerForm;
 import com.latelier.tenisu.utils.PlayerMapper;
+import com.latelier.tenisu.utils.PlayerMetrics;
+import com.latelier.tenisu.utils.PlayersFormat;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
 
+/**
+ * lire, écrire et classer les joueurs et calculer leurs statistiques ; chaque
+ * méthode publique appelée par un autre bean est mesurée en
+ * {@code tenisu.player.service{class,method}}
+ */
 @Service
 @RequiredArgsConstructor
+@Timed("tenisu.player.service")
 public class PlayerService {
 
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String CURSOR_SEPARATOR = ":";
+
     private final PlayerRepository playerRepository;
 
     private final PlayerMapper mapper;
 
+    private final PlayerCache playerCache;
+
+    private final RankedPlayersResponseCache rankedPlayersResponseCache;
+
+    private final PlayerStatisticsEngine statisticsEngine;
+
+    private final PlayerStatisticsAggregation statisticsAggregation;
+
+    private final PlayerColumnarStore columnarStore;
+
+    private final StatisticsProperties statisticsProperties;
+
+    private final BatchProperties batchProperties;
+
+    // Pool de Spring Boot, sur threads virtuels si spring.threads.virtual.enabled
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    private final PlayerIndexManager indexManager;
+
+    private final SearchProperties searchProperties;
+
+    private final PlayerRankingBroadcaster rankingBroadcaster;
+
+    private final PlayerRanking ranking;
+
+    private final MatchProperties matchProperties;
+
     /**
      * retourner la liste des joueurs classés du meilleur au moins bon
      * 
@@ -37,24 +120,127 @@ public class PlayerService {
     }
 
     /**
-     * retourner un joueur par son id
+     * retourner la liste des joueurs classés du meilleur au moins bon, déjà
+     * sérialisée dans le format demandé, reconstruite seulement quand les joueurs
+     * changent
+     * 
+     * @param format JSON, CBOR ou Smile
+     * @return SerializedPlayersDto
+     */
+    public SerializedPlayersDto getSerializedPlayersSortedByRank(PlayersFormat format) {
+        return rankedPlayersResponseCache.get(format);
+    }
+
+    /**
+     * retourner une page de joueurs classés du meilleur au moins bon, à partir du
+     * curseur {@code after} (pagination par clé sur le rang, sans offset)
+     * 
+     * @param after le curseur renvoyé par la page précédente, ou un simple rang,
+     *              null pour la première page
+     * @param limit le nombre maximum de joueurs de la page
+     * @return PlayerPageDto
+     * @throws IllegalArgumentException si le curseur ou la limite sont invalides
+     */
+    public PlayerPageDto getPlayersPageSortedByRank(String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        // Un joueur de plus pour savoir s'il existe une page suivante
+        Limit fetchLimit = Limit.of(limit + 1);
+        Sort sort = PlayerRepository.BY_RANK_THEN_ID;
+        List<Player> players;
+        if (after == null || after.isEmpty()) {
+            players = playerRepository.findAllBy(sort, fetchLimit);
+        } else {
+            int separator = after.indexOf(CURSOR_SEPARATOR);
+            players = separator < 0
+                    ? playerRepository.findByDataRankGreaterThan(parseCursorRank(after), sort, fetchLimit)
+                    : playerRepository.findAllAfter(parseCursorRank(after.substring(0, separator)),
+                            after.substring(separator + 1), sort, fetchLimit);
+        }
+
+        if (players.size() <= limit) {
+            return new PlayerPageDto(players, null);
+        }
+        List<Player> page = players.subList(0, limit);
+        Player lastPlayer = page.get(limit - 1);
+        return new PlayerPageDto(page, lastPlayer.getData().getRank() + CURSOR_SEPARATOR + lastPlayer.getId());
+    }
+
+    /**
+     * retourner tous les joueurs classés du meilleur au moins bon, lus au fil du
+     * curseur Mongo. Le stream doit être fermé par l'appelant.
+     * 
+     * @return Stream<Player>
+     */
+    public Stream<Player> streamPlayersSortedByRankBestToWorst() {
+        return playerRepository.streamAllBy(PlayerRepository.BY_RANK_THEN_ID);
+    }
+
+    /**
+     * retourner tous les joueurs classés du meilleur au moins bon, dont seuls les
+     * champs demandés sont lus dans Mongo. Le stream doit être fermé par
+     * l'appelant.
+     * 
+     * @param fields les champs à lire
+     * @return Stream<Player>
+     */
+    public Stream<Player> streamPlayersSortedByRankBestToWorst(PlayerFields fields) {
+        return playerRepository.streamAllProjected(PlayerRepository.BY_RANK_THEN_ID, fields.paths());
+    }
+
+    /**
+     * suivre le classement en direct : la liste des joueurs classés, puis les
+     * joueurs créés et les rangs et points modifiés, émis un à un sur un thread
+     * réservé à l'abonné, où leur écriture peut bloquer
+     * 
+     * @return Flux<ServerSentEvent<Object>>
+     */
+    public Flux<ServerSentEvent<Object>> subscribeToRanking() {
+        return rankingBroadcaster.subscribe().publishOn(rankingBroadcaster.writers(), 1);
+    }
+
+    /**
+     * retourner un joueur par son id, via le cache des joueurs
      * 
      * @param id
      * @return Player
      * @throws PlayerNotFoundException si le joueur n'existe pas
      */
     public Player getPlayerById(String id) {
-        return playerRepository.findById(id)
+        return playerCache.get(id, playerRepository::findById)
                 .orElseThrow(() -> new PlayerNotFoundException("Player not found with id: " + id));
     }
 
-    // Pays qui a le plus grand ratio de parties gagnées
+    /**
+     * retourner un joueur par son id, complet s'il est déjà dans le cache des
+     * joueurs, sinon en ne lisant que les champs demandés dans Mongo. Le joueur
+     * partiel n'est pas mis en cache.
+     * 
+     * @param id
+     * @param fields les champs à lire
+     * @return Player
+     * @throws PlayerNotFoundException si le joueur n'existe pas
+     */
+    public Player getPlayerById(String id, PlayerFields fields) {
+        PlayerCache.Lookup cached = playerCache.lookup(id);
+        Optional<Player> player = cached.hit() ? cached.player()
+                : playerRepository.findProjectedById(id, fields.paths());
+        return player.orElseThrow(() -> new PlayerNotFoundException("Player not found with id: " + id));
+    }
+
+    /**
+     * Pays qui a le plus grand ratio de parties gagnées, sur l'ensemble de ses
+     * joueurs. Les victoires et les parties sont cumulées par code pays en un seul
+     * passage, puis seul le meilleur pays est retenu, sans tri.
+     * 
+     * @param players
+     * @return Country, ou un pays inconnu si aucun joueur n'a de pays
+     */
     public Country getCountryWithHighestWinRatio(List<Player> players) {
-        return players.stream()
-                .map(this::getRatioByCountry)
-                .sorted(Map.Entry.comparingByValue())
-                .reduce((first, second) -> second) // Prend le dernier élément, qui a le plus grand ratio
-                .map(Entry::getKey)
+        return CountryWinTally.top(tallyByCountry(players).values(), 1).stream()
+                .findFirst()
+                .map(CountryWinTally::getCountry)
                 .orElse(new Country("Unknown", "XX")); // Valeur par défaut si aucun joueur
     }
 
@@ -78,26 +264,180 @@ public class PlayerService {
      * @return
      */
     public double getMedianHeight(List<Player> players) {
-        return players.stream()
+        int[] heights = players.stream()
                 .mapToInt(player -> player.getData().getHeight())
-                .sorted()
-                .skip((players.size() - 1) / 2)
-                .limit(2 - players.size() % 2)
-                .average()
-                .orElse(0.0);
+                .toArray();
+        // Sélection en temps linéaire, sans tri
+        return Percentiles.of(heights, heights.length, 50)[0];
     }
 
     /**
-     * Construire les statistiques à partir de la liste des joueurs
+     * Construire les statistiques à partir de la liste des joueurs. Les trois
+     * calculs sont indépendants : le pays et l'IMC sont calculés sur le pool de
+     * tâches pendant que le thread appelant calcule la taille médiane.
      * 
      * @param players
      * @return
      */
     public StatisticsDto buildStatistics(List<Player> players) {
-        Country country = getCountryWithHighestWinRatio(players);
-        double averageIMC = getAverageIMC(players);
+        CompletableFuture<Country> country = CompletableFuture
+                .supplyAsync(() -> getCountryWithHighestWinRatio(players), applicationTaskExecutor);
+        CompletableFuture<Double> averageIMC = CompletableFuture
+                .supplyAsync(() -> getAverageIMC(players), applicationTaskExecutor);
         double medianHeight = getMedianHeight(players);
-        return new StatisticsDto(country, averageIMC, medianHeight);
+        return new StatisticsDto(country.join(), averageIMC.join(), medianHeight);
+    }
+
+    /**
+     * rechercher les joueurs qui correspondent à tous les filtres, classés du
+     * meilleur au moins bon. Au-delà de {@code tenisu.search.scan-threshold}
+     * joueurs, une recherche dont aucun filtre ne commence un index est refusée
+     * plutôt que de parcourir toute la collection.
+     * 
+     * @param criteria les filtres
+     * @param limit    le nombre maximum de joueurs
+     * @return List<Player>
+     * @throws IllegalArgumentException si un intervalle ou la limite sont
+     *                                  invalides, ou si la recherche n'est
+     *                                  couverte par aucun index
+     */
+    public List<Player> searchPlayers(PlayerSearchCriteria criteria, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        checkRange("Rank", criteria.minRank(), criteria.maxRank());
+        checkRange("Points", criteria.minPoints(), criteria.maxPoints());
+        checkRange("Age", criteria.minAge(), criteria.maxAge());
+
+        // Sans filtre, la lecture suit l'index du rang et s'arrête à la limite
+        Set<String> filtered = criteria.filteredPaths();
+        Set<String> indexed = indexManager.leadingKeys();
+        if (!filtered.isEmpty() && Collections.disjoint(filtered, indexed)
+                && playerRepository.estimatedCount() > searchProperties.scanThreshold()) {
+            Set<String> searchable = new TreeSet<>(PlayerSearchCriteria.PATHS);
+            searchable.retainAll(indexed);
+            throw new IllegalArgumentException("Filters on " + filtered
+                    + " would scan all players, combine them with a filter on one of " + searchable);
+        }
+        return playerRepository.search(criteria, PlayerRepository.BY_RANK_THEN_ID, Limit.of(limit));
+    }
+
+    private static void checkRange(String name, Integer min, Integer max) {
+        if (min != null && max != null && min > max) {
+            throw new IllegalArgumentException(name + " range is empty: min " + min + " is greater than max " + max);
+        }
+    }
+
+    /**
+     * retourner les statistiques de tous les joueurs, soit maintenues au fil des
+     * écritures par le {@link PlayerStatisticsEngine}, soit calculées par MongoDB,
+     * soit calculées sur les colonnes du {@link PlayerColumnarStore}, selon
+     * {@code tenisu.statistics.mode}
+     * 
+     * @return StatisticsDto
+     */
+    public StatisticsDto getStatistics() {
+        return switch (statisticsProperties.mode()) {
+            case INCREMENTAL -> statisticsEngine.getStatistics();
+            case AGGREGATION -> statisticsAggregation.getStatistics();
+            case COLUMNAR -> columnarStore.getStatistics();
+        };
+    }
+
+    /**
+     * retourner les pays classés par ratio de parties gagnées sur l'ensemble de
+     * leurs joueurs, du meilleur au moins bon, depuis la même source que
+     * {@link #getStatistics()}
+     * 
+     * @param top le nombre maximum de pays
+     * @return List<CountryWinRatioDto>
+     * @throws IllegalArgumentException si top n'est pas positif
+     */
+    public List<CountryWinRatioDto> getCountryLeaderboard(int top) {
+        if (top < 1) {
+            throw new IllegalArgumentException("Top must be positive");
+        }
+        return switch (statisticsProperties.mode()) {
+            case INCREMENTAL -> statisticsEngine.getCountryLeaderboard(top);
+            case AGGREGATION -> statisticsAggregation.getCountryLeaderboard(top);
+            case COLUMNAR -> columnarStore.getCountryLeaderboard(top);
+        };
+    }
+
+    /**
+     * retourner la forme d'un joueur sur chacune des fenêtres configurées, lue
+     * dans les compteurs de data.form sans parcourir ses derniers résultats
+     * 
+     * @param id
+     * @return List<FormDto> une entrée par fenêtre, de la plus courte à la plus
+     *         longue
+     * @throws PlayerNotFoundException si le joueur n'existe pas
+     */
+    public List<FormDto> getForm(String id) {
+        Player player = playerRepository.findProjectedById(id, List.of("data.form"))
+                .orElseThrow(() -> new PlayerNotFoundException("Player not found with id: " + id));
+        Map<String, FormCounter> form = player.getData() != null && player.getData().getForm() != null
+                ? player.getData().getForm()
+                : Map.of();
+        return matchProperties.formWindows().stream()
+                .sorted()
+                .map(window -> {
+                    FormCounter counter = form.getOrDefault(PlayerForm.key(window), new FormCounter());
+                    double ratio = counter.getGames() == 0 ? 0 : (double) counter.getWins() / counter.getGames();
+                    return new FormDto(window, counter.getWins(), counter.getGames() - counter.getWins(), ratio);
+                })
+                .toList();
+    }
+
+    /**
+     * retourner les joueurs ayant le plus de victoires sur une fenêtre de leurs
+     * derniers résultats, puis par rang, lus sur l'index de la fenêtre
+     * 
+     * @param window une des fenêtres de tenisu.matches.form-windows
+     * @param top    le nombre maximum de joueurs
+     * @return List<Player> sans les joueurs sans victoire sur la fenêtre
+     * @throws IllegalArgumentException si la fenêtre n'est pas configurée ou si
+     *                                  top est invalide
+     */
+    public List<Player> getHottestPlayers(int window, int top) {
+        if (!matchProperties.formWindows().contains(window)) {
+            throw new IllegalArgumentException(
+                    "Unknown form window: " + window + ", expected one of " + matchProperties.formWindows());
+        }
+        if (top < 1 || top > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Top must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return playerRepository.findHottest(window, top);
+    }
+
+    /**
+     * retourner les percentiles d'un attribut des joueurs, calculés sur les
+     * colonnes du {@link PlayerColumnarStore} en temps linéaire
+     * 
+     * @param field       height, weight, age ou points
+     * @param percentiles les percentiles séparés par des virgules, entre 0 et 100
+     * @return PercentilesDto, sans valeur s'il n'y a aucun joueur
+     * @throws IllegalArgumentException si l'attribut ou un percentile est invalide
+     */
+    public PercentilesDto getPercentiles(String field, String percentiles) {
+        PlayerField playerField = PlayerField.of(field);
+        List<String> requested = Arrays.stream(percentiles.split(","))
+                .map(String::trim)
+                .toList();
+        double[] ps = requested.stream()
+                .mapToDouble(PlayerService::parsePercentile)
+                .toArray();
+
+        PlayerColumns columns = columnarStore.get();
+        if (columns.size() == 0) {
+            return new PercentilesDto(playerField.fieldName(), 0, Map.of());
+        }
+        double[] values = columns.percentiles(playerField, ps);
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (int i = 0; i < ps.length; i++) {
+            result.put(requested.get(i), values[i]);
+        }
+        return new PercentilesDto(playerField.fieldName(), columns.size(), result);
     }
 
     /**
@@ -112,26 +452,265 @@ public class PlayerService {
             throw new IllegalArgumentException("Player data cannot be null or empty");
         }
 
-        // Check if a player with the same firstname and lastname already exists
-        if (playerRepository.existsByFirstnameAndLastname(dto.getFirstname(), dto.getLastname())) {
+        // The unique firstname + lastname index rejects duplicates, no need for a
+        // separate existence check
+        Player saved;
+        try {
+            saved = playerRepository.insert(mapper.toPlayer(dto));
+        } catch (DuplicateKeyException e) {
             throw new ExistingPlayerException("Player with the same firstname and lastname already exists");
         }
+        afterInsert(saved);
+        return saved;
+    }
 
-        return playerRepository.save(mapper.toPlayer(dto));
+    /**
+     * Mettre à jour le classement, les caches, les statistiques et les abonnés
+     * au classement après l'insertion d'un joueur, par ce service ou par
+     * {@link ReactivePlayerService}
+     * 
+     * @param saved le joueur inséré
+     */
+    public void afterInsert(Player saved) {
+        afterInsert(List.of(saved));
+    }
+
+    /**
+     * Enregistrer un lot de joueurs. Les doublons (dans le lot ou avec la base)
+     * sont écartés avec une seule requête par tranche, puis chaque tranche est
+     * insérée en une écriture groupée non ordonnée et rangée dans le classement.
+     * 
+     * @param dtos les joueurs à créer, lus au fur et à mesure
+     * @return BatchResultDto le résultat de chaque élément du lot
+     */
+    public BatchResultDto savePlayers(Iterator<CreatePlayerDto> dtos) {
+        List<BatchItemResultDto> results = new ArrayList<>();
+        Set<PlayerName> seen = new HashSet<>();
+        List<CreatePlayerDto> chunk = new ArrayList<>(batchProperties.chunkSize());
+        int index = 0;
+        int created = 0;
+        while (dtos.hasNext()) {
+            chunk.add(dtos.next());
+            if (chunk.size() == batchProperties.chunkSize() || !dtos.hasNext()) {
+                created += saveChunk(chunk, index, seen, results);
+                index += chunk.size();
+                chunk.clear();
+            }
+        }
+        return new BatchResultDto(created, results.size() - created, results);
+    }
+
+    /**
+     * Modifier les points d'un joueur. Seuls les rangs compris entre son
+     * ancienne et sa nouvelle position sont réécrits.
+     * 
+     * @param id  l'id du joueur
+     * @param dto les nouveaux points
+     * @return Player le joueur avec ses nouveaux points et son nouveau rang
+     * @throws PlayerNotFoundException si le joueur n'existe pas
+     */
+    public Player updatePoints(String id, PointsUpdateDto dto) {
+        if (dto == null || dto.points() == null) {
+            throw new IllegalArgumentException("Points are required");
+        }
+        if (dto.points() < 0) {
+            throw new IllegalArgumentException("Points must be positive or zero: " + dto.points());
+        }
+        PlayerRanking.Update update = ranking.setPoints(id, dto.points());
+        publish(update);
+        return update.after().get(0);
+    }
+
+    /**
+     * Enregistrer le résultat d'un match : le résultat de chaque joueur est
+     * ajouté à ses derniers résultats, ses points augmentés, puis les rangs
+     * recalculés.
+     * 
+     * @param match le vainqueur, le perdant et les points gagnés
+     * @return List<Player> le vainqueur puis le perdant, à jour
+     * @throws PlayerNotFoundException si un des joueurs n'existe pas
+     */
+    public List<Player> recordMatch(MatchResultDto match) {
+        validate(match);
+        PlayerRanking.Update update = ranking.recordMatch(match);
+        record(update);
+        return update.after();
+    }
+
+    /**
+     * Enregistrer les résultats de plusieurs matchs, regroupés par joueur, en
+     * une seule écriture groupée, puis recalculer les rangs. Les joueurs qui
+     * n'existent pas sont ignorés. Si l'écriture échoue, les caches, le
+     * classement et les statistiques sont relus depuis Mongo.
+     * 
+     * @param results les résultats et les points gagnés de chaque joueur, par id
+     * @return List<Player> les joueurs modifiés, à jour
+     */
+    public List<Player> recordResults(Map<String, PlayerResultsDto> results) {
+        PlayerRanking.Update update;
+        try {
+            update = ranking.recordResults(results);
+        } catch (RuntimeException e) {
+            // L'écriture a pu être appliquée en partie : tout ce qui en dérive est
+            // relu depuis Mongo
+            results.keySet().forEach(playerCache::invalidate);
+            rankedPlayersResponseCache.invalidate();
+            columnarStore.invalidate();
+            ranking.invalidate();
+            statisticsEngine.reload();
+            rankingBroadcaster.publishSnapshot();
+            throw e;
+        }
+        record(update);
+        return update.after();
+    }
+
+    /**
+     * Vérifier le résultat d'un match avant de l'enregistrer
+     * 
+     * @param match le vainqueur, le perdant et les points gagnés
+     * @throws IllegalArgumentException si un joueur manque, s'ils sont
+     *                                  identiques ou si des points sont négatifs
+     */
+    static void validate(MatchResultDto match) {
+        if (match == null || match.winner() == null || match.loser() == null) {
+            throw new IllegalArgumentException("Winner and loser are required");
+        }
+        if (match.winner().equals(match.loser())) {
+            throw new IllegalArgumentException("Winner and loser must be different players");
+        }
+        if (match.winnerPoints() < 0 || match.loserPoints() < 0) {
+            throw new IllegalArgumentException("Points must be positive or zero");
+        }
+    }
+
+    private void record(PlayerRanking.Update update) {
+        for (int i = 0; i < update.after().size(); i++) {
+            statisticsEngine.record(update.before().get(i), update.after().get(i));
+        }
+        publish(update);
+    }
+
+    private void publish(PlayerRanking.Update update) {
+        update.deltas().forEach(delta -> playerCache.invalidate(delta.id()));
+        rankedPlayersResponseCache.invalidate();
+        columnarStore.invalidate();
+        if (update.realigned()) {
+            // Tous les rangs ont pu changer : les abonnés repartent de la liste
+            playerCache.invalidateAll();
+            rankingBroadcaster.publishSnapshot();
+        } else {
+            update.deltas().forEach(rankingBroadcaster::record);
+        }
+    }
+
+    private int saveChunk(List<CreatePlayerDto> chunk, int firstIndex, Set<PlayerName> seen,
+            List<BatchItemResultDto> results) {
+        // Validation et dédoublonnage dans le lot
+        BatchItemResultDto[] chunkResults = new BatchItemResultDto[chunk.size()];
+        Map<Integer, PlayerName> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            CreatePlayerDto dto = chunk.get(i);
+            if (dto == null || dto.getFirstname() == null || dto.getLastname() == null) {
+                chunkResults[i] = new BatchItemResultDto(firstIndex + i, BatchItemStatus.INVALID, null,
+                        "Player data cannot be null or empty");
+            } else if (!seen.add(new PlayerName(dto.getFirstname(), dto.getLastname()))) {
+                chunkResults[i] = duplicate(firstIndex + i);
+            } else {
+                candidates.put(i, new PlayerName(dto.getFirstname(), dto.getLastname()));
+            }
+        }
+
+        // Dédoublonnage avec la base en une seule requête
+        Set<PlayerName> existing = candidates.isEmpty() ? Set.of()
+                : new HashSet<>(playerRepository.findByFirstnameInAndLastnameIn(
+                        candidates.values().stream().map(PlayerName::firstname).collect(Collectors.toSet()),
+                        candidates.values().stream().map(PlayerName::lastname).collect(Collectors.toSet())));
+
+        List<Integer> positions = new ArrayList<>();
+        List<Player> players = new ArrayList<>();
+        candidates.forEach((i, name) -> {
+            if (existing.contains(name)) {
+                chunkResults[i] = duplicate(firstIndex + i);
+            } else {
+                Player player = mapper.toPlayer(chunk.get(i));
+                player.setId(new ObjectId().toHexString());
+                positions.add(i);
+                players.add(player);
+            }
+        });
+
+        // Un doublon inséré entre-temps par une autre requête est rejeté par l'index
+        Set<Integer> rejected = players.isEmpty() ? Set.of() : playerRepository.insertAllUnordered(players);
+        List<Player> created = new ArrayList<>(players.size());
+        for (int p = 0; p < players.size(); p++) {
+            int i = positions.get(p);
+            if (rejected.contains(p)) {
+                chunkResults[i] = duplicate(firstIndex + i);
+            } else {
+                Player player = players.get(p);
+                chunkResults[i] = new BatchItemResultDto(firstIndex + i, BatchItemStatus.CREATED, player.getId(),
+                        null);
+                created.add(player);
+            }
+        }
+        results.addAll(Arrays.asList(chunkResults));
+        if (!created.isEmpty()) {
+            afterInsert(created);
+        }
+        return created.size();
+    }
+
+    private void afterInsert(List<Player> created) {
+        // Rangés avant d'être annoncés, pour que leur rang soit le bon
+        PlayerRanking.Update update = ranking.insert(created);
+        created.forEach(player -> {
+            playerCache.invalidate(player.getId());
+            statisticsEngine.record(player);
+            rankingBroadcaster.record(player);
+        });
+        publish(update);
+    }
+
+    private BatchItemResultDto duplicate(int index) {
+        return new BatchItemResultDto(index, BatchItemStatus.DUPLICATE, null,
+                "Player with the same firstname and lastname already exists");
     }
 
     private double getImc(Player player) {
-        double heightInMeters = player.getData().getHeight() / 100.0; // Convert cm to m
-        double weightInKg = player.getData().getWeight() / 1000.0; // Convert g to kg
-        return Math.round(weightInKg / (heightInMeters * heightInMeters) * 100.0) / 100.0; // Round to 2 decimal places
+        return PlayerMetrics.imc(player.getData());
+    }
+
+    private static double parsePercentile(String percentile) {
+        double value;
+        try {
+            value = Double.parseDouble(percentile);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+        if (!(value >= 0 && value <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        return value;
     }
 
-    private Entry<Country, Double> getRatioByCountry(Player p) {
-        int nbJeux = p.getData().getLast() != null ? p.getData().getLast().length : 0;
-        int nbGagnés = (int) Arrays.stream(p.getData().getLast())
-                .filter(i -> i > 0)
-                .count();
+    private int parseCursorRank(String rank) {
+        try {
+            return Integer.parseInt(rank);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + rank);
+        }
+    }
 
-        return Map.entry(p.getCountry(), nbJeux > 0 ? (double) nbGagnés / nbJeux : 0.0);
+    private Map<String, CountryWinTally> tallyByCountry(List<Player> players) {
+        Map<String, CountryWinTally> tallies = new HashMap<>();
+        for (Player player : players) {
+            Country country = player.getCountry();
+            if (player.getData() != null && country != null && country.getCode() != null) {
+                tallies.computeIfAbsent(country.getCode(), code -> new CountryWinTally(country))
+                        .add(player.getData());
+            }
+        }
+        return tallies;
     }
 }
@@ -0,0 +1,149 @@
+package com.latelier.tenisu.service;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.facet;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.limit;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import com.latelier.tenisu.dto.CountryWinRatioDto;
+import com.latelier.tenisu.dto.StatisticsDto;
+import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.utils.IntHistogram;
+import com.latelier.tenisu.utils.PlayerMetrics;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Computes the players statistics with a single MongoDB aggregation pipeline,
+ * so that only a {@link StatisticsDto}-sized result is sent over the wire.
+ *
+ * The pipeline follows the rules of {@link PlayerStatisticsEngine}: the win
+ * ratio is aggregated per country code, players without a height are left out
+ * of the average IMC, and the median height is taken from a height histogram.
+ */
+@Component
+@RequiredArgsConstructor
+public class PlayerStatisticsAggregation {
+
+    private final MongoTemplate mongoTemplate;
+
+    public StatisticsDto getStatistics() {
+        Document result = mongoTemplate.aggregate(buildAggregation(), Player.class, Document.class)
+                .getUniqueMappedResult();
+        if (result == null) {
+            return new StatisticsDto(PlayerStatisticsEngine.UNKNOWN_COUNTRY, 0.0, 0.0);
+        }
+        return new StatisticsDto(readCountry(result), readAverageIMC(result), readMedianHeight(result));
+    }
+
+    Aggregation buildAggregation() {
+        AggregationExpression heightInMeters = ArithmeticOperators.valueOf("data.height").divideBy(100.0);
+        AggregationExpression weightInKg = ArithmeticOperators.valueOf("data.weight").divideBy(1000.0);
+        AggregationExpression imc = ArithmeticOperators.valueOf(weightInKg)
+                .divideBy(ArithmeticOperators.valueOf(heightInMeters).multiplyBy(heightInMeters));
+        // Same rounding as Math.round(imc * 100) / 100
+        AggregationExpression roundedImc = ArithmeticOperators.valueOf(
+                ArithmeticOperators.Floor.floorValueOf(
+                        ArithmeticOperators.valueOf(ArithmeticOperators.valueOf(imc).multiplyBy(100.0)).add(0.5)))
+                .divideBy(100.0);
+
+        return newAggregation(
+                match(Criteria.where("data").ne(null)),
+                facet(
+                        match(Criteria.where("data.height").gt(0)),
+                        project().and(roundedImc).as("imc"),
+                        group().avg("imc").as("averageIMC"))
+                        .as("imc")
+                        .and(countryLeaderboardStages(1))
+                        .as("countries")
+                        .and(
+                                group("data.height").count().as("count"))
+                        .as("heights"));
+    }
+
+    /**
+     * Ranks the countries by win ratio, aggregated over all their players.
+     *
+     * @param top the maximum number of countries
+     * @return the best countries, best first
+     */
+    public List<CountryWinRatioDto> getCountryLeaderboard(int top) {
+        Aggregation aggregation = newAggregation(Stream.concat(
+                Stream.of(match(Criteria.where("data").ne(null))),
+                Arrays.stream(countryLeaderboardStages(top))).toList());
+        return mongoTemplate.aggregate(aggregation, Player.class, Document.class).getMappedResults().stream()
+                .map(country -> new CountryWinRatioDto(
+                        mongoTemplate.getConverter().read(Country.class, country.get("country", Document.class)),
+                        country.get("wins", Number.class).longValue(),
+                        country.get("games", Number.class).longValue(),
+                        country.get("ratio", Number.class).doubleValue()))
+                .toList();
+    }
+
+    /**
+     * Groups the players by country code and keeps the {@code top} best win
+     * ratios, ties broken by country code.
+     */
+    private static AggregationOperation[] countryLeaderboardStages(int top) {
+        AggregationExpression last = ConditionalOperators.ifNull("data.last").then(List.of());
+        AggregationExpression wins = ArrayOperators.Size.lengthOfArray(
+                ArrayOperators.Filter.filter(last).as("result")
+                        .by(ComparisonOperators.valueOf("$$result").greaterThanValue(0)));
+        AggregationExpression games = ArrayOperators.Size.lengthOfArray(last);
+
+        return new AggregationOperation[] {
+                match(Criteria.where("country.code").ne(null)),
+                project("country").and(wins).as("wins").and(games).as("games"),
+                group("country.code").first("country").as("country")
+                        .sum("wins").as("wins")
+                        .sum("games").as("games"),
+                project("country", "wins", "games").and(ConditionalOperators
+                        .when(Criteria.where("games").gt(0))
+                        .then(ArithmeticOperators.valueOf("wins").divideBy("games"))
+                        .otherwise(0.0)).as("ratio"),
+                sort(Sort.by(Sort.Direction.DESC, "ratio").and(Sort.by(Sort.Direction.ASC, "_id"))),
+                limit(top) };
+    }
+
+    private Country readCountry(Document result) {
+        List<Document> countries = result.getList("countries", Document.class);
+        if (countries.isEmpty()) {
+            return PlayerStatisticsEngine.UNKNOWN_COUNTRY;
+        }
+        return mongoTemplate.getConverter().read(Country.class, countries.get(0).get("country", Document.class));
+    }
+
+    private double readAverageIMC(Document result) {
+        List<Document> imc = result.getList("imc", Document.class);
+        return imc.isEmpty() ? 0.0 : imc.get(0).get("averageIMC", Number.class).doubleValue();
+    }
+
+    private double readMedianHeight(Document result) {
+        IntHistogram heights = new IntHistogram(PlayerMetrics.MAX_HEIGHT);
+        for (Document bucket : result.getList("heights", Document.class)) {
+            heights.add(bucket.get("_id", Number.class).intValue(), bucket.get("count", Number.class).longValue());
+        }
+        return heights.median();
+    }
+}
@@ -0,0 +1,249 @@
+package com.latelier.tenisu.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.latelier.tenisu.config.ChangeStreamProperties;
+import com.latelier.tenisu.config.StatisticsMode;
+import com.latelier.tenisu.config.StatisticsProperties;
+import com.latelier.tenisu.dto.CountryWinRatioDto;
+import com.latelier.tenisu.dto.StatisticsDto;
+import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerChangeCheckpoint;
+import com.latelier.tenisu.model.PlayerData;
+import com.latelier.tenisu.repository.PlayerRepository;
+import com.latelier.tenisu.utils.CountryWinTally;
+import com.latelier.tenisu.utils.IntHistogram;
+import com.latelier.tenisu.utils.PlayerMetrics;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps running aggregates of the players statistics so that
+ * {@code GET /players/statistics} never has to read the whole collection.
+ *
+ * The aggregates are rebuilt from Mongo once the application is ready and then
+ * updated on every write going through {@link PlayerService}. With
+ * {@code tenisu.change-stream.enabled}, the {@link PlayerChangeFeed} loads and
+ * updates them instead, from the writes of every node. The win ratio is
+ * aggregated over all the players of a country, and players without a height
+ * are left out of the average IMC.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlayerStatisticsEngine {
+
+    static final Country UNKNOWN_COUNTRY = new Country("Unknown", "XX");
+
+    private final PlayerRepository playerRepository;
+
+    private final StatisticsProperties statisticsProperties;
+
+    private final ChangeStreamProperties changeStreamProperties;
+
+    private final Map<String, CountryWinTally> tallies = new HashMap<>();
+    private final IntHistogram heights = new IntHistogram(PlayerMetrics.MAX_HEIGHT);
+    private double imcSum;
+    private long imcCount;
+
+    private volatile StatisticsDto snapshot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (reload()) {
+            log.info("Statistics engine loaded {} players", heights.size());
+        }
+    }
+
+    /**
+     * Rebuilds the aggregates from Mongo, when they are maintained by this
+     * node: after a write that may have been partially applied, they no longer
+     * match the stored players.
+     *
+     * @return true if the aggregates were rebuilt, false when the statistics are
+     *         not incremental or the change feed maintains them
+     */
+    public boolean reload() {
+        if (statisticsProperties.mode() != StatisticsMode.INCREMENTAL || changeStreamProperties.enabled()) {
+            return false;
+        }
+        try (Stream<Player> players = playerRepository.streamAllBy()) {
+            rebuild(players);
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the aggregates with the ones computed from the given players.
+     *
+     * @param players all the players
+     */
+    public synchronized void rebuild(Stream<Player> players) {
+        tallies.clear();
+        heights.clear();
+        imcSum = 0.0;
+        imcCount = 0;
+        players.forEach(this::add);
+        snapshot = null;
+    }
+
+    /**
+     * Adds a player saved by this node to the aggregates. Ignored when the
+     * change feed is enabled, it applies the write once it is committed.
+     *
+     * @param player the saved player
+     */
+    public synchronized void record(Player player) {
+        if (changeStreamProperties.enabled()) {
+            return;
+        }
+        add(player);
+        snapshot = null;
+    }
+
+    /**
+     * Replaces a player changed by this node in the aggregates. Ignored when
+     * the change feed is enabled, like {@link #record(Player)}.
+     *
+     * @param before the previous version
+     * @param after  the new version
+     */
+    public synchronized void record(Player before, Player after) {
+        if (changeStreamProperties.enabled()) {
+            return;
+        }
+        apply(before, after);
+    }
+
+    /**
+     * Replaces a version of a player by another one in the aggregates.
+     *
+     * @param before the previous version, null for an insertion
+     * @param after  the new version, null for a deletion
+     */
+    public synchronized void apply(Player before, Player after) {
+        if (before != null) {
+            remove(before);
+        }
+        if (after != null) {
+            add(after);
+        }
+        snapshot = null;
+    }
+
+    /**
+     * @return a checkpoint holding a copy of the aggregates, without position
+     */
+    public synchronized PlayerChangeCheckpoint checkpoint() {
+        PlayerChangeCheckpoint checkpoint = new PlayerChangeCheckpoint();
+        checkpoint.setTallies(tallies.values().stream()
+                .map(tally -> new PlayerChangeCheckpoint.Tally(tally.getCountry(), tally.getWins(), tally.getGames()))
+                .toList());
+        checkpoint.setHeights(heights.counts());
+        checkpoint.setImcSum(imcSum);
+        checkpoint.setImcCount(imcCount);
+        return checkpoint;
+    }
+
+    /**
+     * Replaces the aggregates with the ones saved by {@link #checkpoint()}.
+     *
+     * @param checkpoint a checkpoint holding aggregates
+     */
+    public synchronized void restore(PlayerChangeCheckpoint checkpoint) {
+        tallies.clear();
+        checkpoint.getTallies().forEach(tally -> tallies.put(tally.country().getCode(),
+                new CountryWinTally(tally.country(), tally.wins(), tally.games())));
+        heights.clear();
+        long[] counts = checkpoint.getHeights();
+        for (int height = 0; height < counts.length; height++) {
+            if (counts[height] > 0) {
+                heights.add(height, counts[height]);
+            }
+        }
+        imcSum = checkpoint.getImcSum();
+        imcCount = checkpoint.getImcCount();
+        snapshot = null;
+    }
+
+    /**
+     * Returns the current statistics. The result is cached until the next write,
+     * and computing it only walks the per-country counters.
+     *
+     * @return the statistics of all the recorded players
+     */
+    public StatisticsDto getStatistics() {
+        StatisticsDto current = snapshot;
+        if (current == null) {
+            current = computeSnapshot();
+        }
+        return current;
+    }
+
+    /**
+     * Ranks the countries by win ratio from the per-country counters.
+     *
+     * @param top the maximum number of countries
+     * @return the best countries, best first
+     */
+    public synchronized List<CountryWinRatioDto> getCountryLeaderboard(int top) {
+        return CountryWinTally.top(tallies.values(), top).stream()
+                .map(CountryWinRatioDto::of)
+                .toList();
+    }
+
+    private synchronized StatisticsDto computeSnapshot() {
+        if (snapshot == null) {
+            Country country = tallies.values().stream()
+                    .min(CountryWinTally.BEST_RATIO_FIRST)
+                    .map(CountryWinTally::getCountry)
+                    .orElse(UNKNOWN_COUNTRY);
+            double averageIMC = imcCount > 0 ? imcSum / imcCount : 0.0;
+            snapshot = new StatisticsDto(country, averageIMC, heights.median());
+        }
+        return snapshot;
+    }
+
+    private void add(Player player) {
+        PlayerData data = player.getData();
+        if (data == null) {
+            return;
+        }
+        heights.add(data.getHeight());
+        if (data.getHeight() > 0) {
+            imcSum += PlayerMetrics.imc(data);
+            imcCount++;
+        }
+        Country country = player.getCountry();
+        if (country != null && country.getCode() != null) {
+            tallies.computeIfAbsent(country.getCode(), code -> new CountryWinTally(country))
+                    .add(data);
+        }
+    }
+
+    private void remove(Player player) {
+        PlayerData data = player.getData();
+        if (data == null) {
+            return;
+        }
+        heights.remove(data.getHeight());
+        if (data.getHeight() > 0) {
+            imcSum -= PlayerMetrics.imc(data);
+            imcCount--;
+        }
+        Country country = player.getCountry();
+        CountryWinTally tally = country != null ? tallies.get(country.getCode()) : null;
+        if (tally != null) {
+            tally.remove(data);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.latelier.tenisu.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.latelier.tenisu.dto.SerializedPlayersDto;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.repository.PlayerRepository;
+import com.latelier.tenisu.utils.PlayersFormat;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the serialized ranked players list (plain and gzip) in memory, so that
+ * {@code GET /players} neither queries Mongo nor runs Jackson while the roster
+ * is unchanged. Each {@link PlayersFormat} is serialized on its first request,
+ * and all of them are rebuilt lazily after {@link #invalidate()}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RankedPlayersResponseCache {
+
+    private final PlayerRepository playerRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<PlayersFormat, SerializedPlayersDto> current = new ConcurrentHashMap<>();
+
+    private final Map<PlayersFormat, ObjectMapper> mappers = new EnumMap<>(PlayersFormat.class);
+
+    public SerializedPlayersDto get() {
+        return get(PlayersFormat.JSON);
+    }
+
+    public SerializedPlayersDto get(PlayersFormat format) {
+        SerializedPlayersDto snapshot = current.get(format);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (this) {
+            snapshot = current.get(format);
+            if (snapshot != null) {
+                return snapshot;
+            }
+            long buildVersion = version.get();
+            SerializedPlayersDto built = build(format);
+            // A write during the build makes the result stale, serve it once
+            // without keeping it. The check runs under the lock of the entry,
+            // which invalidate() only clears after its increment
+            current.compute(format, (f, cached) -> version.get() == buildVersion ? built : cached);
+            return built;
+        }
+    }
+
+    /**
+     * Drops the serialized lists, to be called whenever the roster changes.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        current.clear();
+    }
+
+    private SerializedPlayersDto build(PlayersFormat format) {
+        long start = System.nanoTime();
+        ObjectMapper mapper = mappers.computeIfAbsent(format, f -> f.mapper(objectMapper));
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int count = 0;
+        try (Stream<Player> players = playerRepository.streamAllBy(PlayerRepository.BY_RANK_THEN_ID);
+                SequenceWriter writer = mapper.writer().writeValuesAsArray(body)) {
+            Iterator<Player> iterator = players.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize the ranked players", e);
+        }
+
+        byte[] bytes = body.toByteArray();
+        SerializedPlayersDto serialized = new SerializedPlayersDto(bytes, gzip(bytes),
+                DigestUtils.md5DigestAsHex(bytes), count);
+        log.info("Serialized {} ranked players as {} ({} bytes, {} gzipped) in {} ms", count, format, bytes.length,
+                serialized.gzip().length, (System.nanoTime() - start) / 1_000_000);
+        return serialized;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to gzip the ranked players", e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,294 @@
+package com.latelier.tenisu.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+
+import com.latelier.tenisu.config.StatisticsMode;
+import com.latelier.tenisu.config.StatisticsProperties;
+import com.latelier.tenisu.dto.BatchResultDto;
+import com.latelier.tenisu.dto.CountryWinRatioDto;
+import com.latelier.tenisu.dto.CreatePlayerDto;
+import com.latelier.tenisu.dto.FormDto;
+import com.latelier.tenisu.dto.MatchResultDto;
+import com.latelier.tenisu.dto.PercentilesDto;
+import com.latelier.tenisu.dto.PlayerPageDto;
+import com.latelier.tenisu.dto.PlayerSearchCriteria;
+import com.latelier.tenisu.dto.PointsUpdateDto;
+import com.latelier.tenisu.dto.SerializedPlayersDto;
+import com.latelier.tenisu.dto.StatisticsDto;
+import com.latelier.tenisu.exception.ExistingPlayerException;
+import com.latelier.tenisu.exception.PlayerNotFoundException;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.repository.PlayerRepository;
+import com.latelier.tenisu.repository.ReactivePlayerRepository;
+import com.latelier.tenisu.utils.PlayerFields;
+import com.latelier.tenisu.utils.PlayerMapper;
+import com.latelier.tenisu.utils.PlayersFormat;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking counterpart of {@link PlayerService} for the reactive stack.
+ *
+ * Reads and single writes go through {@link ReactivePlayerRepository} and share
+ * the caches and the statistics engine with the blocking service. Operations
+ * that only exist on the blocking repository (pagination, batch creation,
+ * aggregation statistics) are delegated to {@link PlayerService} on the
+ * bounded elastic scheduler so that they never run on an event loop.
+ */
+@Service
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactivePlayerService {
+
+    private final ReactivePlayerRepository reactivePlayerRepository;
+
+    private final PlayerService playerService;
+
+    private final PlayerMapper mapper;
+
+    private final PlayerCache playerCache;
+
+    private final RankedPlayersResponseCache rankedPlayersResponseCache;
+
+    private final PlayerStatisticsEngine statisticsEngine;
+
+    private final StatisticsProperties statisticsProperties;
+
+    private final PlayerRankingBroadcaster rankingBroadcaster;
+
+    /**
+     * suivre le classement en direct, voir {@link PlayerRankingBroadcaster}
+     * 
+     * @return Flux<ServerSentEvent<Object>>
+     */
+    public Flux<ServerSentEvent<Object>> subscribeToRanking() {
+        return rankingBroadcaster.subscribe();
+    }
+
+    /**
+     * retourner les joueurs classés du meilleur au moins bon, émis au fil du
+     * curseur Mongo selon la demande de l'abonné
+     * 
+     * @return Flux<Player>
+     */
+    public Flux<Player> getPlayersSortedByRankBestToWorst() {
+        return reactivePlayerRepository.findAllBy(PlayerRepository.BY_RANK_THEN_ID);
+    }
+
+    /**
+     * retourner les joueurs classés réduits aux champs demandés, voir
+     * {@link PlayerService#streamPlayersSortedByRankBestToWorst(PlayerFields)}
+     * 
+     * @param fields les champs à lire
+     * @return Flux<Player>
+     */
+    public Flux<Player> getPlayersSortedByRankBestToWorst(PlayerFields fields) {
+        // Le curseur projeté n'existe que sur le dépôt bloquant, fermé en fin de flux
+        return Flux.fromStream(() -> playerService.streamPlayersSortedByRankBestToWorst(fields))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * retourner la liste des joueurs classés déjà sérialisée dans le format
+     * demandé, voir {@link PlayerService#getSerializedPlayersSortedByRank(PlayersFormat)}
+     * 
+     * @param format JSON, CBOR ou Smile
+     * @return Mono<SerializedPlayersDto>
+     */
+    public Mono<SerializedPlayersDto> getSerializedPlayersSortedByRank(PlayersFormat format) {
+        // Reconstruite depuis le dépôt bloquant quand les joueurs ont changé
+        return Mono.fromCallable(() -> rankedPlayersResponseCache.get(format))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * retourner une page de joueurs classés, voir
+     * {@link PlayerService#getPlayersPageSortedByRank(String, int)}
+     * 
+     * @return Mono<PlayerPageDto>
+     */
+    public Mono<PlayerPageDto> getPlayersPageSortedByRank(String after, int limit) {
+        return Mono.fromCallable(() -> playerService.getPlayersPageSortedByRank(after, limit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * rechercher des joueurs, voir
+     * {@link PlayerService#searchPlayers(PlayerSearchCriteria, int)}
+     * 
+     * @return Mono<List<Player>>
+     */
+    public Mono<List<Player>> searchPlayers(PlayerSearchCriteria criteria, int limit) {
+        return Mono.fromCallable(() -> playerService.searchPlayers(criteria, limit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * retourner un joueur par son id, via le cache des joueurs
+     * 
+     * @param id
+     * @return Mono<Player>, en erreur {@link PlayerNotFoundException} si le
+     *         joueur n'existe pas
+     */
+    public Mono<Player> getPlayerById(String id) {
+        return Mono.defer(() -> {
+            PlayerCache.Lookup cached = playerCache.lookup(id);
+            if (cached.hit()) {
+                return Mono.just(cached.player());
+            }
+            return reactivePlayerRepository.findById(id)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .doOnNext(player -> playerCache.put(id, player));
+        })
+                .flatMap(Mono::justOrEmpty)
+                .switchIfEmpty(Mono.error(() -> new PlayerNotFoundException("Player not found with id: " + id)));
+    }
+
+    /**
+     * retourner un joueur par son id réduit aux champs demandés, voir
+     * {@link PlayerService#getPlayerById(String, PlayerFields)}
+     * 
+     * @param id
+     * @param fields les champs à lire
+     * @return Mono<Player>, en erreur {@link PlayerNotFoundException} si le
+     *         joueur n'existe pas
+     */
+    public Mono<Player> getPlayerById(String id, PlayerFields fields) {
+        return Mono.fromCallable(() -> playerService.getPlayerById(id, fields))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * retourner les statistiques de tous les joueurs, voir
+     * {@link PlayerService#getStatistics()}
+     * 
+     * @return Mono<StatisticsDto>
+     */
+    public Mono<StatisticsDto> getStatistics() {
+        if (statisticsProperties.mode() == StatisticsMode.INCREMENTAL) {
+            // Agrégats en mémoire, pas d'entrée/sortie
+            return Mono.fromSupplier(statisticsEngine::getStatistics);
+        }
+        return Mono.fromCallable(playerService::getStatistics)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * retourner les pays classés par ratio de parties gagnées, voir
+     * {@link PlayerService#getCountryLeaderboard(int)}
+     * 
+     * @param top le nombre maximum de pays
+     * @return Mono<List<CountryWinRatioDto>>
+     */
+    public Mono<List<CountryWinRatioDto>> getCountryLeaderboard(int top) {
+        if (statisticsProperties.mode() == StatisticsMode.INCREMENTAL) {
+            // Agrégats en mémoire, pas d'entrée/sortie
+            return Mono.fromSupplier(() -> playerService.getCountryLeaderboard(top));
+        }
+        return Mono.fromCallable(() -> playerService.getCountryLeaderboard(top))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * retourner la forme d'un joueur sur chaque fenêtre, voir
+     * {@link PlayerService#getForm(String)}
+     * 
+     * @param id
+     * @return Mono<List<FormDto>>
+     */
+    public Mono<List<FormDto>> getForm(String id) {
+        return Mono.fromCallable(() -> playerService.getForm(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * retourner les joueurs les plus en forme sur une fenêtre, voir
+     * {@link PlayerService#getHottestPlayers(int, int)}
+     * 
+     * @param window
+     * @param top
+     * @return Mono<List<Player>>
+     */
+    public Mono<List<Player>> getHottestPlayers(int window, int top) {
+        return Mono.fromCallable(() -> playerService.getHottestPlayers(window, top))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * retourner les percentiles d'un attribut des joueurs, voir
+     * {@link PlayerService#getPercentiles(String, String)}
+     * 
+     * @return Mono<PercentilesDto>
+     */
+    public Mono<PercentilesDto> getPercentiles(String field, String percentiles) {
+        return Mono.fromCallable(() -> playerService.getPercentiles(field, percentiles))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Enregistrer un nouveau joueur
+     * 
+     * @param dto
+     * @return Mono<Player>
+     */
+    public Mono<Player> savePlayer(CreatePlayerDto dto) {
+        if (dto == null || dto.getFirstname() == null || dto.getLastname() == null) {
+            return Mono.error(new IllegalArgumentException("Player data cannot be null or empty"));
+        }
+        return reactivePlayerRepository.insert(mapper.toPlayer(dto))
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> new ExistingPlayerException("Player with the same firstname and lastname already exists"))
+                // Le classement réécrit les rangs décalés de façon bloquante
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(playerService::afterInsert);
+    }
+
+    /**
+     * Enregistrer un lot de joueurs, voir
+     * {@link PlayerService#savePlayers(java.util.Iterator)}. Les joueurs sont
+     * consommés au fil de la requête, tranche par tranche.
+     * 
+     * @param dtos les joueurs à créer
+     * @return Mono<BatchResultDto>
+     */
+    public Mono<BatchResultDto> savePlayers(Flux<CreatePlayerDto> dtos) {
+        return Mono.fromCallable(() -> playerService.savePlayers(dtos.toIterable().iterator()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Modifier les points d'un joueur, voir
+     * {@link PlayerService#updatePoints(String, PointsUpdateDto)}
+     * 
+     * @param id  l'id du joueur
+     * @param dto les nouveaux points
+     * @return Mono<Player>
+     */
+    public Mono<Player> updatePoints(String id, PointsUpdateDto dto) {
+        return Mono.fromCallable(() -> playerService.updatePoints(id, dto))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Enregistrer le résultat d'un match, voir
+     * {@link PlayerService#recordMatch(MatchResultDto)}
+     * 
+     * @param match le vainqueur, le perdant et les points gagnés
+     * @return Mono<List<Player>>
+     */
+    public Mono<List<Player>> recordMatch(MatchResultDto match) {
+        return Mono.fromCallable(() -> playerService.recordMatch(match))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
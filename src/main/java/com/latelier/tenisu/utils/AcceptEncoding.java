@@ -0,0 +1,51 @@
+package com.latelier.tenisu.utils;
+
+import java.util.Locale;
+
+/**
+ * Reads the {@code Accept-Encoding} header of the requests that are answered
+ * with a precompressed body, honouring the quality of each coding.
+ */
+public final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    /**
+     * @param acceptEncoding the Accept-Encoding header of the request
+     * @return true if gzip, or any coding, is listed with a non-zero quality
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                return quality > 0;
+            }
+            if (name.equals("*")) {
+                any = quality;
+            }
+        }
+        return any != null && any > 0;
+    }
+
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    // Qualité illisible : le codage n'est pas retenu
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,137 @@
+package com.latelier.tenisu.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.FormCounter;
+import com.latelier.tenisu.model.PlayerData;
+
+import lombok.Getter;
+
+/**
+ * Running win/game counters for all the players of a country.
+ */
+@Getter
+public class CountryWinTally {
+
+    /**
+     * Orders tallies from the highest win ratio to the lowest, ties broken by
+     * country code so that the ordering is deterministic.
+     */
+    public static final Comparator<CountryWinTally> BEST_RATIO_FIRST = Comparator
+            .comparingDouble(CountryWinTally::getRatio).reversed()
+            .thenComparing(tally -> tally.getCountry().getCode());
+
+    private final Country country;
+    private long wins;
+    private long games;
+
+    /**
+     * Selects the {@code k} best tallies with a heap bounded to {@code k}
+     * elements, in O(n log k) rather than sorting all of them.
+     *
+     * @param tallies the tallies, one per country
+     * @param k       the maximum number of tallies to keep
+     * @return the best tallies, ordered by {@link #BEST_RATIO_FIRST}
+     */
+    public static List<CountryWinTally> top(Iterable<CountryWinTally> tallies, int k) {
+        // Tas min : la tête est la moins bonne des k tallies retenues
+        PriorityQueue<CountryWinTally> best = new PriorityQueue<>(BEST_RATIO_FIRST.reversed());
+        for (CountryWinTally tally : tallies) {
+            if (best.size() < k) {
+                best.add(tally);
+            } else if (k > 0 && BEST_RATIO_FIRST.compare(tally, best.peek()) < 0) {
+                best.poll();
+                best.add(tally);
+            }
+        }
+        List<CountryWinTally> result = new ArrayList<>(best);
+        result.sort(BEST_RATIO_FIRST);
+        return result;
+    }
+
+    public CountryWinTally(Country country) {
+        this.country = country;
+    }
+
+    public CountryWinTally(Country country, long wins, long games) {
+        this.country = country;
+        this.wins = wins;
+        this.games = games;
+    }
+
+    /**
+     * Adds the results of a player ({@code PlayerData.last}) to the tally. A
+     * positive value counts as a win.
+     *
+     * @param last the last results of a player, may be null
+     */
+    public void add(int[] last) {
+        apply(last, 1);
+    }
+
+    /**
+     * Removes the results of a player previously added with {@link #add(int[])}.
+     *
+     * @param last the last results of a player, may be null
+     */
+    public void remove(int[] last) {
+        apply(last, -1);
+    }
+
+    /**
+     * Adds the results of a player to the tally, read from its form counters
+     * ({@code data.form}) when one covers all of {@code data.last}.
+     *
+     * @param data the data of a player
+     */
+    public void add(PlayerData data) {
+        apply(data, 1);
+    }
+
+    /**
+     * Removes the results of a player previously added with
+     * {@link #add(PlayerData)}.
+     *
+     * @param data the data of a player
+     */
+    public void remove(PlayerData data) {
+        apply(data, -1);
+    }
+
+    public void merge(CountryWinTally other) {
+        wins += other.wins;
+        games += other.games;
+    }
+
+    public double getRatio() {
+        return games > 0 ? (double) wins / games : 0.0;
+    }
+
+    private void apply(PlayerData data, int sign) {
+        FormCounter whole = PlayerForm.whole(data);
+        if (whole == null) {
+            apply(data.getLast(), sign);
+            return;
+        }
+        wins += sign * whole.getWins();
+        games += sign * whole.getGames();
+    }
+
+    private void apply(int[] last, int sign) {
+        if (last == null) {
+            return;
+        }
+        int nbGagnes = 0;
+        for (int result : last) {
+            if (result > 0) {
+                nbGagnes++;
+            }
+        }
+        wins += sign * nbGagnes;
+        games += sign * last.length;
+    }
+}
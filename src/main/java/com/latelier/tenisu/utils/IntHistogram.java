@@ -0,0 +1,145 @@
+package com.latelier.tenisu.utils;
+
+import java.util.Arrays;
+
+/**
+ * Counting histogram over a bounded integer range [0, maxValue], backed by a
+ * Fenwick tree so that insertions, removals and order-statistic lookups
+ * (k-th smallest value) all run in O(log maxValue).
+ *
+ * Values outside the range are clamped to its bounds. This class is not
+ * thread-safe; callers are expected to guard it.
+ */
+public class IntHistogram {
+
+    private final int maxValue;
+    private final long[] tree;
+    private long size;
+
+    public IntHistogram(int maxValue) {
+        if (maxValue < 0) {
+            throw new IllegalArgumentException("maxValue must be positive");
+        }
+        this.maxValue = maxValue;
+        this.tree = new long[maxValue + 2];
+    }
+
+    public int getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * @return the number of values currently held by the histogram
+     */
+    public long size() {
+        return size;
+    }
+
+    public void add(int value) {
+        add(value, 1);
+    }
+
+    /**
+     * Adds {@code count} occurrences of a value.
+     */
+    public void add(int value, long count) {
+        update(clamp(value), count);
+        size += count;
+    }
+
+    public void remove(int value) {
+        update(clamp(value), -1);
+        size--;
+    }
+
+    public void clear() {
+        Arrays.fill(tree, 0);
+        size = 0;
+    }
+
+    /**
+     * Adds every value held by {@code other} to this histogram.
+     *
+     * @param other a histogram with the same range
+     */
+    public void merge(IntHistogram other) {
+        if (other.maxValue != maxValue) {
+            throw new IllegalArgumentException("Cannot merge histograms with different ranges");
+        }
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] += other.tree[i];
+        }
+        size += other.size;
+    }
+
+    /**
+     * Returns the k-th smallest value (1-based).
+     *
+     * @param k rank of the value, between 1 and {@link #size()}
+     * @return the value at that rank
+     */
+    public int select(long k) {
+        if (k < 1 || k > size) {
+            throw new IllegalArgumentException("Rank " + k + " is out of bounds for size " + size);
+        }
+        int position = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] < k) {
+                position = next;
+                k -= tree[next];
+            }
+        }
+        // position is the last 1-based index whose prefix count is < k
+        return position;
+    }
+
+    /**
+     * Returns the median value, averaging the two middle values when the size
+     * is even.
+     *
+     * @return the median, or 0.0 when the histogram is empty
+     */
+    public double median() {
+        if (size == 0) {
+            return 0.0;
+        }
+        if (size % 2 == 1) {
+            return select((size + 1) / 2);
+        }
+        return (select(size / 2) + select(size / 2 + 1)) / 2.0;
+    }
+
+    /**
+     * @return the number of occurrences of each value, indexed by value, to be
+     *         added back with {@link #add(int, long)}
+     */
+    public long[] counts() {
+        long[] counts = new long[maxValue + 1];
+        long previous = 0;
+        for (int value = 0; value <= maxValue; value++) {
+            long prefix = prefix(value + 1);
+            counts[value] = prefix - previous;
+            previous = prefix;
+        }
+        return counts;
+    }
+
+    private long prefix(int index) {
+        long sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private int clamp(int value) {
+        return Math.max(0, Math.min(maxValue, value));
+    }
+
+    private void update(int value, long delta) {
+        for (int i = value + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+}
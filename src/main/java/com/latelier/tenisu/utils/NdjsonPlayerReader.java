@@ -0,0 +1,78 @@
+package com.latelier.tenisu.utils;
+
+import java.io.BufferedReader;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.latelier.tenisu.dto.BatchItemResultDto;
+import com.latelier.tenisu.dto.BatchItemStatus;
+import com.latelier.tenisu.dto.BatchResultDto;
+import com.latelier.tenisu.dto.CreatePlayerDto;
+
+/**
+ * Reads the players of a newline-delimited JSON batch one line at a time.
+ *
+ * A malformed line does not fail the request, whose previous chunks may
+ * already be written: it is read as an empty player, rejected as invalid by
+ * the batch, and {@link #report(BatchResultDto)} then gives the parse error
+ * as the reason of its rejection. Blank lines are skipped. One reader is used
+ * per request.
+ */
+public class NdjsonPlayerReader {
+
+    private final ObjectReader reader;
+
+    // Erreur de lecture de chaque ligne illisible, par position dans le lot
+    private final Map<Integer, String> errors = new ConcurrentHashMap<>();
+
+    private int index;
+
+    public NdjsonPlayerReader(ObjectMapper objectMapper) {
+        this.reader = objectMapper.readerFor(CreatePlayerDto.class);
+    }
+
+    /**
+     * @param lines the request body
+     * @return the players, read as the lines are consumed
+     */
+    public Iterator<CreatePlayerDto> read(BufferedReader lines) {
+        return lines.lines().filter(line -> !line.isBlank()).map(this::read).iterator();
+    }
+
+    /**
+     * @param line a non-blank line of the batch
+     * @return the player of the line, an empty one if the line is malformed
+     */
+    public CreatePlayerDto read(String line) {
+        int position = index++;
+        try {
+            CreatePlayerDto dto = reader.readValue(line);
+            return dto != null ? dto : new CreatePlayerDto();
+        } catch (JsonProcessingException e) {
+            errors.put(position, "Invalid NDJSON player: " + e.getOriginalMessage());
+            return new CreatePlayerDto();
+        }
+    }
+
+    /**
+     * @param result the result of the batch
+     * @return the same result, the malformed lines rejected with their parse
+     *         error
+     */
+    public BatchResultDto report(BatchResultDto result) {
+        if (errors.isEmpty()) {
+            return result;
+        }
+        List<BatchItemResultDto> items = result.items().stream()
+                .map(item -> errors.containsKey(item.index()) && item.status() == BatchItemStatus.INVALID
+                        ? new BatchItemResultDto(item.index(), item.status(), null, errors.get(item.index()))
+                        : item)
+                .toList();
+        return new BatchResultDto(result.created(), result.rejected(), items);
+    }
+}
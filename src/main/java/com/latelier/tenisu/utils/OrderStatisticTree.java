@@ -0,0 +1,209 @@
+package com.latelier.tenisu.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted set that also answers "what is the index of this element" and "which
+ * elements are between two indexes" in O(log n), where a sorted list needs
+ * O(n) to insert or remove.
+ *
+ * It is a treap, a binary search tree balanced by random priorities, whose
+ * nodes count the elements of their subtree. Not thread-safe.
+ *
+ * @param <E> the type of the elements, distinct according to the comparator
+ */
+public final class OrderStatisticTree<E> {
+
+    private final Comparator<? super E> comparator;
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    private Node<E> root;
+
+    public OrderStatisticTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    private static final class Node<E> {
+        private final E value;
+        private final int priority;
+        private int size = 1;
+        private Node<E> left;
+        private Node<E> right;
+
+        private Node(E value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private record Split<E>(Node<E> lower, Node<E> upper) {
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * @param value the element to add
+     * @return false if an equal element is already present
+     */
+    public boolean add(E value) {
+        if (indexOf(value) >= 0) {
+            return false;
+        }
+        Split<E> split = split(root, value);
+        root = merge(merge(split.lower(), new Node<>(value, random.nextInt())), split.upper());
+        return true;
+    }
+
+    /**
+     * @param value the element to remove
+     * @return false if no equal element is present
+     */
+    public boolean remove(E value) {
+        if (indexOf(value) < 0) {
+            return false;
+        }
+        root = remove(root, value);
+        return true;
+    }
+
+    /**
+     * @param value an element
+     * @return its index in the sorted order, -1 if absent
+     */
+    public int indexOf(E value) {
+        int index = 0;
+        Node<E> node = root;
+        while (node != null) {
+            int comparison = comparator.compare(value, node.value);
+            if (comparison < 0) {
+                node = node.left;
+            } else if (comparison > 0) {
+                index += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return index + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index an index between 0 and {@code size() - 1}
+     * @return the element at this index in the sorted order
+     */
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    /**
+     * @param from the first index, inclusive
+     * @param to   the last index, exclusive
+     * @return the elements between the two indexes, in order, in
+     *         O(log n + to - from)
+     */
+    public List<E> subList(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("from " + from + ", to " + to + ", size " + size());
+        }
+        List<E> values = new ArrayList<>(to - from);
+        collect(root, 0, from, to, values);
+        return values;
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    private void collect(Node<E> node, int offset, int from, int to, List<E> values) {
+        if (node == null) {
+            return;
+        }
+        int index = offset + size(node.left);
+        if (from < index) {
+            collect(node.left, offset, from, to, values);
+        }
+        if (index >= from && index < to) {
+            values.add(node.value);
+        }
+        if (index + 1 < to) {
+            collect(node.right, index + 1, from, to, values);
+        }
+    }
+
+    // Sépare les éléments inférieurs à value des autres
+    private Split<E> split(Node<E> node, E value) {
+        if (node == null) {
+            return new Split<>(null, null);
+        }
+        if (comparator.compare(node.value, value) < 0) {
+            Split<E> split = split(node.right, value);
+            node.right = split.lower();
+            update(node);
+            return new Split<>(node, split.upper());
+        }
+        Split<E> split = split(node.left, value);
+        node.left = split.upper();
+        update(node);
+        return new Split<>(split.lower(), node);
+    }
+
+    // Tous les éléments de lower précèdent ceux de upper
+    private Node<E> merge(Node<E> lower, Node<E> upper) {
+        if (lower == null) {
+            return upper;
+        }
+        if (upper == null) {
+            return lower;
+        }
+        if (lower.priority > upper.priority) {
+            lower.right = merge(lower.right, upper);
+            update(lower);
+            return lower;
+        }
+        upper.left = merge(lower, upper.left);
+        update(upper);
+        return upper;
+    }
+
+    private Node<E> remove(Node<E> node, E value) {
+        int comparison = comparator.compare(value, node.value);
+        if (comparison == 0) {
+            return merge(node.left, node.right);
+        }
+        if (comparison < 0) {
+            node.left = remove(node.left, value);
+        } else {
+            node.right = remove(node.right, value);
+        }
+        update(node);
+        return node;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node<?> node) {
+        return node != null ? node.size : 0;
+    }
+}
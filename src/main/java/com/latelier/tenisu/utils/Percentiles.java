@@ -0,0 +1,154 @@
+package com.latelier.tenisu.utils;
+
+import java.util.Arrays;
+
+/**
+ * Percentiles of int values in linear time, without sorting.
+ *
+ * Values spanning a small range (heights, ages, weights) are counted into a
+ * histogram; wider ranges fall back to quickselect on a copy. Percentiles are
+ * interpolated linearly between the two closest ranks, so that the 50th
+ * percentile is the usual median.
+ */
+public final class Percentiles {
+
+    /**
+     * Widest range of values counted into a histogram, 256 KB of counters.
+     */
+    static final int MAX_COUNTING_RANGE = 1 << 16;
+
+    private Percentiles() {
+    }
+
+    /**
+     * @param values      the values, left untouched
+     * @param size        number of values to read from {@code values}
+     * @param percentiles the percentiles to compute, between 0 and 100
+     * @return the value at each percentile, 0.0 when there is no value
+     * @throws IllegalArgumentException if a percentile is out of range
+     */
+    public static double[] of(int[] values, int size, double... percentiles) {
+        for (double p : percentiles) {
+            if (!(p >= 0 && p <= 100)) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100: " + p);
+            }
+        }
+        double[] result = new double[percentiles.length];
+        if (size == 0) {
+            return result;
+        }
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        Selector selector = (long) max - min < MAX_COUNTING_RANGE
+                ? new CountingSelector(values, size, min, max)
+                : new QuickSelector(values, size);
+
+        for (int i = 0; i < percentiles.length; i++) {
+            double position = (size - 1) * percentiles[i] / 100.0;
+            int lower = (int) Math.floor(position);
+            double fraction = position - lower;
+            double value = selector.select(lower);
+            if (fraction > 0) {
+                value += fraction * (selector.select(lower + 1) - value);
+            }
+            result[i] = value;
+        }
+        return result;
+    }
+
+    private interface Selector {
+        /**
+         * @param rank 0-based rank in ascending order
+         */
+        int select(int rank);
+    }
+
+    /**
+     * Cumulative counts over [min, max], each selection is a binary search.
+     */
+    private static final class CountingSelector implements Selector {
+        private final int min;
+        private final int[] cumulative;
+
+        CountingSelector(int[] values, int size, int min, int max) {
+            this.min = min;
+            this.cumulative = new int[max - min + 1];
+            for (int i = 0; i < size; i++) {
+                cumulative[values[i] - min]++;
+            }
+            for (int i = 1; i < cumulative.length; i++) {
+                cumulative[i] += cumulative[i - 1];
+            }
+        }
+
+        @Override
+        public int select(int rank) {
+            // Première valeur dont le cumul dépasse le rang
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] > rank) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return min + low;
+        }
+    }
+
+    /**
+     * Hoare quickselect with a median-of-three pivot. Successive selections
+     * reuse the partially ordered copy.
+     */
+    private static final class QuickSelector implements Selector {
+        private final int[] values;
+
+        QuickSelector(int[] values, int size) {
+            this.values = Arrays.copyOf(values, size);
+        }
+
+        @Override
+        public int select(int rank) {
+            int left = 0;
+            int right = values.length - 1;
+            while (left < right) {
+                int middle = (left + right) >>> 1;
+                int pivot = medianOfThree(values[left], values[middle], values[right]);
+                int i = left;
+                int j = right;
+                while (i <= j) {
+                    while (values[i] < pivot) {
+                        i++;
+                    }
+                    while (values[j] > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        int swap = values[i];
+                        values[i++] = values[j];
+                        values[j--] = swap;
+                    }
+                }
+                if (rank <= j) {
+                    right = j;
+                } else if (rank >= i) {
+                    left = i;
+                } else {
+                    return values[rank];
+                }
+            }
+            return values[rank];
+        }
+
+        private static int medianOfThree(int a, int b, int c) {
+            return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.latelier.tenisu.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
+
+/**
+ * Immutable column-oriented copy of the players, for analytics.
+ *
+ * Each field of {@link PlayerData} is held in its own {@code int[]}, the
+ * {@code last} results of all the players are flattened into a single array
+ * indexed by offsets, and country codes are dictionary-encoded. The statistics
+ * walk these arrays sequentially and allocate no per-player object, only a
+ * {@link Summary} of counters sized by the number of countries and heights.
+ * Summaries of disjoint ranges merge, so that large snapshots are summarized
+ * in parallel on a fork/join pool.
+ *
+ * Players without data are left out, and the statistics follow
+ * {@code PlayerStatisticsEngine}: win ratio aggregated per country, IMC only
+ * for the players with a height.
+ */
+public final class PlayerColumns {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int NO_COUNTRY = -1;
+
+    private static final int[] NO_RESULTS = {};
+
+    // Plusieurs tranches par thread pour équilibrer la charge entre les workers
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final int size;
+    private final int[] rank;
+    private final int[] points;
+    private final int[] weight;
+    private final int[] height;
+    private final int[] age;
+    // Résultats du joueur i dans lastValues[lastOffsets[i] .. lastOffsets[i + 1]]
+    private final int[] lastOffsets;
+    private final int[] lastValues;
+    private final int[] countryIds;
+    private final Country[] countries;
+
+    private PlayerColumns(Builder builder) {
+        size = builder.size;
+        rank = Arrays.copyOf(builder.rank, size);
+        points = Arrays.copyOf(builder.points, size);
+        weight = Arrays.copyOf(builder.weight, size);
+        height = Arrays.copyOf(builder.height, size);
+        age = Arrays.copyOf(builder.age, size);
+        lastOffsets = Arrays.copyOf(builder.lastOffsets, size + 1);
+        lastValues = Arrays.copyOf(builder.lastValues, builder.lastOffsets[size]);
+        countryIds = Arrays.copyOf(builder.countryIds, size);
+        countries = builder.countries.toArray(Country[]::new);
+    }
+
+    /**
+     * Builds the columns from the given players, in iteration order.
+     *
+     * @param players the players, read once
+     * @return the columns
+     */
+    public static PlayerColumns of(Iterator<Player> players) {
+        Builder builder = new Builder();
+        players.forEachRemaining(builder::add);
+        return new PlayerColumns(builder);
+    }
+
+    /**
+     * @return the number of players with data
+     */
+    public int size() {
+        return size;
+    }
+
+    public int countryCount() {
+        return countries.length;
+    }
+
+    /**
+     * Computes the statistics in a single sequential pass.
+     *
+     * @return the statistics of all the players
+     */
+    public Summary summarize() {
+        Summary summary = new Summary();
+        summary.accumulate(0, size);
+        return summary;
+    }
+
+    /**
+     * Computes the statistics on {@code pool}: the players are split in chunks,
+     * each chunk is summarized on its own and the partial summaries are merged.
+     * Below {@code threshold} players the pass stays sequential, forking would
+     * cost more than it saves.
+     *
+     * @param pool      the pool running the chunks
+     * @param threshold the number of players from which the pass is parallel
+     * @return the statistics of all the players
+     */
+    public Summary summarize(ForkJoinPool pool, int threshold) {
+        if (size < Math.max(threshold, 2)) {
+            return summarize();
+        }
+        int chunkSize = Math.max(1, size / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        return pool.invoke(new SummaryTask(0, size, chunkSize));
+    }
+
+    /**
+     * @param field       the attribute
+     * @param percentiles the percentiles, between 0 and 100
+     * @return the value of the attribute at each percentile, see
+     *         {@link Percentiles#of(int[], int, double...)}
+     */
+    public double[] percentiles(PlayerField field, double... percentiles) {
+        int[] column = switch (field) {
+            case HEIGHT -> height;
+            case WEIGHT -> weight;
+            case AGE -> age;
+            case POINTS -> points;
+        };
+        return Percentiles.of(column, size, percentiles);
+    }
+
+    public int rank(int index) {
+        return rank[index];
+    }
+
+    /**
+     * Mergeable statistics of a range of players: IMC sum and count, win and
+     * game counters per country and a height histogram.
+     */
+    public final class Summary {
+        private final long[] wins = new long[countries.length];
+        private final long[] games = new long[countries.length];
+        private final int[] heights = new int[PlayerMetrics.MAX_HEIGHT + 1];
+        private double imcSum;
+        private int imcCount;
+        private int count;
+
+        private Summary() {
+        }
+
+        /**
+         * @return the average IMC of the players with a height, or 0.0
+         */
+        public double averageImc() {
+            return imcCount > 0 ? imcSum / imcCount : 0.0;
+        }
+
+        /**
+         * @return the median height, averaging the two middle heights when the
+         *         number of players is even, or 0.0 when there is none
+         */
+        public double medianHeight() {
+            if (count == 0) {
+                return 0.0;
+            }
+            if (count % 2 == 1) {
+                return select(heights, (count + 1) / 2);
+            }
+            return (select(heights, count / 2) + select(heights, count / 2 + 1)) / 2.0;
+        }
+
+        /**
+         * @return the country with the highest win ratio over all its players,
+         *         ties broken by country code, or null when no player has a
+         *         country
+         */
+        public Country bestCountry() {
+            int best = NO_COUNTRY;
+            double bestRatio = 0.0;
+            for (int country = 0; country < countries.length; country++) {
+                double ratio = games[country] > 0 ? (double) wins[country] / games[country] : 0.0;
+                if (best == NO_COUNTRY || ratio > bestRatio
+                        || ratio == bestRatio && countries[country].getCode().compareTo(countries[best].getCode()) < 0) {
+                    best = country;
+                    bestRatio = ratio;
+                }
+            }
+            return best == NO_COUNTRY ? null : countries[best];
+        }
+
+        /**
+         * @param top the maximum number of countries
+         * @return the countries with the highest win ratios, best first
+         */
+        public List<CountryWinTally> topCountries(int top) {
+            List<CountryWinTally> tallies = new ArrayList<>(countries.length);
+            for (int country = 0; country < countries.length; country++) {
+                tallies.add(new CountryWinTally(countries[country], wins[country], games[country]));
+            }
+            return CountryWinTally.top(tallies, top);
+        }
+
+        private void accumulate(int from, int to) {
+            for (int i = from; i < to; i++) {
+                heights[Math.max(0, Math.min(PlayerMetrics.MAX_HEIGHT, height[i]))]++;
+                if (height[i] > 0) {
+                    imcSum += PlayerMetrics.imc(height[i], weight[i]);
+                    imcCount++;
+                }
+                int country = countryIds[i];
+                if (country == NO_COUNTRY) {
+                    continue;
+                }
+                int end = lastOffsets[i + 1];
+                for (int j = lastOffsets[i]; j < end; j++) {
+                    if (lastValues[j] > 0) {
+                        wins[country]++;
+                    }
+                }
+                games[country] += end - lastOffsets[i];
+            }
+            count += to - from;
+        }
+
+        private Summary merge(Summary other) {
+            for (int country = 0; country < countries.length; country++) {
+                wins[country] += other.wins[country];
+                games[country] += other.games[country];
+            }
+            for (int value = 0; value < heights.length; value++) {
+                heights[value] += other.heights[value];
+            }
+            imcSum += other.imcSum;
+            imcCount += other.imcCount;
+            count += other.count;
+            return this;
+        }
+    }
+
+    /**
+     * Summarizes {@code [from, to)}, halving the range until it fits in a chunk.
+     */
+    private final class SummaryTask extends RecursiveTask<Summary> {
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private SummaryTask(int from, int to, int chunkSize) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (to - from <= chunkSize) {
+                Summary summary = new Summary();
+                summary.accumulate(from, to);
+                return summary;
+            }
+            int middle = (from + to) >>> 1;
+            SummaryTask left = new SummaryTask(from, middle, chunkSize);
+            left.fork();
+            Summary right = new SummaryTask(middle, to, chunkSize).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private static int select(int[] counts, int k) {
+        int seen = 0;
+        for (int value = 0; value < counts.length; value++) {
+            seen += counts[value];
+            if (seen >= k) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Rank " + k + " is out of bounds");
+    }
+
+    /**
+     * Growable columns, trimmed to size once all the players are added.
+     */
+    private static final class Builder {
+        private int size;
+        private int[] rank = new int[INITIAL_CAPACITY];
+        private int[] points = new int[INITIAL_CAPACITY];
+        private int[] weight = new int[INITIAL_CAPACITY];
+        private int[] height = new int[INITIAL_CAPACITY];
+        private int[] age = new int[INITIAL_CAPACITY];
+        private int[] countryIds = new int[INITIAL_CAPACITY];
+        private int[] lastOffsets = new int[INITIAL_CAPACITY + 1];
+        private int[] lastValues = new int[INITIAL_CAPACITY * 5];
+        private final Map<String, Integer> countryIndex = new HashMap<>();
+        private final List<Country> countries = new ArrayList<>();
+
+        private void add(Player player) {
+            PlayerData data = player.getData();
+            if (data == null) {
+                return;
+            }
+            if (size == rank.length) {
+                grow();
+            }
+            rank[size] = data.getRank();
+            points[size] = data.getPoints();
+            weight[size] = data.getWeight();
+            height[size] = data.getHeight();
+            age[size] = data.getAge();
+            countryIds[size] = countryId(player.getCountry());
+
+            int[] last = data.getLast() != null ? data.getLast() : NO_RESULTS;
+            int offset = lastOffsets[size];
+            if (offset + last.length > lastValues.length) {
+                lastValues = Arrays.copyOf(lastValues, Math.max(lastValues.length * 2, offset + last.length));
+            }
+            System.arraycopy(last, 0, lastValues, offset, last.length);
+            lastOffsets[size + 1] = offset + last.length;
+            size++;
+        }
+
+        private int countryId(Country country) {
+            if (country == null || country.getCode() == null) {
+                return NO_COUNTRY;
+            }
+            return countryIndex.computeIfAbsent(country.getCode(), code -> {
+                countries.add(country);
+                return countries.size() - 1;
+            });
+        }
+
+        private void grow() {
+            int capacity = rank.length * 2;
+            rank = Arrays.copyOf(rank, capacity);
+            points = Arrays.copyOf(points, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+            height = Arrays.copyOf(height, capacity);
+            age = Arrays.copyOf(age, capacity);
+            countryIds = Arrays.copyOf(countryIds, capacity);
+            lastOffsets = Arrays.copyOf(lastOffsets, capacity + 1);
+        }
+    }
+}
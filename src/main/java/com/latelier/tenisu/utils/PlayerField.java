@@ -0,0 +1,34 @@
+package com.latelier.tenisu.utils;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Numeric player attributes available to the percentile statistics.
+ */
+public enum PlayerField {
+    HEIGHT,
+    WEIGHT,
+    AGE,
+    POINTS;
+
+    /**
+     * @param name the field name, case insensitive, e.g. {@code height}
+     * @return the matching field
+     * @throws IllegalArgumentException if no field has that name
+     */
+    public static PlayerField of(String name) {
+        for (PlayerField field : values()) {
+            if (field.name().equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + name + ", expected one of "
+                + Arrays.stream(values()).map(PlayerField::fieldName).collect(Collectors.joining(", ")));
+    }
+
+    public String fieldName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,118 @@
+package com.latelier.tenisu.utils;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyFilter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.PlayerData;
+
+/**
+ * Sparse fieldset of a player, parsed from a {@code fields=} query parameter
+ * such as {@code id,shortname,country.code,data.rank}.
+ *
+ * The same paths drive the Mongo projection of the query and the
+ * {@link #filter() Jackson filter} of the response. Requesting an object
+ * ({@code country}) selects all its fields, and a nested field
+ * ({@code country.code}) keeps only that field of its object, unless the
+ * object itself is requested too.
+ */
+public final class PlayerFields {
+
+    /**
+     * Id of the Jackson filter applied to the players by {@link PlayerFieldsWriter}.
+     */
+    public static final String FILTER_ID = "playerFields";
+
+    private static final List<String> PATHS = List.of("id", "firstname", "lastname", "shortname", "sex",
+            "picture", "country", "country.picture", "country.code", "data", "data.rank", "data.points",
+            "data.weight", "data.height", "data.age", "data.last", "data.form");
+
+    private final Set<String> paths;
+
+    private PlayerFields(Set<String> paths) {
+        this.paths = paths;
+    }
+
+    /**
+     * @param fields the comma separated field paths
+     * @return the fieldset
+     * @throws IllegalArgumentException if a path is unknown or none is given
+     */
+    public static PlayerFields of(String fields) {
+        Set<String> paths = new LinkedHashSet<>();
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .forEach(path -> {
+                    if (!PATHS.contains(path)) {
+                        throw new IllegalArgumentException(
+                                "Unknown field: " + path + ", expected one of " + String.join(", ", PATHS));
+                    }
+                    paths.add(path);
+                });
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("At least one field is required");
+        }
+        // Un champ dont l'objet est aussi demandé est déjà inclus, et Mongo refuse
+        // de projeter les deux (Path collision)
+        paths.removeIf(path -> path.contains(".") && paths.contains(path.substring(0, path.lastIndexOf('.'))));
+        return new PlayerFields(Set.copyOf(paths));
+    }
+
+    /**
+     * @return the requested paths, to be included by the Mongo projection
+     */
+    public Set<String> paths() {
+        return paths;
+    }
+
+    /**
+     * @param path a field path
+     * @return true if the path is requested, belongs to a requested object, or
+     *         is an object holding a requested field
+     */
+    public boolean includes(String path) {
+        for (String requested : paths) {
+            if (requested.equals(path) || path.startsWith(requested + ".") || requested.startsWith(path + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return a filter writing only the requested fields of {@code Player},
+     *         {@code Country} and {@code PlayerData}
+     */
+    public PropertyFilter filter() {
+        return new SimpleBeanPropertyFilter() {
+            @Override
+            public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider,
+                    PropertyWriter writer) throws Exception {
+                if (includes(prefix(pojo) + writer.getName())) {
+                    writer.serializeAsField(pojo, gen, provider);
+                } else if (!gen.canOmitFields()) {
+                    writer.serializeAsOmittedField(pojo, gen, provider);
+                }
+            }
+        };
+    }
+
+    // Country et PlayerData n'apparaissent que sous player.country et player.data
+    private static String prefix(Object pojo) {
+        if (pojo instanceof Country) {
+            return "country.";
+        }
+        if (pojo instanceof PlayerData) {
+            return "data.";
+        }
+        return "";
+    }
+}
@@ -0,0 +1,43 @@
+package com.latelier.tenisu.utils;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
+
+/**
+ * Writes players restricted to a {@link PlayerFields} fieldset.
+ *
+ * The filter is attached through mix-ins on a copy of the application mapper,
+ * so the default serialization of {@link Player} is left untouched.
+ */
+@Component
+public class PlayerFieldsWriter {
+
+    private final ObjectMapper projectionMapper;
+
+    public PlayerFieldsWriter(ObjectMapper objectMapper) {
+        this.projectionMapper = objectMapper.copy()
+                .addMixIn(Player.class, Filtered.class)
+                .addMixIn(Country.class, Filtered.class)
+                .addMixIn(PlayerData.class, Filtered.class);
+    }
+
+    /**
+     * @param fields the requested fields
+     * @return a JSON writer of players, or of values holding players, that only
+     *         writes the requested fields
+     */
+    public ObjectWriter writer(PlayerFields fields) {
+        return projectionMapper.writer(new SimpleFilterProvider().addFilter(PlayerFields.FILTER_ID, fields.filter()));
+    }
+
+    @JsonFilter(PlayerFields.FILTER_ID)
+    private interface Filtered {
+    }
+}
@@ -0,0 +1,124 @@
+package com.latelier.tenisu.utils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.latelier.tenisu.model.FormCounter;
+import com.latelier.tenisu.model.PlayerData;
+
+/**
+ * Rolling win counters of a player over its latest results, stored in
+ * {@code data.form} with one {@link FormCounter} per window size, so that the
+ * form of a player is read without counting {@code data.last}.
+ *
+ * A win is a positive result, as in {@link CountryWinTally}.
+ */
+public final class PlayerForm {
+
+    private static final int[] NO_RESULTS = new int[0];
+
+    private PlayerForm() {
+    }
+
+    /**
+     * @param window a window size
+     * @return the key of its counter in {@code data.form}
+     */
+    public static String key(int window) {
+        return String.valueOf(window);
+    }
+
+    /**
+     * Counts the wins of each window over the latest results.
+     *
+     * @param last    the latest results, oldest first, may be null
+     * @param windows the window sizes
+     * @return the counters, by window size
+     */
+    public static Map<String, FormCounter> of(int[] last, List<Integer> windows) {
+        int[] results = last != null ? last : NO_RESULTS;
+        Map<String, FormCounter> form = new LinkedHashMap<>();
+        for (int window : windows) {
+            int games = Math.min(window, results.length);
+            form.put(key(window), new FormCounter(wins(results, results.length - games, results.length), games));
+        }
+        return form;
+    }
+
+    /**
+     * Slides the counters of a player over results appended to its latest ones,
+     * which then keep only the {@code history} latest. Only the appended
+     * results and those leaving each window are read; a counter that is
+     * missing or does not match {@code data.last} is counted again.
+     *
+     * @param data     the player data before the results
+     * @param appended the appended results, oldest first
+     * @param windows  the window sizes
+     * @param history  the number of results kept in {@code data.last}
+     * @return the counters once the results are appended, by window size
+     */
+    public static Map<String, FormCounter> append(PlayerData data, List<Integer> appended, List<Integer> windows,
+            int history) {
+        int[] last = data.getLast() != null ? data.getLast() : NO_RESULTS;
+        int n = last.length;
+        int k = appended.size();
+        int kept = Math.min(n + k, history);
+        Map<String, FormCounter> previous = data.getForm() != null ? data.getForm() : Map.of();
+        Map<String, FormCounter> form = new LinkedHashMap<>();
+        for (int window : windows) {
+            int games = Math.min(window, kept);
+            // La fenêtre couvre les positions [start, n + k) de last suivi des nouveaux résultats
+            int start = n + k - games;
+            FormCounter counter = previous.get(key(window));
+            int wins;
+            if (counter != null && counter.getGames() == Math.min(window, n)) {
+                wins = counter.getWins() - wins(last, n - counter.getGames(), Math.min(n, start))
+                        + wins(appended, Math.max(0, start - n), k);
+            } else {
+                wins = wins(last, Math.min(n, start), n) + wins(appended, Math.max(0, start - n), k);
+            }
+            form.put(key(window), new FormCounter(wins, games));
+        }
+        return form;
+    }
+
+    /**
+     * @param data the player data
+     * @return a counter covering all of {@code data.last}, or null if none does
+     *         and the results must be counted
+     */
+    public static FormCounter whole(PlayerData data) {
+        if (data.getLast() == null || data.getForm() == null) {
+            return null;
+        }
+        for (Map.Entry<String, FormCounter> entry : data.getForm().entrySet()) {
+            FormCounter counter = entry.getValue();
+            if (counter != null && counter.getGames() == data.getLast().length
+                    && Integer.parseInt(entry.getKey()) >= data.getLast().length) {
+                return counter;
+            }
+        }
+        return null;
+    }
+
+    private static int wins(int[] results, int from, int to) {
+        int wins = 0;
+        for (int i = Math.max(0, from); i < to; i++) {
+            if (results[i] > 0) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+    private static int wins(List<Integer> results, int from, int to) {
+        int wins = 0;
+        for (int i = Math.max(0, from); i < to; i++) {
+            if (results.get(i) > 0) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+}
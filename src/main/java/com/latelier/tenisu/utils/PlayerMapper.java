@@ -1,9 +1,14 @@
 package com.latelier.tenisu.utils;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.stereotype.Component;
 
 import com.latelier.tenisu.dto.CreatePlayerDto;
+import com.latelier.tenisu.model.FormCounter;
 import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
 
 @Component
 public class PlayerMapper {
@@ -28,4 +33,39 @@ public class PlayerMapper {
 
         return player;
     }
+
+    /**
+     * Copies a player, with its own copy of the data so that the copy can be
+     * changed without altering the original.
+     *
+     * @param player the player to copy
+     * @return a copy of the player
+     */
+    public Player copy(Player player) {
+        Player copy = new Player();
+        copy.setId(player.getId());
+        copy.setFirstname(player.getFirstname());
+        copy.setLastname(player.getLastname());
+        copy.setShortname(player.getShortname());
+        copy.setSex(player.getSex());
+        copy.setCountry(player.getCountry());
+        copy.setPicture(player.getPicture());
+        PlayerData data = new PlayerData();
+        if (player.getData() != null) {
+            data.setRank(player.getData().getRank());
+            data.setPoints(player.getData().getPoints());
+            data.setWeight(player.getData().getWeight());
+            data.setHeight(player.getData().getHeight());
+            data.setAge(player.getData().getAge());
+            data.setLast(player.getData().getLast() != null ? player.getData().getLast().clone() : null);
+            if (player.getData().getForm() != null) {
+                Map<String, FormCounter> form = new LinkedHashMap<>();
+                player.getData().getForm().forEach(
+                        (window, counter) -> form.put(window, new FormCounter(counter.getWins(), counter.getGames())));
+                data.setForm(form);
+            }
+        }
+        copy.setData(data);
+        return copy;
+    }
 }
@@ -0,0 +1,40 @@
+package com.latelier.tenisu.utils;
+
+import com.latelier.tenisu.model.PlayerData;
+
+/**
+ * Per-player metrics shared by every statistics implementation.
+ */
+public final class PlayerMetrics {
+
+    /**
+     * Upper bound (in cm) of the heights tracked by height histograms.
+     */
+    public static final int MAX_HEIGHT = 300;
+
+    private PlayerMetrics() {
+    }
+
+    /**
+     * Calculer l'IMC d'un joueur, arrondi à deux décimales.
+     *
+     * @param data the player data, height in cm and weight in g
+     * @return the IMC (kg/m²)
+     */
+    public static double imc(PlayerData data) {
+        return imc(data.getHeight(), data.getWeight());
+    }
+
+    /**
+     * Calculer l'IMC à partir de la taille et du poids, arrondi à deux décimales.
+     *
+     * @param height the height in cm
+     * @param weight the weight in g
+     * @return the IMC (kg/m²)
+     */
+    public static double imc(int height, int weight) {
+        double heightInMeters = height / 100.0; // Convert cm to m
+        double weightInKg = weight / 1000.0; // Convert g to kg
+        return Math.round(weightInKg / (heightInMeters * heightInMeters) * 100.0) / 100.0; // Round to 2 decimal places
+    }
+}
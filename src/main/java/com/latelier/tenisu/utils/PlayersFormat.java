@@ -0,0 +1,84 @@
+package com.latelier.tenisu.utils;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+/**
+ * Representations of the ranked players list. The binary formats encode the
+ * same Jackson tree as JSON, without quoting field names and numbers as text,
+ * and Smile also back-references repeated field names and short string values
+ * such as country codes.
+ */
+public enum PlayersFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    private final MediaType mediaType;
+
+    PlayersFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @param objectMapper the application JSON mapper
+     * @return a mapper writing this format with the configuration of
+     *         {@code objectMapper}
+     */
+    public ObjectMapper mapper(ObjectMapper objectMapper) {
+        return switch (this) {
+            case JSON -> objectMapper;
+            case CBOR -> objectMapper.copyWith(new CBORFactory());
+            case SMILE -> objectMapper.copyWith(SmileFactory.builder()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                    .build());
+        };
+    }
+
+    /**
+     * Picks the format preferred by an {@code Accept} header, by quality then
+     * specificity.
+     *
+     * @param accept the Accept header, may be null
+     * @return the preferred format, JSON when none is acceptable or the header
+     *         is missing or invalid
+     */
+    public static PlayersFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        // Tri stable : à qualité égale, le type le plus spécifique reste devant
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0.0) {
+                break;
+            }
+            for (PlayersFormat format : values()) {
+                if (mediaType.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
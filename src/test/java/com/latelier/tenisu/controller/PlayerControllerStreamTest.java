@@ -0,0 +1,107 @@
+package com.latelier.tenisu.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.latelier.tenisu.controller.handler.GlobalExceptionHandler;
+import com.latelier.tenisu.dto.RankingDeltaDto;
+import com.latelier.tenisu.exception.RankingStreamFullException;
+import com.latelier.tenisu.service.MatchIngestionPipeline;
+import com.latelier.tenisu.service.PlayerService;
+import com.latelier.tenisu.utils.PlayerFieldsWriter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+/**
+ * Runs {@code GET /players/stream} on a real servlet container, whose async
+ * timeout is shortened to stand in for Tomcat's default one.
+ */
+@SpringBootTest(classes = PlayerControllerStreamTest.Config.class, webEnvironment = WebEnvironment.RANDOM_PORT,
+                properties = "spring.mvc.async.request-timeout=500ms")
+class PlayerControllerStreamTest {
+
+        @Configuration
+        @ImportAutoConfiguration({ ServletWebServerFactoryAutoConfiguration.class,
+                        DispatcherServletAutoConfiguration.class, WebMvcAutoConfiguration.class,
+                        HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class })
+        @Import({ PlayerController.class, PlayerFieldsWriter.class, GlobalExceptionHandler.class,
+                        SimpleMeterRegistry.class })
+        static class Config {
+        }
+
+        @MockitoBean
+        private PlayerService playerService;
+
+        @MockitoBean
+        private MatchIngestionPipeline matchIngestion;
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void streamRanking_shouldStayOpenPastAsyncRequestTimeout() throws Exception {
+                // Given
+                when(playerService.subscribeToRanking()).thenReturn(Flux.concat(
+                                Flux.just(ServerSentEvent.<Object>builder("[]").event("snapshot").build()),
+                                Flux.interval(Duration.ofMillis(200)).map(tick -> ServerSentEvent
+                                                .<Object>builder(new RankingDeltaDto("p" + tick, 1, tick.intValue()))
+                                                .event("updated").build())));
+
+                // When
+                HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(
+                                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/players/stream"))
+                                                .header("Accept", "text/event-stream").build(),
+                                HttpResponse.BodyHandlers.ofLines());
+                List<String> data;
+                try (Stream<String> lines = response.body()) {
+                        // 10 changes à 200 ms d'intervalle, bien au-delà du délai de 500 ms
+                        data = lines.filter(line -> line.startsWith("data:")).limit(11).toList();
+                }
+
+                // Then
+                assertThat(response.statusCode()).isEqualTo(200);
+                assertThat(data).hasSize(11)
+                                .startsWith("data:[]")
+                                .endsWith("data:{\"id\":\"p9\",\"rank\":1,\"points\":9}");
+        }
+
+        @Test
+        void streamRanking_shouldAnswerServiceUnavailable_whenStreamIsFull() throws Exception {
+                // Given
+                when(playerService.subscribeToRanking())
+                                .thenThrow(new RankingStreamFullException("Live ranking stream is full"));
+
+                // When
+                HttpResponse<String> response = HttpClient.newHttpClient().send(
+                                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/players/stream"))
+                                                .header("Accept", "text/event-stream").build(),
+                                HttpResponse.BodyHandlers.ofString());
+
+                // Then
+                assertThat(response.statusCode()).isEqualTo(503);
+        }
+}
@@ -1,33 +1,72 @@
 package com.latelier.tenisu.controller;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
+import org.assertj.core.api.Assertions;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.latelier.tenisu.controller.handler.GlobalExceptionHandler;
+import com.latelier.tenisu.dto.BatchItemResultDto;
+import com.latelier.tenisu.dto.BatchItemStatus;
+import com.latelier.tenisu.dto.BatchResultDto;
+import com.latelier.tenisu.dto.CountryWinRatioDto;
 import com.latelier.tenisu.dto.CreatePlayerDto;
+import com.latelier.tenisu.dto.FormDto;
+import com.latelier.tenisu.dto.MatchResultDto;
+import com.latelier.tenisu.dto.PercentilesDto;
+import com.latelier.tenisu.dto.PlayerPageDto;
+import com.latelier.tenisu.dto.PlayerSearchCriteria;
+import com.latelier.tenisu.dto.PointsUpdateDto;
+import com.latelier.tenisu.dto.SerializedPlayersDto;
 import com.latelier.tenisu.dto.StatisticsDto;
+import com.latelier.tenisu.exception.IngestionQueueFullException;
 import com.latelier.tenisu.exception.PlayerNotFoundException;
 import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.FormCounter;
 import com.latelier.tenisu.model.Player;
 import com.latelier.tenisu.model.PlayerData;
+import com.latelier.tenisu.service.MatchIngestionPipeline;
 import com.latelier.tenisu.service.PlayerService;
+import com.latelier.tenisu.utils.PlayerFields;
+import com.latelier.tenisu.utils.PlayerFieldsWriter;
+import com.latelier.tenisu.utils.PlayersFormat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(SpringExtension.class)
 public class PlayerControllerTest {
@@ -35,45 +74,300 @@ public class PlayerControllerTest {
         @Mock
         private PlayerService playerService;
 
+        @Spy
+        private ObjectMapper objectMapper = new ObjectMapper();
+
+        @Spy
+        private PlayerFieldsWriter fieldsWriter = new PlayerFieldsWriter(new ObjectMapper());
+
+        @Mock
+        private MatchIngestionPipeline matchIngestion;
+
+        @Spy
+        private ServerProperties serverProperties = new ServerProperties();
+
         @InjectMocks
         private PlayerController playerController;
 
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
         private MockMvc mockMvc;
 
         @BeforeEach
         void setUp() {
                 this.mockMvc = MockMvcBuilders.standaloneSetup(playerController)
-                                .setControllerAdvice(new GlobalExceptionHandler())
+                                .setControllerAdvice(new GlobalExceptionHandler(meterRegistry))
                                 .build();
         }
 
         @Test
         void getAllPlayersSortedByRank_shouldReturnPlayers_whenPlayersExist() throws Exception {
                 // Given
-                Player player1 = buildPlayer("player101", "Raphael", "NADAL", 1);
-                Player player2 = buildPlayer("player12", "Jannik", "SINNER", 2);
-                List<Player> players = List.of(player1, player2);
-                when(playerService.getPlayersSortedByRankBestToWorst()).thenReturn(players);
+                SerializedPlayersDto players = serializedPlayers();
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.JSON)).thenReturn(players);
 
                 // When & Then
-                mockMvc.perform(get("/players/sorted-by-rank"))
+                mockMvc.perform(get("/players"))
                                 .andExpect(status().isOk())
-                                .andExpect(jsonPath("$[0].id", Matchers.is(101)))
-                                .andExpect(jsonPath("$[1].id", Matchers.is(12)));
+                                .andExpect(jsonPath("$[0].id", Matchers.is("player101")))
+                                .andExpect(jsonPath("$[0].lastname", Matchers.is("NADAL")))
+                                .andExpect(jsonPath("$[1].id", Matchers.is("player12")))
+                                .andExpect(jsonPath("$[1].lastname", Matchers.is("SINNER")));
         }
 
         @Test
         void getAllPlayersSortedByRank_shouldThrowNoContentException_whenPlayersExist() throws Exception {
                 // Given
-                when(playerService.getPlayersSortedByRankBestToWorst()).thenReturn(Collections.emptyList());
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.JSON)).thenReturn(
+                                new SerializedPlayersDto("[]".getBytes(), new byte[0], "empty", 0));
 
                 // When & Then
-                mockMvc.perform(get("/players/sorted-by-rank"))
+                mockMvc.perform(get("/players"))
                                 .andExpect(status().isNoContent())
                                 .andExpect(jsonPath("$.message", Matchers.is("No players found")))
                                 .andExpect(jsonPath("$.statusCode", Matchers.is(204)));
         }
 
+        @Test
+        void getAllPlayersSortedByRank_shouldReturnSerializedPlayersWithEtag() throws Exception {
+                // Given
+                SerializedPlayersDto players = serializedPlayers();
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.JSON)).thenReturn(players);
+
+                // When & Then
+                mockMvc.perform(get("/players"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""))
+                                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                                .andExpect(jsonPath("$[0].id", Matchers.is("player101")))
+                                .andExpect(jsonPath("$[1].id", Matchers.is("player12")));
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldReturnNotModified_whenEtagMatches() throws Exception {
+                // Given
+                SerializedPlayersDto players = serializedPlayers();
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.JSON)).thenReturn(players);
+
+                // When & Then
+                mockMvc.perform(get("/players").header(HttpHeaders.IF_NONE_MATCH, "\"abc123\""))
+                                .andExpect(status().isNotModified())
+                                .andExpect(content().bytes(new byte[0]));
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldReturnGzip_whenClientAcceptsIt() throws Exception {
+                // Given
+                SerializedPlayersDto players = serializedPlayers();
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.JSON)).thenReturn(players);
+                serverProperties.getCompression().setMinResponseSize(DataSize.ofBytes(players.body().length));
+
+                // When & Then
+                mockMvc.perform(get("/players").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"abc123-gzip\""))
+                                .andExpect(content().bytes(new byte[] { 1, 2, 3 }));
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldNotGzip_whenListIsBelowMinResponseSize() throws Exception {
+                // Given
+                SerializedPlayersDto players = serializedPlayers();
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.JSON)).thenReturn(players);
+                serverProperties.getCompression().setMinResponseSize(DataSize.ofBytes(players.body().length + 1));
+
+                // When & Then
+                mockMvc.perform(get("/players").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"abc123\""))
+                                .andExpect(content().bytes(players.body()));
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldNotGzip_whenClientRefusesIt() throws Exception {
+                // Given
+                SerializedPlayersDto players = serializedPlayers();
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.JSON)).thenReturn(players);
+                serverProperties.getCompression().setMinResponseSize(DataSize.ofBytes(0));
+
+                // When & Then
+                mockMvc.perform(get("/players").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *;q=0.5"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                                .andExpect(content().bytes(players.body()));
+                mockMvc.perform(get("/players").header(HttpHeaders.ACCEPT_ENCODING, "br, *;q=0.1"))
+                                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldReturnBinaryFormat_whenClientPrefersIt() throws Exception {
+                // Given
+                SerializedPlayersDto players = new SerializedPlayersDto(new byte[] { 58, 41, 10 }, new byte[0],
+                                "smile123", 2);
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.SMILE)).thenReturn(players);
+
+                // When & Then
+                mockMvc.perform(get("/players")
+                                .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/x-jackson-smile"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-jackson-smile"))
+                                .andExpect(header().string(HttpHeaders.ETAG, "\"smile123\""))
+                                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+                                .andExpect(content().bytes(new byte[] { 58, 41, 10 }));
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldThrowNoContentException_whenListIsEmpty() throws Exception {
+                // Given
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.JSON))
+                                .thenReturn(new SerializedPlayersDto("[]".getBytes(), new byte[0], "empty", 0));
+
+                // When & Then
+                mockMvc.perform(get("/players"))
+                                .andExpect(status().isNoContent())
+                                .andExpect(jsonPath("$.message", Matchers.is("No players found")));
+        }
+
+        @Test
+        void getPlayersPageSortedByRank_shouldReturnPageAndNextCursor() throws Exception {
+                // Given
+                Player player1 = buildPlayer("player101", "Raphael", "NADAL", 1);
+                Player player2 = buildPlayer("player12", "Jannik", "SINNER", 2);
+                when(playerService.getPlayersPageSortedByRank("1:player100", 2))
+                                .thenReturn(new PlayerPageDto(List.of(player1, player2), "2:player12"));
+
+                // When & Then
+                mockMvc.perform(get("/players").param("after", "1:player100").param("limit", "2"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.players[0].id", Matchers.is("player101")))
+                                .andExpect(jsonPath("$.players[1].id", Matchers.is("player12")))
+                                .andExpect(jsonPath("$.next", Matchers.is("2:player12")));
+        }
+
+        @Test
+        void getPlayersPageSortedByRank_shouldThrowNoContentException_whenFirstPageIsEmpty() throws Exception {
+                // Given
+                when(playerService.getPlayersPageSortedByRank(null, 10))
+                                .thenReturn(new PlayerPageDto(Collections.emptyList(), null));
+
+                // When & Then
+                mockMvc.perform(get("/players").param("limit", "10"))
+                                .andExpect(status().isNoContent())
+                                .andExpect(jsonPath("$.statusCode", Matchers.is(204)));
+        }
+
+        @Test
+        void getPlayersPageSortedByRank_shouldReturnBadRequest_whenLimitIsInvalid() throws Exception {
+                // Given
+                when(playerService.getPlayersPageSortedByRank(null, 0))
+                                .thenThrow(new IllegalArgumentException("Limit must be between 1 and 1000"));
+
+                // When & Then
+                mockMvc.perform(get("/players").param("limit", "0"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message", Matchers.is("Limit must be between 1 and 1000")));
+        }
+
+        @Test
+        void streamAllPlayersSortedByRank_shouldWriteOnePlayerPerLine() throws Exception {
+                // Given
+                Player player1 = buildPlayer("player101", "Raphael", "NADAL", 1);
+                Player player2 = buildPlayer("player12", "Jannik", "SINNER", 2);
+                when(playerService.streamPlayersSortedByRankBestToWorst()).thenReturn(Stream.of(player1, player2));
+
+                // When
+                MvcResult result = mockMvc.perform(get("/players").accept(MediaType.APPLICATION_NDJSON))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                // Then
+                String body = mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                                .andReturn().getResponse().getContentAsString();
+                String[] lines = body.split("\n");
+                Assertions.assertThat(lines).hasSize(2);
+                Assertions.assertThat(objectMapper.readValue(lines[0], Player.class).getId()).isEqualTo("player101");
+                Assertions.assertThat(objectMapper.readValue(lines[1], Player.class).getId()).isEqualTo("player12");
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldOnlyWriteRequestedFields_whenFieldsAreGiven() throws Exception {
+                // Given
+                Player player1 = buildPlayer("player101", "Raphael", "NADAL", 1);
+                Player player2 = buildPlayer("player12", "Jannik", "SINNER", 2);
+                when(playerService.streamPlayersSortedByRankBestToWorst(any(PlayerFields.class)))
+                                .thenReturn(Stream.of(player1, player2));
+
+                // When & Then
+                mockMvc.perform(get("/players").param("fields", "id,data.rank"))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                                .andExpect(jsonPath("$[0].id", Matchers.is("player101")))
+                                .andExpect(jsonPath("$[0].data.rank", Matchers.is(1)))
+                                .andExpect(jsonPath("$[0].firstname").doesNotExist())
+                                .andExpect(jsonPath("$[0].data.points").doesNotExist())
+                                .andExpect(jsonPath("$[1].id", Matchers.is("player12")));
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldWriteForm_whenFormFieldIsGiven() throws Exception {
+                // Given
+                Player player = buildPlayer("player101", "Raphael", "NADAL", 1);
+                player.getData().setForm(Map.of("5", new FormCounter(4, 5)));
+                when(playerService.streamPlayersSortedByRankBestToWorst(any(PlayerFields.class)))
+                                .thenReturn(Stream.of(player));
+
+                // When & Then
+                mockMvc.perform(get("/players").param("fields", "id,data.form"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].data.form.5.wins", Matchers.is(4)))
+                                .andExpect(jsonPath("$[0].data.form.5.games", Matchers.is(5)))
+                                .andExpect(jsonPath("$[0].data.rank").doesNotExist());
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldReturnBadRequest_whenFieldIsUnknown() throws Exception {
+                // When & Then
+                mockMvc.perform(get("/players").param("fields", "id,password"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message", Matchers.startsWith("Unknown field: password")));
+        }
+
+        @Test
+        void searchPlayers_shouldBindFiltersFromQueryParameters() throws Exception {
+                // Given
+                PlayerSearchCriteria criteria = new PlayerSearchCriteria("F", "USA", 1, 10, null, null, null, null,
+                                "Wil");
+                when(playerService.searchPlayers(criteria, 5))
+                                .thenReturn(List.of(buildPlayer("player10", "Serena", "WILLIAMS", 3)));
+
+                // When & Then
+                mockMvc.perform(get("/players/search")
+                                .param("sex", "F")
+                                .param("country", "USA")
+                                .param("minRank", "1")
+                                .param("maxRank", "10")
+                                .param("name", "Wil")
+                                .param("limit", "5"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].id", Matchers.is("player10")));
+        }
+
+        @Test
+        void searchPlayers_shouldReturnBadRequest_whenSearchWouldScanAllPlayers() throws Exception {
+                // Given
+                when(playerService.searchPlayers(any(PlayerSearchCriteria.class), any(Integer.class)))
+                                .thenThrow(new IllegalArgumentException("Filters on [data.age] would scan all players"));
+
+                // When & Then
+                mockMvc.perform(get("/players/search").param("minAge", "30"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message", Matchers.is("Filters on [data.age] would scan all players")));
+        }
+
         @Test
         void getPlayerById_shouldReturnPlayer_whenPlayerExists() throws Exception {
                 // Given
@@ -84,7 +378,7 @@ public class PlayerControllerTest {
                 // When & Then
                 mockMvc.perform(get("/players/{id}", playerId))
                                 .andExpect(status().isOk())
-                                .andExpect(jsonPath("$.id", Matchers.is(10)))
+                                .andExpect(jsonPath("$.id", Matchers.is(playerId)))
                                 .andExpect(jsonPath("$.firstname", Matchers.is("Serena")))
                                 .andExpect(jsonPath("$.lastname", Matchers.is("WILLIAMS")));
         }
@@ -104,23 +398,26 @@ public class PlayerControllerTest {
         }
 
         @Test
-        void getPlayerStatistics_shouldReturnStatistics_whenPlayersExist() throws Exception {
+        void getPlayerById_shouldCountError_whenPlayerDoesNotExist() throws Exception {
                 // Given
-                Player player1 = buildPlayer("player101", "Raphael", "NADAL", 1);
-                player1.setCountry(new Country("picture-spain", "ES"));
-                player1.getData().setLast(new int[] { 1, 1, 1, 0 }); // 3 wins, 1 loss
-                player1.getData().setHeight(180); // Height in cm
-                player1.getData().setWeight(70); // Weight in kg
+                when(playerService.getPlayerById("player99")).thenThrow(
+                                new PlayerNotFoundException("Player not found with id: player99"));
+
+                // When
+                mockMvc.perform(get("/players/{id}", "player99"))
+                                .andExpect(status().isNotFound());
+
+                // Then
+                Assertions.assertThat(meterRegistry.get("tenisu.errors")
+                                .tag("exception", "PlayerNotFoundException")
+                                .tag("status", "404")
+                                .counter().count()).isEqualTo(1.0);
+        }
 
-                Player player2 = buildPlayer("player12", "Jannik", "SINNER", 2);
-                player2.setCountry(new Country("picture-france", "FR"));
-                player2.getData().setLast(new int[] { 1, 1, 0 }); // 2 wins, 1 loss
-                player2.getData().setHeight(170); // Height in cm
-                player2.getData().setWeight(65); // Weight in kg
-
-                List<Player> players = List.of(player1, player2);
-                when(playerService.getPlayersSortedByRankBestToWorst()).thenReturn(players);
-                when(playerService.buildStatistics(players)).thenReturn(
+        @Test
+        void getPlayerStatistics_shouldReturnStatistics_whenPlayersExist() throws Exception {
+                // Given
+                when(playerService.getStatistics()).thenReturn(
                                 new StatisticsDto(
                                                 new Country("picture-spain", "ES"),
                                                 22.37,
@@ -138,8 +435,7 @@ public class PlayerControllerTest {
         @Test
         void getPlayerStatistics_shouldReturnDefaultStatistics_whenNoPlayersExist() throws Exception {
                 // Given
-                when(playerService.getPlayersSortedByRankBestToWorst()).thenReturn(Collections.emptyList());
-                when(playerService.buildStatistics(Collections.emptyList())).thenReturn(
+                when(playerService.getStatistics()).thenReturn(
                                 new StatisticsDto(
                                                 new Country("Unknown", "XX"),
                                                 0.0,
@@ -149,17 +445,7 @@ public class PlayerControllerTest {
         @Test
         void getPlayerStatistics_shouldReturnDefaultStatistics_whenPlayersExistWithNoData() throws Exception {
                 // Given
-                Player player1 = buildPlayer("player101", "Raphael", "NADAL", 1);
-                player1.setCountry(new Country("picture-spain", "ES"));
-                player1.setData(new PlayerData()); // No data set
-
-                Player player2 = buildPlayer("player12", "Jannik", "SINNER", 2);
-                player2.setCountry(new Country("picture-france", "FR"));
-                player2.setData(new PlayerData()); // No data set
-
-                List<Player> players = List.of(player1, player2);
-                when(playerService.getPlayersSortedByRankBestToWorst()).thenReturn(players);
-                when(playerService.buildStatistics(players)).thenReturn(
+                when(playerService.getStatistics()).thenReturn(
                                 new StatisticsDto(
                                                 new Country("Unknown", "XX"),
                                                 0.0,
@@ -172,6 +458,155 @@ public class PlayerControllerTest {
                                 .andExpect(jsonPath("$.medianHeight", Matchers.is(0.0)));
         }
 
+        @Test
+        void getCountryLeaderboard_shouldReturnBestCountriesFirst() throws Exception {
+                // Given
+                when(playerService.getCountryLeaderboard(2)).thenReturn(List.of(
+                                new CountryWinRatioDto(new Country("picture-spain", "ES"), 3, 4, 0.75),
+                                new CountryWinRatioDto(new Country("picture-france", "FR"), 1, 2, 0.5)));
+
+                // When & Then
+                mockMvc.perform(get("/players/statistics/countries").param("top", "2"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()", Matchers.is(2)))
+                                .andExpect(jsonPath("$[0].country.code", Matchers.is("ES")))
+                                .andExpect(jsonPath("$[0].wins", Matchers.is(3)))
+                                .andExpect(jsonPath("$[0].games", Matchers.is(4)))
+                                .andExpect(jsonPath("$[1].ratio", Matchers.is(0.5)));
+        }
+
+        @Test
+        void getCountryLeaderboard_shouldReturnNoContent_whenNoCountries() throws Exception {
+                // Given
+                when(playerService.getCountryLeaderboard(10)).thenReturn(List.of());
+
+                // When & Then
+                mockMvc.perform(get("/players/statistics/countries"))
+                                .andExpect(status().isNoContent());
+        }
+
+        @Test
+        void getPlayerForm_shouldReturnEachWindow() throws Exception {
+                // Given
+                when(playerService.getForm("1")).thenReturn(List.of(new FormDto(5, 4, 1, 0.8),
+                                new FormDto(10, 7, 3, 0.7)));
+
+                // When & Then
+                mockMvc.perform(get("/players/1/form"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()", Matchers.is(2)))
+                                .andExpect(jsonPath("$[0].window", Matchers.is(5)))
+                                .andExpect(jsonPath("$[0].losses", Matchers.is(1)))
+                                .andExpect(jsonPath("$[1].ratio", Matchers.is(0.7)));
+        }
+
+        @Test
+        void getHottestPlayers_shouldReturnBadRequest_whenWindowIsNotConfigured() throws Exception {
+                // Given
+                when(playerService.getHottestPlayers(7, 10)).thenThrow(
+                                new IllegalArgumentException("Unknown form window: 7, expected one of [5, 10, 52]"));
+
+                // When & Then
+                mockMvc.perform(get("/players/hottest").param("window", "7"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message",
+                                                Matchers.is("Unknown form window: 7, expected one of [5, 10, 52]")));
+        }
+
+        @Test
+        void getPlayerPercentiles_shouldReturnPercentilesInRequestOrder() throws Exception {
+                // Given
+                Map<String, Double> values = new LinkedHashMap<>();
+                values.put("50", 185.0);
+                values.put("99", 196.5);
+                when(playerService.getPercentiles("height", "50,99"))
+                                .thenReturn(new PercentilesDto("height", 5, values));
+
+                // When & Then
+                mockMvc.perform(get("/players/statistics/percentiles").param("field", "height").param("p", "50,99"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.field", Matchers.is("height")))
+                                .andExpect(jsonPath("$.count", Matchers.is(5)))
+                                .andExpect(jsonPath("$.percentiles.50", Matchers.is(185.0)))
+                                .andExpect(jsonPath("$.percentiles.99", Matchers.is(196.5)));
+        }
+
+        @Test
+        void getPlayerPercentiles_shouldReturnNoContent_whenNoPlayersExist() throws Exception {
+                // Given
+                when(playerService.getPercentiles("age", "50")).thenReturn(new PercentilesDto("age", 0, Map.of()));
+
+                // When & Then
+                mockMvc.perform(get("/players/statistics/percentiles").param("field", "age"))
+                                .andExpect(status().isNoContent());
+        }
+
+        @Test
+        void getPlayerPercentiles_shouldReturnBadRequest_whenFieldIsUnknown() throws Exception {
+                // Given
+                when(playerService.getPercentiles("shoe", "50"))
+                                .thenThrow(new IllegalArgumentException("Unknown field: shoe"));
+
+                // When & Then
+                mockMvc.perform(get("/players/statistics/percentiles").param("field", "shoe"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message", Matchers.is("Unknown field: shoe")));
+        }
+
+        @Test
+        void updatePoints_shouldReturnPlayerWithNewRank() throws Exception {
+                // Given
+                Player player = buildPlayer("player10", "Serena", "WILLIAMS", 1);
+                player.getData().setPoints(4200);
+                when(playerService.updatePoints("player10", new PointsUpdateDto(4200))).thenReturn(player);
+
+                // When & Then
+                mockMvc.perform(patch("/players/{id}/points", "player10")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"points\":4200}"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.data.rank", Matchers.is(1)))
+                                .andExpect(jsonPath("$.data.points", Matchers.is(4200)));
+        }
+
+        @Test
+        void recordMatch_shouldReturnNotFound_whenPlayerDoesNotExist() throws Exception {
+                // Given
+                when(playerService.recordMatch(new MatchResultDto("player10", "player99", 90, 0))).thenThrow(
+                                new PlayerNotFoundException("Player not found with id: player99"));
+
+                // When & Then
+                mockMvc.perform(post("/players/matches")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"winner\":\"player10\",\"loser\":\"player99\",\"winnerPoints\":90}"))
+                                .andExpect(status().isNotFound())
+                                .andExpect(jsonPath("$.message", Matchers.is("Player not found with id: player99")));
+        }
+
+        @Test
+        void ingestMatches_shouldReturnAccepted_whenMatchesAreQueued() throws Exception {
+                // When & Then
+                mockMvc.perform(post("/players/matches/ingest")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[{\"winner\":\"player10\",\"loser\":\"player12\",\"winnerPoints\":90}]"))
+                                .andExpect(status().isAccepted());
+                verify(matchIngestion).offer(List.of(new MatchResultDto("player10", "player12", 90, 0)));
+        }
+
+        @Test
+        void ingestMatches_shouldReturnTooManyRequests_whenQueueIsFull() throws Exception {
+                // Given
+                doThrow(new IngestionQueueFullException("Match ingestion queue is full: 10 matches pending, retry later"))
+                                .when(matchIngestion).offer(any());
+
+                // When & Then
+                mockMvc.perform(post("/players/matches/ingest")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[{\"winner\":\"player10\",\"loser\":\"player12\"}]"))
+                                .andExpect(status().isTooManyRequests())
+                                .andExpect(jsonPath("$.statusCode", Matchers.is(429)));
+        }
+
         @Test
         void addNewPlayer_shouldReturnCreatedPlayer_whenValidDtoIsProvided() throws Exception {
                 // Given
@@ -203,12 +638,93 @@ public class PlayerControllerTest {
                                 .contentType("application/json")
                                 .content(new ObjectMapper().writeValueAsString(dto)))
                                 .andExpect(status().isCreated())
-                                .andExpect(jsonPath("$.id", Matchers.is(1)))
+                                .andExpect(jsonPath("$.id", Matchers.is("1L")))
                                 .andExpect(jsonPath("$.firstname", Matchers.is("Roger")))
                                 .andExpect(jsonPath("$.lastname", Matchers.is("Federer")))
                                 .andExpect(jsonPath("$.shortname", Matchers.is("RF")));
         }
 
+        @Test
+        void addNewPlayers_shouldReturnBatchResult_whenJsonArrayIsProvided() throws Exception {
+                // Given
+                BatchResultDto result = new BatchResultDto(1, 1, List.of(
+                                new BatchItemResultDto(0, BatchItemStatus.CREATED, "id1", null),
+                                new BatchItemResultDto(1, BatchItemStatus.DUPLICATE, null, "exists")));
+                when(playerService.savePlayers(any())).thenReturn(result);
+
+                // When & Then
+                mockMvc.perform(post("/players/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[{\"firstname\":\"Roger\",\"lastname\":\"Federer\"},"
+                                                + "{\"firstname\":\"Roger\",\"lastname\":\"Federer\"}]"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.created", Matchers.is(1)))
+                                .andExpect(jsonPath("$.items[0].status", Matchers.is("CREATED")))
+                                .andExpect(jsonPath("$.items[1].status", Matchers.is("DUPLICATE")));
+        }
+
+        @Test
+        void addNewPlayersFromNdjson_shouldReadOnePlayerPerLine() throws Exception {
+                // Given
+                List<String> firstnames = new ArrayList<>();
+                when(playerService.savePlayers(any())).thenAnswer(invocation -> {
+                        Iterator<CreatePlayerDto> dtos = invocation.getArgument(0);
+                        dtos.forEachRemaining(dto -> firstnames.add(dto.getFirstname()));
+                        return new BatchResultDto(firstnames.size(), 0, List.of());
+                });
+
+                // When & Then
+                mockMvc.perform(post("/players/batch")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content("{\"firstname\":\"Roger\",\"lastname\":\"Federer\"}\n"
+                                                + "{\"firstname\":\"Rafael\",\"lastname\":\"Nadal\"}\n"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.created", Matchers.is(2)));
+                Assertions.assertThat(firstnames).containsExactly("Roger", "Rafael");
+        }
+
+        @Test
+        void addNewPlayersFromNdjson_shouldRejectMalformedLineAndReadTheNextOnes() throws Exception {
+                // Given
+                List<String> firstnames = new ArrayList<>();
+                when(playerService.savePlayers(any())).thenAnswer(invocation -> {
+                        Iterator<CreatePlayerDto> dtos = invocation.getArgument(0);
+                        List<BatchItemResultDto> items = new ArrayList<>();
+                        dtos.forEachRemaining(dto -> {
+                                firstnames.add(dto.getFirstname());
+                                items.add(dto.getFirstname() == null
+                                                ? new BatchItemResultDto(items.size(), BatchItemStatus.INVALID, null,
+                                                                "Player data cannot be null or empty")
+                                                : new BatchItemResultDto(items.size(), BatchItemStatus.CREATED,
+                                                                "id" + items.size(), null));
+                        });
+                        return new BatchResultDto(2, 1, items);
+                });
+
+                // When & Then
+                mockMvc.perform(post("/players/batch")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .content("{\"firstname\":\"Roger\",\"lastname\":\"Federer\"}\n"
+                                                + "{\"firstname\":\"Andy\",\n"
+                                                + "\n"
+                                                + "{\"firstname\":\"Rafael\",\"lastname\":\"Nadal\"}\n"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.created", Matchers.is(2)))
+                                .andExpect(jsonPath("$.items[1].status", Matchers.is("INVALID")))
+                                .andExpect(jsonPath("$.items[1].message",
+                                                Matchers.startsWith("Invalid NDJSON player: ")))
+                                .andExpect(jsonPath("$.items[2].status", Matchers.is("CREATED")));
+                Assertions.assertThat(firstnames).containsExactly("Roger", null, "Rafael");
+        }
+
+        private SerializedPlayersDto serializedPlayers() throws Exception {
+                List<Player> players = List.of(
+                                buildPlayer("player101", "Raphael", "NADAL", 1),
+                                buildPlayer("player12", "Jannik", "SINNER", 2));
+                return new SerializedPlayersDto(objectMapper.writeValueAsBytes(players), new byte[] { 1, 2, 3 },
+                                "abc123", players.size());
+        }
+
         private Player buildPlayer(String id, String firstname, String lastname, int rank) {
                 Player player = new Player();
                 player.setId(id);
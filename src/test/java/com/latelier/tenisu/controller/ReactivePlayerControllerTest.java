@@ -0,0 +1,314 @@
+package com.latelier.tenisu.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.latelier.tenisu.controller.handler.GlobalExceptionHandler;
+import com.latelier.tenisu.dto.BatchItemResultDto;
+import com.latelier.tenisu.dto.BatchItemStatus;
+import com.latelier.tenisu.dto.BatchResultDto;
+import com.latelier.tenisu.dto.CreatePlayerDto;
+import com.latelier.tenisu.dto.RankingDeltaDto;
+import com.latelier.tenisu.dto.SerializedPlayersDto;
+import com.latelier.tenisu.dto.StatisticsDto;
+import com.latelier.tenisu.exception.ExistingPlayerException;
+import com.latelier.tenisu.exception.PlayerNotFoundException;
+import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
+import com.latelier.tenisu.service.ReactivePlayerService;
+import com.latelier.tenisu.utils.PlayerFields;
+import com.latelier.tenisu.utils.PlayerFieldsWriter;
+import com.latelier.tenisu.utils.PlayersFormat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePlayerControllerTest {
+
+        @Mock
+        private ReactivePlayerService playerService;
+
+        @Spy
+        private ObjectMapper objectMapper = new ObjectMapper();
+
+        @Spy
+        private PlayerFieldsWriter fieldsWriter = new PlayerFieldsWriter(new ObjectMapper());
+
+        @Spy
+        private ServerProperties serverProperties = new ServerProperties();
+
+        @InjectMocks
+        private ReactivePlayerController playerController;
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        private WebTestClient webTestClient;
+
+        @BeforeEach
+        void setUp() {
+                this.webTestClient = WebTestClient.bindToController(playerController)
+                                .controllerAdvice(new GlobalExceptionHandler(meterRegistry))
+                                .build();
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldReturnCachedJsonWithEtag_whenPlayersExist() throws Exception {
+                // Given
+                SerializedPlayersDto players = serializedPlayers();
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.JSON)).thenReturn(Mono.just(players));
+
+                // When & Then
+                webTestClient.get().uri("/players").accept(MediaType.APPLICATION_JSON)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"abc123\"")
+                                .expectBody()
+                                .jsonPath("$.length()").isEqualTo(2)
+                                .jsonPath("$[0].id").isEqualTo("player101")
+                                .jsonPath("$[1].lastname").isEqualTo("SINNER");
+        }
+
+        @Test
+        void streamRanking_shouldSendServerSentEvents() {
+                // Given
+                when(playerService.subscribeToRanking()).thenReturn(Flux.just(
+                                ServerSentEvent.<Object>builder("[]").event("snapshot").build(),
+                                ServerSentEvent.<Object>builder(new RankingDeltaDto("player101", 2, 1850))
+                                                .event("updated").build()));
+
+                // When & Then
+                String body = webTestClient.get().uri("/players/stream").accept(MediaType.TEXT_EVENT_STREAM)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                                .expectBody(String.class)
+                                .returnResult().getResponseBody();
+                assertThat(body).contains("event:snapshot\ndata:[]\n")
+                                .contains("event:updated\ndata:{\"id\":\"player101\",\"rank\":2,\"points\":1850}\n");
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldReturnNotModified_whenEtagMatches() throws Exception {
+                // Given
+                SerializedPlayersDto players = serializedPlayers();
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.JSON)).thenReturn(Mono.just(players));
+
+                // When & Then
+                webTestClient.get().uri("/players").accept(MediaType.APPLICATION_JSON)
+                                .header(HttpHeaders.IF_NONE_MATCH, "\"abc123\"")
+                                .exchange()
+                                .expectStatus().isNotModified()
+                                .expectBody().isEmpty();
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldReturnGzip_whenClientAcceptsIt() throws Exception {
+                // Given
+                SerializedPlayersDto players = serializedPlayers();
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.JSON)).thenReturn(Mono.just(players));
+                serverProperties.getCompression().setMinResponseSize(DataSize.ofBytes(players.body().length));
+
+                // When & Then
+                webTestClient.get().uri("/players").accept(MediaType.APPLICATION_JSON)
+                                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"abc123-gzip\"")
+                                .expectBody(byte[].class).isEqualTo(new byte[] { 1, 2, 3 });
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldReturnNoContent_whenNoPlayers() {
+                // Given
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.JSON)).thenReturn(
+                                Mono.just(new SerializedPlayersDto("[]".getBytes(), new byte[0], "empty", 0)));
+
+                // When & Then
+                webTestClient.get().uri("/players").accept(MediaType.APPLICATION_JSON)
+                                .exchange()
+                                .expectStatus().isNoContent();
+        }
+
+        @Test
+        void getAllPlayersSortedByRank_shouldReturnCachedCbor_whenClientAcceptsCbor() {
+                // Given
+                when(playerService.getSerializedPlayersSortedByRank(PlayersFormat.CBOR)).thenReturn(Mono.just(
+                                new SerializedPlayersDto(new byte[] { -97, -1 }, new byte[0], "cbor123", 2)));
+
+                // When & Then
+                webTestClient.get().uri("/players").accept(MediaType.APPLICATION_CBOR)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"cbor123\"")
+                                .expectBody(byte[].class).isEqualTo(new byte[] { -97, -1 });
+        }
+
+        @Test
+        void streamAllPlayersSortedByRank_shouldWriteOnePlayerPerLine() {
+                // Given
+                when(playerService.getPlayersSortedByRankBestToWorst()).thenReturn(Flux.just(
+                                buildPlayer("player101", "Raphael", "NADAL", 1),
+                                buildPlayer("player12", "Jannik", "SINNER", 2)));
+
+                // When
+                List<String> ids = webTestClient.get().uri("/players").accept(MediaType.APPLICATION_NDJSON)
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                                .returnResult(Player.class)
+                                .getResponseBody()
+                                .map(Player::getId)
+                                .collectList()
+                                .block();
+
+                // Then
+                assertThat(ids).containsExactly("player101", "player12");
+        }
+
+        @Test
+        void addNewPlayersFromNdjson_shouldRejectMalformedLineAndReadTheNextOnes() {
+                // Given
+                List<String> firstnames = new ArrayList<>();
+                when(playerService.savePlayers(any())).thenAnswer(invocation -> {
+                        Flux<CreatePlayerDto> dtos = invocation.getArgument(0);
+                        return dtos.index().map(dto -> {
+                                firstnames.add(dto.getT2().getFirstname());
+                                int index = dto.getT1().intValue();
+                                return dto.getT2().getFirstname() == null
+                                                ? new BatchItemResultDto(index, BatchItemStatus.INVALID, null,
+                                                                "Player data cannot be null or empty")
+                                                : new BatchItemResultDto(index, BatchItemStatus.CREATED, "id" + index,
+                                                                null);
+                        }).collectList().map(items -> new BatchResultDto(2, 1, items));
+                });
+
+                // When & Then
+                webTestClient.post().uri("/players/batch")
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .bodyValue("{\"firstname\":\"Roger\",\"lastname\":\"Federer\"}\n"
+                                                + "{\"firstname\":\"Andy\",\n"
+                                                + "\n"
+                                                + "{\"firstname\":\"Rafael\",\"lastname\":\"Nadal\"}\n")
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody()
+                                .jsonPath("$.created").isEqualTo(2)
+                                .jsonPath("$.items[1].status").isEqualTo("INVALID")
+                                .jsonPath("$.items[1].message").value(message -> assertThat((String) message)
+                                                .startsWith("Invalid NDJSON player: "))
+                                .jsonPath("$.items[2].status").isEqualTo("CREATED");
+                assertThat(firstnames).containsExactly("Roger", null, "Rafael");
+        }
+
+        @Test
+        void getPlayerById_shouldReturnErrorMessage_whenPlayerDoesNotExist() {
+                // Given
+                when(playerService.getPlayerById("unknown"))
+                                .thenReturn(Mono.error(new PlayerNotFoundException("Player not found with id: unknown")));
+
+                // When & Then
+                webTestClient.get().uri("/players/{id}", "unknown")
+                                .exchange()
+                                .expectStatus().isNotFound()
+                                .expectBody()
+                                .jsonPath("$.message").isEqualTo("Player not found with id: unknown")
+                                .jsonPath("$.statusCode").isEqualTo(404);
+        }
+
+        @Test
+        void getPlayerById_shouldOnlyWriteRequestedFields_whenFieldsAreGiven() {
+                // Given
+                Player player = buildPlayer("player101", "Raphael", "NADAL", 1);
+                player.setCountry(new Country("pic", "ESP"));
+                when(playerService.getPlayerById(eq("player101"), any(PlayerFields.class)))
+                                .thenReturn(Mono.just(player));
+
+                // When & Then
+                webTestClient.get().uri("/players/{id}?fields={fields}", "player101", "lastname,country.code")
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody()
+                                .jsonPath("$.lastname").isEqualTo("NADAL")
+                                .jsonPath("$.country.code").isEqualTo("ESP")
+                                .jsonPath("$.country.picture").doesNotExist()
+                                .jsonPath("$.id").doesNotExist()
+                                .jsonPath("$.data").doesNotExist();
+        }
+
+        @Test
+        void getPlayerStatistics_shouldReturnStatistics() {
+                // Given
+                when(playerService.getStatistics())
+                                .thenReturn(Mono.just(new StatisticsDto(new Country("pic", "SRB"), 23.36, 185.0)));
+
+                // When & Then
+                webTestClient.get().uri("/players/statistics")
+                                .exchange()
+                                .expectStatus().isOk()
+                                .expectBody()
+                                .jsonPath("$.country.code").isEqualTo("SRB")
+                                .jsonPath("$.medianHeight").isEqualTo(185.0);
+        }
+
+        @Test
+        void addNewPlayer_shouldReturnConflict_whenPlayerAlreadyExists() {
+                // Given
+                when(playerService.savePlayer(any())).thenReturn(Mono.error(
+                                new ExistingPlayerException("Player with the same firstname and lastname already exists")));
+
+                // When & Then
+                webTestClient.post().uri("/players")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue("{\"firstname\":\"Rafael\",\"lastname\":\"Nadal\"}")
+                                .exchange()
+                                .expectStatus().isEqualTo(409)
+                                .expectBody()
+                                .jsonPath("$.statusCode").isEqualTo(409);
+        }
+
+        private SerializedPlayersDto serializedPlayers() throws Exception {
+                List<Player> players = List.of(
+                                buildPlayer("player101", "Raphael", "NADAL", 1),
+                                buildPlayer("player12", "Jannik", "SINNER", 2));
+                return new SerializedPlayersDto(objectMapper.writeValueAsBytes(players), new byte[] { 1, 2, 3 },
+                                "abc123", players.size());
+        }
+
+        private Player buildPlayer(String id, String firstname, String lastname, int rank) {
+                Player player = new Player();
+                player.setId(id);
+                player.setFirstname(firstname);
+                player.setLastname(lastname);
+
+                PlayerData data = new PlayerData();
+                data.setRank(rank);
+                player.setData(data);
+
+                return player;
+        }
+}
@@ -0,0 +1,89 @@
+package com.latelier.tenisu.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mapping.callback.EntityCallbacks;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+import com.latelier.tenisu.config.MatchProperties;
+import com.latelier.tenisu.model.FormCounter;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+class PlayerFormInitializerTest {
+
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+
+    private final MatchProperties matchProperties = new MatchProperties(3, List.of(2, 5));
+
+    private PlayerFormInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        mongoClient = MongoClients.create(mongoServer.bindAndGetConnectionString());
+        mongoTemplate = new MongoTemplate(mongoClient, "tenisu_test");
+        initializer = new PlayerFormInitializer(mongoTemplate, matchProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoClient.close();
+        mongoServer.shutdown();
+    }
+
+    @Test
+    void initialize_shouldFillMissingFormAndCreateWindowIndexes() {
+        // Given
+        mongoTemplate.insert(new Document("_id", "p1").append("data",
+                new Document("rank", 1).append("last", List.of(1, 0, 1))), "players");
+        mongoTemplate.insert(new Document("_id", "p2").append("data", new Document("rank", 2)), "players");
+
+        // When
+        long filled = initializer.initialize();
+
+        // Then
+        assertThat(filled).isEqualTo(2);
+        assertThat(mongoTemplate.findById("p1", Player.class).getData().getForm()).containsExactly(
+                Map.entry("2", new FormCounter(1, 2)), Map.entry("5", new FormCounter(2, 3)));
+        assertThat(mongoTemplate.findById("p2", Player.class).getData().getForm()).containsExactly(
+                Map.entry("2", new FormCounter(0, 0)), Map.entry("5", new FormCounter(0, 0)));
+        assertThat(mongoTemplate.indexOps(Player.class).getIndexInfo()).extracting(IndexInfo::getName)
+                .contains("form_2_idx", "form_5_idx");
+        assertThat(initializer.initialize()).isZero();
+    }
+
+    @Test
+    void callback_shouldCountFormOfSavedPlayer_whateverWasSent() {
+        // Given
+        mongoTemplate.setEntityCallbacks(EntityCallbacks.create(new PlayerFormCallback(matchProperties)));
+        PlayerData data = new PlayerData();
+        data.setLast(new int[] { 1, 1, 0 });
+        data.setForm(Map.of("2", new FormCounter(2, 2)));
+        Player player = new Player();
+        player.setId("p1");
+        player.setData(data);
+
+        // When
+        mongoTemplate.save(player);
+
+        // Then
+        assertThat(mongoTemplate.findById("p1", Player.class).getData().getForm()).containsExactly(
+                Map.entry("2", new FormCounter(1, 2)), Map.entry("5", new FormCounter(2, 3)));
+    }
+}
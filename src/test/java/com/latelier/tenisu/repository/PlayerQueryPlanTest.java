@@ -0,0 +1,93 @@
+package com.latelier.tenisu.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.latelier.tenisu.model.Player;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Checks the query plans of the players queries against a real MongoDB, the
+ * in-memory stand-in used by the other tests does not implement explain.
+ *
+ * Run with {@code TENISU_TEST_MONGODB_URI=mongodb://localhost:27017}.
+ */
+@EnabledIfEnvironmentVariable(named = "TENISU_TEST_MONGODB_URI", matches = ".+")
+class PlayerQueryPlanTest {
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        mongoClient = MongoClients.create(System.getenv("TENISU_TEST_MONGODB_URI"));
+        mongoTemplate = new MongoTemplate(mongoClient, "tenisu_query_plan_test");
+        mongoTemplate.dropCollection(Player.class);
+        mongoTemplate.createCollection(Player.class);
+        new PlayerIndexManager(mongoTemplate).ensureIndexes();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.getDb().drop();
+        mongoClient.close();
+    }
+
+    @Test
+    void findAllSortedByRank_shouldUseRankIndex() {
+        String plan = explain(new Document(), new Document("data.rank", 1).append("_id", 1));
+
+        assertThat(plan).contains("IXSCAN", "rank_idx").doesNotContain("COLLSCAN", "\"SORT\"");
+    }
+
+    @Test
+    void findByFirstnameAndLastname_shouldUseUniqueIndex() {
+        String plan = explain(new Document("firstname", "Roger").append("lastname", "Federer"), new Document());
+
+        assertThat(plan).contains("IXSCAN", "firstname_lastname_idx").doesNotContain("COLLSCAN");
+    }
+
+    @Test
+    void findByCountryCode_shouldUseCountryIndex() {
+        String plan = explain(new Document("country.code", "SUI"), new Document());
+
+        assertThat(plan).contains("IXSCAN", "country_rank_idx").doesNotContain("COLLSCAN");
+    }
+
+    @Test
+    void searchByCountrySortedByRank_shouldUseCountryIndexWithoutSort() {
+        String plan = explain(new Document("country.code", "SUI").append("data.points", new Document("$gte", 1000)),
+                new Document("data.rank", 1).append("_id", 1));
+
+        assertThat(plan).contains("IXSCAN", "country_rank_idx").doesNotContain("COLLSCAN", "\"SORT\"");
+    }
+
+    @Test
+    void searchBySexSortedByRank_shouldUseSexIndexWithoutSort() {
+        String plan = explain(new Document("sex", "F"), new Document("data.rank", 1).append("_id", 1));
+
+        assertThat(plan).contains("IXSCAN", "sex_rank_idx").doesNotContain("COLLSCAN", "\"SORT\"");
+    }
+
+    @Test
+    void searchByLastnamePrefix_shouldUseLastnameIndex() {
+        String plan = explain(new Document("lastname", new Document("$regex", "^Fed")), new Document());
+
+        assertThat(plan).contains("IXSCAN", "lastname_idx").doesNotContain("COLLSCAN");
+    }
+
+    private String explain(Document filter, Document sort) {
+        Document find = new Document("find", mongoTemplate.getCollectionName(Player.class))
+                .append("filter", filter)
+                .append("sort", sort);
+        Document explain = mongoTemplate.getDb().runCommand(new Document("explain", find));
+        return explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+    }
+}
@@ -0,0 +1,449 @@
+package com.latelier.tenisu.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import com.latelier.tenisu.dto.PlayerResultsDto;
+import com.latelier.tenisu.dto.PlayerSearchCriteria;
+import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.FormCounter;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerChangeCheckpoint;
+import com.latelier.tenisu.model.PlayerData;
+import com.latelier.tenisu.model.PlayerName;
+import com.latelier.tenisu.utils.PlayerFields;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+class PlayerRepositoryTest {
+
+    private static final Sort BY_RANK_THEN_ID = Sort.by(Sort.Direction.ASC, "data.rank")
+            .and(Sort.by(Sort.Direction.ASC, "id"));
+
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+
+    private PlayerRepository playerRepository;
+    private PlayerIndexManager playerIndexManager;
+
+    @BeforeEach
+    void setUp() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        mongoClient = MongoClients.create(mongoServer.bindAndGetConnectionString());
+        mongoTemplate = new MongoTemplate(mongoClient, "tenisu_test");
+        playerRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(PlayerRepository.class,
+                RepositoryFragments.just(new PlayerRepositoryCustomImpl(mongoTemplate)));
+        playerIndexManager = new PlayerIndexManager(mongoTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoClient.close();
+        mongoServer.shutdown();
+    }
+
+    @Test
+    void findAllAfter_shouldWalkAllPlayersWithoutDuplicates_whenRanksAreTied() {
+        // Given
+        playerRepository.saveAll(List.of(
+                buildPlayer("p1", 1), buildPlayer("p4", 2), buildPlayer("p2", 2),
+                buildPlayer("p3", 2), buildPlayer("p5", 3)));
+
+        // When
+        List<String> ids = new ArrayList<>();
+        List<Player> page = playerRepository.findAllBy(BY_RANK_THEN_ID, Limit.of(2));
+        while (!page.isEmpty()) {
+            page.forEach(player -> ids.add(player.getId()));
+            Player last = page.get(page.size() - 1);
+            page = playerRepository.findAllAfter(last.getData().getRank(), last.getId(), BY_RANK_THEN_ID,
+                    Limit.of(2));
+        }
+
+        // Then
+        assertThat(ids).containsExactly("p1", "p2", "p3", "p4", "p5");
+    }
+
+    @Test
+    void findByDataRankGreaterThan_shouldSkipLowerRanks() {
+        // Given
+        playerRepository.saveAll(List.of(buildPlayer("p1", 1), buildPlayer("p2", 2), buildPlayer("p3", 3)));
+
+        // When
+        List<Player> players = playerRepository.findByDataRankGreaterThan(1, BY_RANK_THEN_ID, Limit.of(10));
+
+        // Then
+        assertThat(players).extracting(Player::getId).containsExactly("p2", "p3");
+    }
+
+    @Test
+    void streamAllBy_shouldStreamPlayersSortedByRank() {
+        // Given
+        playerRepository.saveAll(List.of(buildPlayer("p3", 3), buildPlayer("p1", 1), buildPlayer("p2", 2)));
+
+        // When
+        List<String> ids;
+        try (Stream<Player> players = playerRepository.streamAllBy(BY_RANK_THEN_ID)) {
+            ids = players.map(Player::getId).toList();
+        }
+
+        // Then
+        assertThat(ids).containsExactly("p1", "p2", "p3");
+    }
+
+    @Test
+    void streamAllProjected_shouldOnlyReadRequestedFields() {
+        // Given
+        playerRepository.saveAll(List.of(buildPlayer("p2", "Rafael", "Nadal"), buildPlayer("p1", "Roger", "Federer")));
+
+        // When
+        List<Player> players;
+        try (Stream<Player> stream = playerRepository.streamAllProjected(BY_RANK_THEN_ID,
+                List.of("lastname", "data.rank"))) {
+            players = stream.toList();
+        }
+
+        // Then
+        assertThat(players).extracting(Player::getId).containsExactly("p1", "p2");
+        assertThat(players).extracting(Player::getLastname).containsExactly("Federer", "Nadal");
+        assertThat(players).extracting(Player::getFirstname).containsOnlyNulls();
+        assertThat(players).extracting(player -> player.getData().getRank()).containsExactly(1, 1);
+    }
+
+    @Test
+    void findProjectedById_shouldOnlyReadRequestedFields() {
+        // Given
+        playerRepository.save(buildPlayer("p1", "Roger", "Federer"));
+
+        // When
+        Player player = playerRepository.findProjectedById("p1", List.of("firstname")).orElseThrow();
+
+        // Then
+        assertThat(player.getId()).isEqualTo("p1");
+        assertThat(player.getFirstname()).isEqualTo("Roger");
+        assertThat(player.getLastname()).isNull();
+        assertThat(player.getData()).isNull();
+        assertThat(playerRepository.findProjectedById("p2", List.of("firstname"))).isEmpty();
+    }
+
+    @Test
+    void findProjectedById_shouldReadWholeObject_whenItsFieldIsAlsoRequested() {
+        // Given
+        playerRepository.save(buildPlayer("p1", "Rafael", "Nadal", "M", "ESP", 1, 1982));
+        PlayerFields fields = PlayerFields.of("country,country.code,data.rank,data");
+
+        // When
+        Player player = playerRepository.findProjectedById("p1", fields.paths()).orElseThrow();
+
+        // Then
+        assertThat(fields.paths()).containsExactlyInAnyOrder("country", "data");
+        assertThat(player.getCountry().getCode()).isEqualTo("ESP");
+        assertThat(player.getData().getPoints()).isEqualTo(1982);
+        assertThat(player.getFirstname()).isNull();
+    }
+
+    @Test
+    void search_shouldCombineFiltersAndSortByRank() {
+        // Given
+        Player nadal = buildPlayer("p1", "Rafael", "Nadal", "M", "ESP", 1, 1982);
+        Player alcaraz = buildPlayer("p2", "Carlos", "Alcaraz", "M", "ESP", 2, 1500);
+        Player badosa = buildPlayer("p3", "Paula", "Badosa", "F", "ESP", 3, 1200);
+        Player federer = buildPlayer("p4", "Roger", "Federer", "M", "SUI", 4, 1100);
+        playerRepository.saveAll(List.of(federer, badosa, alcaraz, nadal));
+
+        // When
+        List<Player> players = playerRepository.search(
+                new PlayerSearchCriteria("M", "ESP", null, null, 1400, null, null, null, null),
+                BY_RANK_THEN_ID, Limit.of(10));
+
+        // Then
+        assertThat(players).extracting(Player::getId).containsExactly("p1", "p2");
+        assertThat(playerRepository.search(
+                new PlayerSearchCriteria(null, null, 2, 4, null, 1200, null, null, null),
+                BY_RANK_THEN_ID, Limit.of(1)))
+                .extracting(Player::getId).containsExactly("p3");
+    }
+
+    @Test
+    void search_shouldMatchLastnamePrefixLiterally() {
+        // Given
+        playerRepository.saveAll(List.of(
+                buildPlayer("p1", "Felix", "Auger-Aliassime"), buildPlayer("p2", "Andy", "Murray"),
+                buildPlayer("p3", "Alex", "Au.tor")));
+
+        // When & Then
+        assertThat(playerRepository.search(
+                new PlayerSearchCriteria(null, null, null, null, null, null, null, null, "Auger-"),
+                BY_RANK_THEN_ID, Limit.of(10)))
+                .extracting(Player::getId).containsExactly("p1");
+        assertThat(playerRepository.search(
+                new PlayerSearchCriteria(null, null, null, null, null, null, null, null, "Au."),
+                BY_RANK_THEN_ID, Limit.of(10)))
+                .extracting(Player::getId).containsExactly("p3");
+    }
+
+    @Test
+    void addResults_shouldCountFormOverStoredResults() {
+        // Given
+        Player player = buildPlayer("p1", 1);
+        player.getData().setLast(new int[] { 0, 1, 1 });
+        playerRepository.save(player);
+        // Écrit par un autre nœud depuis la lecture de p1
+        playerRepository.addResults(Map.of("p1", new PlayerResultsDto(10, List.of(1))), 3, List.of(2, 3));
+
+        // When
+        playerRepository.addResults(Map.of("p1", new PlayerResultsDto(25, List.of(0))), 3, List.of(2, 3));
+
+        // Then
+        Player after = playerRepository.findById("p1").orElseThrow();
+        assertThat(after.getData().getLast()).containsExactly(1, 1, 0);
+        assertThat(after.getData().getPoints()).isEqualTo(35);
+        assertThat(after.getData().getForm()).containsExactly(
+                Map.entry("2", new FormCounter(1, 2)), Map.entry("3", new FormCounter(2, 3)));
+    }
+
+    @Test
+    void addResults_shouldCountFormAgain_whenResultsChangeWhileCounting() {
+        // Given
+        Player player = buildPlayer("p1", 1);
+        player.getData().setLast(new int[] { 0, 0 });
+        playerRepository.save(player);
+        MongoTemplate racing = spy(mongoTemplate);
+        AtomicBoolean raced = new AtomicBoolean();
+        doAnswer(invocation -> {
+            Object read = invocation.callRealMethod();
+            // Un résultat ajouté ailleurs entre la lecture et l'écriture des compteurs
+            if (raced.compareAndSet(false, true)) {
+                Update update = new Update();
+                update.push("data.last").slice(-3).each(1);
+                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is("p1")), update, Player.class);
+            }
+            return read;
+        }).when(racing).find(any(Query.class), eq(Player.class));
+
+        // When
+        new PlayerRepositoryCustomImpl(racing).addResults(Map.of("p1", new PlayerResultsDto(10, List.of(1))), 3,
+                List.of(2, 3));
+
+        // Then
+        Player after = playerRepository.findById("p1").orElseThrow();
+        assertThat(after.getData().getLast()).containsExactly(0, 1, 1);
+        assertThat(after.getData().getForm()).containsExactly(
+                Map.entry("2", new FormCounter(2, 2)), Map.entry("3", new FormCounter(2, 3)));
+        verify(racing, times(2)).find(any(Query.class), eq(Player.class));
+    }
+
+    @Test
+    void findHottest_shouldSortByWinsThenRank_skippingPlayersWithoutWins() {
+        // Given
+        playerRepository.saveAll(List.of(withForm(buildPlayer("p1", 1), 2), withForm(buildPlayer("p2", 2), 4),
+                withForm(buildPlayer("p3", 3), 4), withForm(buildPlayer("p4", 4), 0), buildPlayer("p5", 5)));
+
+        // When
+        List<Player> hottest = playerRepository.findHottest(5, 10);
+
+        // Then
+        assertThat(hottest).extracting(Player::getId).containsExactly("p2", "p3", "p1");
+        assertThat(playerRepository.findHottest(5, 1)).extracting(Player::getId).containsExactly("p2");
+    }
+
+    @Test
+    void addResults_shouldApplyEachPlayerInOneBulkWrite() {
+        // Given
+        Player p1 = buildPlayer("p1", 1);
+        p1.getData().setPoints(100);
+        p1.getData().setLast(new int[] { 1, 1, 0 });
+        playerRepository.saveAll(List.of(p1, buildPlayer("p2", 2)));
+
+        // When
+        playerRepository.addResults(Map.of("p1", new PlayerResultsDto(30, List.of(1, 0)),
+                "p2", new PlayerResultsDto(5, List.of(0)),
+                "unknown", new PlayerResultsDto(10, List.of(1))), 3, List.of(2));
+
+        // Then
+        Player after = playerRepository.findById("p1").orElseThrow();
+        assertThat(after.getData().getLast()).containsExactly(0, 1, 0);
+        assertThat(after.getData().getPoints()).isEqualTo(130);
+        assertThat(playerRepository.findById("p2").orElseThrow().getData().getLast()).containsExactly(0);
+        assertThat(playerRepository.findById("p2").orElseThrow().getData().getForm())
+                .containsExactly(Map.entry("2", new FormCounter(0, 1)));
+        assertThat(playerRepository.findById("unknown")).isEmpty();
+    }
+
+    @Test
+    void updateRanks_shouldOnlyWriteGivenRanks() {
+        // Given
+        playerRepository.saveAll(List.of(buildPlayer("p1", 1), buildPlayer("p2", 2), buildPlayer("p3", 3)));
+
+        // When
+        Player before = playerRepository.setPoints("p3", 900);
+        playerRepository.updateRanks(Map.of("p3", 1, "p1", 2, "p2", 3));
+
+        // Then
+        assertThat(before.getData().getPoints()).isZero();
+        assertThat(playerRepository.streamAllBy(BY_RANK_THEN_ID).map(Player::getId)).containsExactly("p3", "p1",
+                "p2");
+        assertThat(playerRepository.findById("p3").orElseThrow().getData().getPoints()).isEqualTo(900);
+    }
+
+    @Test
+    void checkpoint_shouldBeReadBackWithItsAggregates() {
+        // Given
+        PlayerChangeCheckpointRepository checkpointRepository = new MongoRepositoryFactory(mongoTemplate)
+                .getRepository(PlayerChangeCheckpointRepository.class);
+        PlayerChangeCheckpoint checkpoint = new PlayerChangeCheckpoint();
+        checkpoint.setId("players");
+        checkpoint.setResumeToken("{\"_data\": \"8265\"}");
+        checkpoint.setTallies(List.of(new PlayerChangeCheckpoint.Tally(new Country("pic", "SUI"), 3, 5)));
+        checkpoint.setHeights(new long[] { 0, 2, 1 });
+        checkpoint.setImcSum(44.5);
+        checkpoint.setImcCount(2);
+
+        // When
+        checkpointRepository.save(checkpoint);
+        PlayerChangeCheckpoint saved = checkpointRepository.findById("players").orElseThrow();
+
+        // Then
+        assertThat(saved.getResumeToken()).isEqualTo(checkpoint.getResumeToken());
+        assertThat(saved.getTallies()).containsExactlyElementsOf(checkpoint.getTallies());
+        assertThat(saved.getHeights()).containsExactly(0, 2, 1);
+        assertThat(saved.hasAggregates()).isTrue();
+    }
+
+    @Test
+    void ensureIndexes_shouldCreateDeclaredIndexes() {
+        // When
+        List<IndexInfo> indexes = playerIndexManager.ensureIndexes();
+
+        // Then
+        assertThat(indexes).extracting(IndexInfo::getName)
+                .contains("rank_idx", "firstname_lastname_idx", "country_rank_idx", "sex_rank_idx", "lastname_idx");
+        assertThat(indexes).filteredOn(index -> index.getName().equals("firstname_lastname_idx"))
+                .singleElement()
+                .matches(IndexInfo::isUnique);
+    }
+
+    @Test
+    void ensureIndexes_shouldBeIdempotent() {
+        // When
+        int count = playerIndexManager.ensureIndexes().size();
+
+        // Then
+        assertThat(playerIndexManager.ensureIndexes()).hasSize(count);
+    }
+
+    @Test
+    void insert_shouldThrowDuplicateKeyException_whenFirstnameAndLastnameExist() {
+        // Given
+        playerIndexManager.ensureIndexes();
+        Player player = buildPlayer(null, 1);
+        player.setFirstname("Roger");
+        player.setLastname("Federer");
+        playerRepository.insert(player);
+
+        Player duplicate = buildPlayer(null, 2);
+        duplicate.setFirstname("Roger");
+        duplicate.setLastname("Federer");
+
+        // When & Then
+        assertThatThrownBy(() -> playerRepository.insert(duplicate))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(playerRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void findByFirstnameInAndLastnameIn_shouldReturnMatchingNames() {
+        // Given
+        playerRepository.saveAll(List.of(
+                buildPlayer("p1", "Roger", "Federer"),
+                buildPlayer("p2", "Rafael", "Nadal"),
+                buildPlayer("p3", "Serena", "Williams")));
+
+        // When
+        List<PlayerName> names = playerRepository.findByFirstnameInAndLastnameIn(
+                Set.of("Roger", "Rafael"), Set.of("Federer", "Nadal"));
+
+        // Then
+        assertThat(names).containsExactlyInAnyOrder(
+                new PlayerName("Roger", "Federer"), new PlayerName("Rafael", "Nadal"));
+    }
+
+    @Test
+    void insertAllUnordered_shouldInsertOthers_whenSomeAreDuplicates() {
+        // Given
+        playerIndexManager.ensureIndexes();
+        playerRepository.insert(buildPlayer("p1", "Roger", "Federer"));
+
+        // When
+        Set<Integer> rejected = playerRepository.insertAllUnordered(List.of(
+                buildPlayer("p2", "Rafael", "Nadal"),
+                buildPlayer("p3", "Roger", "Federer"),
+                buildPlayer("p4", "Serena", "Williams")));
+
+        // Then
+        assertThat(rejected).containsExactly(1);
+        assertThat(playerRepository.findAll()).extracting(Player::getId)
+                .containsExactlyInAnyOrder("p1", "p2", "p4");
+    }
+
+    private Player withForm(Player player, int wins) {
+        player.getData().setForm(Map.of("5", new FormCounter(wins, 5)));
+        return player;
+    }
+
+    private Player buildPlayer(String id, String firstname, String lastname) {
+        Player player = buildPlayer(id, 1);
+        player.setFirstname(firstname);
+        player.setLastname(lastname);
+        return player;
+    }
+
+    private Player buildPlayer(String id, String firstname, String lastname, String sex, String country, int rank,
+            int points) {
+        Player player = buildPlayer(id, firstname, lastname);
+        player.setSex(sex);
+        player.setCountry(new Country(null, country));
+        player.getData().setRank(rank);
+        player.getData().setPoints(points);
+        return player;
+    }
+
+    private Player buildPlayer(String id, int rank) {
+        Player player = new Player();
+        player.setId(id);
+        PlayerData data = new PlayerData();
+        data.setRank(rank);
+        player.setData(data);
+        return player;
+    }
+}
@@ -0,0 +1,129 @@
+package com.latelier.tenisu.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.latelier.tenisu.config.IngestionProperties;
+import com.latelier.tenisu.dto.MatchResultDto;
+import com.latelier.tenisu.dto.PlayerResultsDto;
+import com.latelier.tenisu.exception.IngestionQueueFullException;
+import com.latelier.tenisu.model.Player;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class MatchIngestionPipelineTest {
+
+    @Mock
+    private PlayerService playerService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MatchIngestionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new MatchIngestionPipeline(playerService,
+                new IngestionProperties(4, 3, Duration.ofMillis(200)), meterRegistry);
+        pipeline.onApplicationReady();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.destroy();
+    }
+
+    @Test
+    void offer_shouldCoalesceMatchesPerPlayerInOneBatch() throws InterruptedException {
+        // Given
+        when(playerService.recordResults(anyMap())).thenReturn(List.of(new Player(), new Player()));
+
+        // When
+        pipeline.offer(List.of(new MatchResultDto("p1", "p2", 90, 10), new MatchResultDto("p3", "p1", 45, 0),
+                new MatchResultDto("p1", "p3", 20, 5)));
+        // L'arrêt attend l'écriture des matchs acceptés
+        pipeline.destroy();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, PlayerResultsDto>> results = ArgumentCaptor.forClass(Map.class);
+        verify(playerService).recordResults(results.capture());
+        assertThat(results.getValue()).containsExactly(
+                Map.entry("p1", new PlayerResultsDto(110, List.of(1, 0, 1))),
+                Map.entry("p2", new PlayerResultsDto(10, List.of(0))),
+                Map.entry("p3", new PlayerResultsDto(50, List.of(1, 0))));
+        assertThat(meterRegistry.get("tenisu.ingestion.batch.size").summary().totalAmount()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("tenisu.ingestion.ignored").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("tenisu.ingestion.lag").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void offer_shouldQueueMatches_untilApplicationIsReady() throws InterruptedException {
+        // Given
+        pipeline.destroy();
+        pipeline = new MatchIngestionPipeline(playerService, new IngestionProperties(4, 3, Duration.ofMillis(200)),
+                new SimpleMeterRegistry());
+        when(playerService.recordResults(anyMap())).thenReturn(List.of(new Player(), new Player()));
+
+        // When
+        pipeline.offer(List.of(new MatchResultDto("p1", "p2", 0, 0)));
+        verify(playerService, after(300).never()).recordResults(anyMap());
+        pipeline.onApplicationReady();
+
+        // Then
+        verify(playerService, timeout(5000)).recordResults(anyMap());
+    }
+
+    @Test
+    void offer_shouldRejectWholeRequest_whenQueueIsFull() throws Exception {
+        // Given
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(playerService.recordResults(anyMap())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        pipeline.offer(List.of(new MatchResultDto("p1", "p2", 0, 0), new MatchResultDto("p3", "p4", 0, 0),
+                new MatchResultDto("p5", "p6", 0, 0)));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When & Then
+        assertThatThrownBy(() -> pipeline.offer(List.of(new MatchResultDto("p1", "p2", 0, 0),
+                new MatchResultDto("p3", "p4", 0, 0))))
+                .isInstanceOf(IngestionQueueFullException.class);
+        pipeline.offer(List.of(new MatchResultDto("p1", "p2", 0, 0)));
+        assertThat(meterRegistry.get("tenisu.ingestion.rejected").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("tenisu.ingestion.pending").gauge().value()).isEqualTo(4.0);
+        release.countDown();
+    }
+
+    @Test
+    void offer_shouldRejectInvalidMatch_withoutQueuingAny() {
+        // When & Then
+        assertThatThrownBy(() -> pipeline.offer(List.of(new MatchResultDto("p1", "p2", 0, 0),
+                new MatchResultDto("p1", "p1", 0, 0))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Winner and loser must be different players");
+        verify(playerService, after(500).never()).recordResults(anyMap());
+    }
+}
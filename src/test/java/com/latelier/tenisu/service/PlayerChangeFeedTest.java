@@ -0,0 +1,180 @@
+package com.latelier.tenisu.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.latelier.tenisu.config.ChangeStreamProperties;
+import com.latelier.tenisu.config.StatisticsMode;
+import com.latelier.tenisu.config.StatisticsProperties;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerChangeCheckpoint;
+import com.latelier.tenisu.model.PlayerData;
+import com.latelier.tenisu.repository.PlayerChangeCheckpointRepository;
+import com.mongodb.client.model.changestream.OperationType;
+
+@ExtendWith(MockitoExtension.class)
+class PlayerChangeFeedTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PlayerCache playerCache;
+
+    @Mock
+    private RankedPlayersResponseCache rankedPlayersResponseCache;
+
+    @Mock
+    private PlayerColumnarStore columnarStore;
+
+    @Mock
+    private PlayerStatisticsEngine statisticsEngine;
+
+    @Mock
+    private PlayerChangeCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PlayerRankingBroadcaster rankingBroadcaster;
+
+    @Mock
+    private PlayerRanking ranking;
+
+    @Spy
+    private StatisticsProperties statisticsProperties = new StatisticsProperties(StatisticsMode.INCREMENTAL);
+
+    @Spy
+    private ChangeStreamProperties properties = new ChangeStreamProperties(true, Duration.ofSeconds(10),
+            Duration.ofSeconds(5));
+
+    @InjectMocks
+    private PlayerChangeFeed changeFeed;
+
+    @Test
+    void onChange_shouldInvalidateCachesAndRecordPlayer_whenInserted() {
+        // Given
+        Player inserted = buildPlayer("p1", 1);
+
+        // When
+        boolean applied = changeFeed.onChange(OperationType.INSERT, "p1", null, inserted);
+
+        // Then
+        assertTrue(applied);
+        verify(playerCache).invalidate("p1");
+        verify(rankedPlayersResponseCache).invalidate();
+        verify(columnarStore).invalidate();
+        verify(statisticsEngine).apply(null, inserted);
+        verify(rankingBroadcaster).publishCreated(inserted);
+    }
+
+    @Test
+    void onChange_shouldReplacePreviousVersion_whenUpdated() {
+        // Given
+        Player before = buildPlayer("p1", 2);
+        Player after = buildPlayer("p1", 1);
+
+        // When
+        boolean applied = changeFeed.onChange(OperationType.UPDATE, "p1", before, after);
+
+        // Then
+        assertTrue(applied);
+        verify(statisticsEngine).apply(before, after);
+        verify(rankingBroadcaster).publishUpdated(before, after);
+    }
+
+    @Test
+    void onChange_shouldAskForRebuild_whenPreImageIsMissing() {
+        // When
+        boolean applied = changeFeed.onChange(OperationType.DELETE, "p1", null, null);
+
+        // Then
+        assertFalse(applied);
+        verify(statisticsEngine, never()).apply(any(), any());
+        // La reconstruction republie tout le classement
+        verify(rankingBroadcaster, never()).publishDeleted("p1");
+    }
+
+    @Test
+    void onChange_shouldAskForRebuild_beforePublishing_whenStatisticsFail() {
+        // Given
+        Player inserted = buildPlayer("p1", 1);
+        doThrow(new IllegalStateException("Unexpected")).when(statisticsEngine).apply(null, inserted);
+
+        // When
+        boolean applied = changeFeed.onChange(OperationType.INSERT, "p1", null, inserted);
+
+        // Then
+        assertFalse(applied);
+        verify(ranking, never()).onChange(any(), any());
+        verify(rankingBroadcaster, never()).publishCreated(any());
+    }
+
+    @Test
+    void onChange_shouldOnlyInvalidateCaches_whenStatisticsAreNotIncremental() {
+        // Given
+        when(statisticsProperties.mode()).thenReturn(StatisticsMode.AGGREGATION);
+
+        // When
+        boolean applied = changeFeed.onChange(OperationType.UPDATE, "p1", null, null);
+
+        // Then
+        assertTrue(applied);
+        verify(playerCache).invalidate("p1");
+        verify(statisticsEngine, never()).apply(any(), any());
+    }
+
+    @Test
+    void run_shouldResumeFromLastToken_thenRebuild_whenSameChangeKeepsFailing() throws Exception {
+        // Given
+        PlayerChangeCheckpoint checkpoint = new PlayerChangeCheckpoint();
+        checkpoint.setResumeToken("{\"_data\": \"token\"}");
+        checkpoint.setSavedAt(Instant.now());
+        when(statisticsProperties.mode()).thenReturn(StatisticsMode.AGGREGATION);
+        when(properties.retryDelay()).thenReturn(Duration.ofMillis(10));
+        when(checkpointRepository.findById(PlayerChangeFeed.CHECKPOINT_ID)).thenReturn(Optional.of(checkpoint));
+        when(mongoTemplate.getCollection(any())).thenThrow(new IllegalStateException("Unexpected"));
+
+        // When
+        changeFeed.onApplicationReady();
+
+        // Then
+        try {
+            verify(checkpointRepository, timeout(2000)).deleteById(PlayerChangeFeed.CHECKPOINT_ID);
+            InOrder order = inOrder(checkpointRepository, mongoTemplate);
+            order.verify(checkpointRepository).findById(PlayerChangeFeed.CHECKPOINT_ID);
+            order.verify(mongoTemplate, times(PlayerChangeFeed.MAX_REPLAYS)).getCollection(any());
+            order.verify(checkpointRepository).deleteById(PlayerChangeFeed.CHECKPOINT_ID);
+        } finally {
+            changeFeed.destroy();
+        }
+    }
+
+    private Player buildPlayer(String id, int rank) {
+        Player player = new Player();
+        player.setId(id);
+        PlayerData data = new PlayerData();
+        data.setRank(rank);
+        player.setData(data);
+        return player;
+    }
+}
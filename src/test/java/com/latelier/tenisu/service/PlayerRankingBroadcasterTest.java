@@ -0,0 +1,183 @@
+package com.latelier.tenisu.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.codec.ServerSentEvent;
+
+import com.latelier.tenisu.config.ChangeStreamProperties;
+import com.latelier.tenisu.config.RankingStreamProperties;
+import com.latelier.tenisu.dto.RankingDeltaDto;
+import com.latelier.tenisu.dto.SerializedPlayersDto;
+import com.latelier.tenisu.exception.RankingStreamFullException;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class PlayerRankingBroadcasterTest {
+
+    private static final byte[] PLAYERS = "[{\"id\":\"p1\"}]".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private RankedPlayersResponseCache rankedPlayersResponseCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PlayerRankingBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new PlayerRankingBroadcaster(rankedPlayersResponseCache,
+                new RankingStreamProperties(2, Duration.ofHours(1), 2),
+                new ChangeStreamProperties(false, Duration.ofSeconds(10), Duration.ofSeconds(5)), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.destroy();
+    }
+
+    @Test
+    void subscribe_shouldSendSnapshotThenChanges() {
+        // Given
+        when(rankedPlayersResponseCache.get()).thenReturn(new SerializedPlayersDto(PLAYERS, PLAYERS, "etag", 1));
+        Player created = buildPlayer("p2", 3, 100);
+        Player before = buildPlayer("p1", 2, 500);
+        Player after = buildPlayer("p1", 1, 900);
+
+        // When & Then
+        StepVerifier.create(broadcaster.subscribe())
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo(PlayerRankingBroadcaster.SNAPSHOT);
+                    assertThat(event.data()).isEqualTo("[{\"id\":\"p1\"}]");
+                })
+                .then(() -> {
+                    broadcaster.record(created);
+                    broadcaster.publishUpdated(before, after);
+                })
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo(PlayerRankingBroadcaster.CREATED);
+                    assertThat(event.data()).isSameAs(created);
+                })
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo(PlayerRankingBroadcaster.UPDATED);
+                    assertThat(event.data()).isEqualTo(new RankingDeltaDto("p1", 1, 900));
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+        assertThat(meterRegistry.get("tenisu.ranking.subscribers").gauge().value()).isZero();
+    }
+
+    @Test
+    void subscribe_shouldKeepChangePublishedWhileSnapshotIsRead() {
+        // Given
+        Player created = buildPlayer("p2", 2, 100);
+        when(rankedPlayersResponseCache.get()).thenAnswer(invocation -> {
+            // Changement publié juste après la lecture de la liste
+            SerializedPlayersDto players = new SerializedPlayersDto(PLAYERS, PLAYERS, "etag", 1);
+            broadcaster.record(created);
+            return players;
+        });
+
+        // When & Then
+        StepVerifier.create(broadcaster.subscribe())
+                .expectNextMatches(event -> PlayerRankingBroadcaster.SNAPSHOT.equals(event.event()))
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo(PlayerRankingBroadcaster.CREATED);
+                    assertThat(event.data()).isSameAs(created);
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void publishUpdated_shouldBeIgnored_whenRankAndPointsAreUnchanged() {
+        // Given
+        when(rankedPlayersResponseCache.get()).thenReturn(new SerializedPlayersDto(PLAYERS, PLAYERS, "etag", 1));
+        Player before = buildPlayer("p1", 1, 900);
+        Player after = buildPlayer("p1", 1, 900);
+        after.setShortname("R.FED");
+
+        // When & Then
+        StepVerifier.create(broadcaster.subscribe())
+                .expectNextMatches(event -> PlayerRankingBroadcaster.SNAPSHOT.equals(event.event()))
+                .then(() -> {
+                    broadcaster.publishUpdated(before, after);
+                    broadcaster.publishDeleted("p1");
+                })
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo(PlayerRankingBroadcaster.DELETED);
+                    assertThat(event.data()).isEqualTo(new RankingDeltaDto("p1", null, null));
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void subscribe_shouldDropSlowSubscriber_withoutAffectingOthers() throws Exception {
+        // Given
+        when(rankedPlayersResponseCache.get()).thenReturn(new SerializedPlayersDto(PLAYERS, PLAYERS, "etag", 1));
+        CompletableFuture<List<ServerSentEvent<Object>>> fast = broadcaster.subscribe().take(6).collectList()
+                .toFuture();
+
+        // When & Then
+        StepVerifier.create(broadcaster.subscribe(), 1)
+                .expectNextMatches(event -> PlayerRankingBroadcaster.SNAPSHOT.equals(event.event()))
+                .then(() -> {
+                    for (int i = 0; i < 5; i++) {
+                        broadcaster.record(buildPlayer("p" + i, i, 0));
+                    }
+                })
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(event -> true)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(fast.get(5, TimeUnit.SECONDS)).hasSize(6);
+        assertThat(meterRegistry.get("tenisu.ranking.dropped").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void subscribe_shouldRefuseSubscriber_whenMaxSubscribersAreStreamed() {
+        // Given
+        when(rankedPlayersResponseCache.get()).thenReturn(new SerializedPlayersDto(PLAYERS, PLAYERS, "etag", 1));
+        Disposable first = broadcaster.subscribe().subscribe();
+        Disposable second = broadcaster.subscribe().subscribe();
+
+        // When & Then
+        assertThatThrownBy(broadcaster::subscribe).isInstanceOf(RankingStreamFullException.class);
+        first.dispose();
+        StepVerifier.create(broadcaster.subscribe())
+                .expectNextMatches(event -> PlayerRankingBroadcaster.SNAPSHOT.equals(event.event()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+        second.dispose();
+    }
+
+    private Player buildPlayer(String id, int rank, int points) {
+        PlayerData data = new PlayerData();
+        data.setRank(rank);
+        data.setPoints(points);
+        Player player = new Player();
+        player.setId(id);
+        player.setData(data);
+        return player;
+    }
+}
@@ -0,0 +1,370 @@
+package com.latelier.tenisu.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
+
+import com.latelier.tenisu.config.MatchProperties;
+import com.latelier.tenisu.dto.MatchResultDto;
+import com.latelier.tenisu.dto.PlayerResultsDto;
+import com.latelier.tenisu.dto.RankingDeltaDto;
+import com.latelier.tenisu.exception.PlayerNotFoundException;
+import com.latelier.tenisu.model.FormCounter;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
+import com.latelier.tenisu.repository.PlayerRepository;
+import com.latelier.tenisu.utils.PlayerForm;
+import com.latelier.tenisu.utils.PlayerMapper;
+
+@ExtendWith(MockitoExtension.class)
+class PlayerRankingTest {
+
+    @Mock
+    private PlayerRepository playerRepository;
+
+    @Spy
+    private PlayerMapper mapper = new PlayerMapper();
+
+    @Spy
+    private MatchProperties matchProperties = new MatchProperties(3, List.of(2, 3));
+
+    @InjectMocks
+    private PlayerRanking ranking;
+
+    // Contenu de la collection simulée
+    private final Map<String, Player> players = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(playerRepository.streamAllProjected(any(Sort.class), anyCollection()))
+                .thenAnswer(invocation -> players.values().stream().map(mapper::copy));
+        lenient().when(playerRepository.setPoints(anyString(), anyInt())).thenAnswer(invocation -> {
+            Player player = players.get(invocation.getArgument(0, String.class));
+            if (player == null) {
+                return null;
+            }
+            Player before = mapper.copy(player);
+            player.getData().setPoints(invocation.getArgument(1, Integer.class));
+            return before;
+        });
+        lenient().when(playerRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Iterable<String> ids = invocation.getArgument(0);
+            List<Player> found = new ArrayList<>();
+            ids.forEach(id -> {
+                if (players.containsKey(id)) {
+                    found.add(mapper.copy(players.get(id)));
+                }
+            });
+            return found;
+        });
+        lenient().doAnswer(invocation -> {
+            Map<String, PlayerResultsDto> results = invocation.getArgument(0);
+            int history = invocation.getArgument(1);
+            List<Integer> windows = invocation.getArgument(2);
+            results.forEach((id, playerResults) -> {
+                PlayerData data = players.get(id).getData();
+                data.setPoints(data.getPoints() + playerResults.points());
+                int[] last = data.getLast() != null ? data.getLast() : new int[0];
+                int[] all = Arrays.copyOf(last, last.length + playerResults.results().size());
+                for (int i = 0; i < playerResults.results().size(); i++) {
+                    all[last.length + i] = playerResults.results().get(i);
+                }
+                data.setLast(Arrays.copyOfRange(all, Math.max(0, all.length - history), all.length));
+                data.setForm(PlayerForm.of(data.getLast(), windows));
+            });
+            return null;
+        }).when(playerRepository).addResults(anyMap(), anyInt(), anyList());
+        lenient().doAnswer(invocation -> {
+            Map<String, Integer> ranks = invocation.getArgument(0);
+            ranks.forEach((id, rank) -> players.get(id).getData().setRank(rank));
+            return null;
+        }).when(playerRepository).updateRanks(anyMap());
+    }
+
+    @Test
+    void setPoints_shouldRealignRanksOnPoints_whenRankingIsLoaded() {
+        // Given
+        addPlayer("p1", 1, 1982);
+        addPlayer("p2", 2, 2542);
+        addPlayer("p3", 3, 1000);
+
+        // When
+        PlayerRanking.Update update = ranking.setPoints("p3", 1100);
+
+        // Then
+        assertThat(update.realigned()).isTrue();
+        assertThat(update.after()).singleElement()
+                .satisfies(player -> assertThat(player.getData().getRank()).isEqualTo(3));
+        assertThat(rankOf("p2")).isEqualTo(1);
+        assertThat(rankOf("p1")).isEqualTo(2);
+    }
+
+    @Test
+    void setPoints_shouldOnlyWriteRanksBetweenOldAndNewPositions() {
+        // Given
+        for (int i = 1; i <= 6; i++) {
+            addPlayer("p" + i, i, 1000 - i * 10);
+        }
+
+        // When
+        PlayerRanking.Update update = ranking.setPoints("p5", 975);
+
+        // Then
+        assertThat(update.realigned()).isFalse();
+        assertThat(update.deltas()).containsExactly(new RankingDeltaDto("p5", 3, 975),
+                new RankingDeltaDto("p3", 4, 970), new RankingDeltaDto("p4", 5, 960));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Integer>> ranks = ArgumentCaptor.forClass(Map.class);
+        verify(playerRepository, times(2)).updateRanks(ranks.capture());
+        assertThat(ranks.getValue()).containsOnlyKeys("p3", "p4", "p5");
+    }
+
+    @Test
+    void setPoints_shouldKeepRanksConsistent_afterRandomChanges() {
+        // Given
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 200; i++) {
+            addPlayer("p" + i, i + 1, random.nextInt(500));
+        }
+
+        // When & Then
+        for (int round = 0; round < 500; round++) {
+            ranking.setPoints("p" + random.nextInt(200), random.nextInt(500));
+            List<Player> expected = players.values().stream()
+                    .sorted(Comparator.comparingInt((Player player) -> player.getData().getPoints()).reversed()
+                            .thenComparing(Player::getId))
+                    .toList();
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(expected.get(i).getData().getRank()).isEqualTo(i + 1);
+            }
+        }
+    }
+
+    @Test
+    void recordMatch_shouldAppendResultsAndRerankBothPlayers() {
+        // Given
+        addPlayer("p1", 1, 300);
+        addPlayer("p2", 2, 200);
+        addPlayer("p3", 3, 100);
+        players.get("p3").getData().setLast(new int[] { 0, 0, 0 });
+
+        // When
+        PlayerRanking.Update update = ranking.recordMatch(new MatchResultDto("p3", "p1", 250, 0));
+
+        // Then
+        Player winner = update.after().get(0);
+        assertThat(winner.getData().getPoints()).isEqualTo(350);
+        assertThat(winner.getData().getRank()).isEqualTo(1);
+        assertThat(winner.getData().getLast()).containsExactly(0, 0, 1);
+        assertThat(update.after().get(1).getData().getLast()).containsExactly(0);
+        assertThat(rankOf("p1")).isEqualTo(2);
+        assertThat(rankOf("p2")).isEqualTo(3);
+    }
+
+    @Test
+    void recordMatch_shouldWriteNothing_whenLoserDoesNotExist() {
+        // Given
+        addPlayer("p1", 1, 300);
+
+        // When & Then
+        assertThatThrownBy(() -> ranking.recordMatch(new MatchResultDto("p1", "unknown", 10, 0)))
+                .isInstanceOf(PlayerNotFoundException.class);
+        verify(playerRepository, never()).addResults(anyMap(), anyInt(), anyList());
+    }
+
+    @Test
+    void recordResults_shouldWriteKnownPlayersOnceAndRerankThem() {
+        // Given
+        addPlayer("p1", 1, 300);
+        addPlayer("p2", 2, 200);
+        addPlayer("p3", 3, 100);
+        players.get("p3").getData().setLast(new int[] { 0, 1 });
+        Map<String, PlayerResultsDto> results = new LinkedHashMap<>();
+        results.put("p3", new PlayerResultsDto(250, List.of(1, 1)));
+        results.put("unknown", new PlayerResultsDto(0, List.of(0)));
+        results.put("p1", new PlayerResultsDto(0, List.of(0, 0)));
+
+        // When
+        PlayerRanking.Update update = ranking.recordResults(results);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, PlayerResultsDto>> written = ArgumentCaptor.forClass(Map.class);
+        verify(playerRepository).addResults(written.capture(), anyInt(), anyList());
+        assertThat(written.getValue()).containsOnlyKeys("p3", "p1");
+        assertThat(update.after()).extracting(Player::getId).containsExactly("p3", "p1");
+        Player p3 = update.after().get(0);
+        assertThat(p3.getData().getLast()).containsExactly(1, 1, 1);
+        assertThat(p3.getData().getRank()).isEqualTo(1);
+        assertThat(rankOf("p1")).isEqualTo(2);
+        assertThat(rankOf("p2")).isEqualTo(3);
+    }
+
+    @Test
+    void recordMatch_shouldSlideFormCounters() {
+        // Given
+        addPlayer("p1", 1, 300);
+        addPlayer("p2", 2, 200);
+        players.get("p1").getData().setLast(new int[] { 1, 0, 1 });
+        players.get("p1").getData().setForm(PlayerForm.of(new int[] { 1, 0, 1 }, List.of(2, 3)));
+
+        // When
+        PlayerRanking.Update update = ranking.recordMatch(new MatchResultDto("p2", "p1", 10, 0));
+
+        // Then
+        assertThat(update.after().get(1).getData().getForm()).containsExactly(
+                Map.entry("2", new FormCounter(1, 2)), Map.entry("3", new FormCounter(1, 3)));
+        assertThat(update.after().get(0).getData().getForm()).containsExactly(
+                Map.entry("2", new FormCounter(1, 1)), Map.entry("3", new FormCounter(1, 1)));
+    }
+
+    @Test
+    void append_shouldMatchCountingFromScratch_afterRandomResults() {
+        // Given
+        SplittableRandom random = new SplittableRandom(7);
+        List<Integer> windows = List.of(2, 3, 5);
+        PlayerData data = new PlayerData();
+
+        // When & Then
+        for (int round = 0; round < 500; round++) {
+            List<Integer> appended = new ArrayList<>();
+            for (int i = random.nextInt(1, 6); i > 0; i--) {
+                appended.add(random.nextInt(2));
+            }
+            data.setForm(PlayerForm.append(data, appended, windows, 4));
+            int[] last = data.getLast() != null ? data.getLast() : new int[0];
+            int[] all = new int[last.length + appended.size()];
+            System.arraycopy(last, 0, all, 0, last.length);
+            for (int i = 0; i < appended.size(); i++) {
+                all[last.length + i] = appended.get(i);
+            }
+            data.setLast(Arrays.copyOfRange(all, Math.max(0, all.length - 4), all.length));
+            assertThat(data.getForm()).isEqualTo(PlayerForm.of(data.getLast(), windows));
+        }
+    }
+
+    @Test
+    void recordResults_shouldReloadRanking_whenBulkWriteFails() {
+        // Given
+        addPlayer("p1", 1, 300);
+        addPlayer("p2", 2, 200);
+        doThrow(new DataAccessResourceFailureException("Bulk write failed")).when(playerRepository)
+                .addResults(anyMap(), anyInt(), anyList());
+
+        // When & Then
+        assertThatThrownBy(() -> ranking.recordResults(Map.of("p2", new PlayerResultsDto(150, List.of(1)))))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        // Écriture appliquée malgré l'erreur : le classement est relu depuis Mongo
+        players.get("p2").getData().setPoints(350);
+        ranking.setPoints("p1", 310);
+        verify(playerRepository, times(2)).streamAllProjected(any(Sort.class), anyCollection());
+        assertThat(rankOf("p2")).isEqualTo(1);
+        assertThat(rankOf("p1")).isEqualTo(2);
+    }
+
+    @Test
+    void insert_shouldOnlyRewriteShiftedRanks_withoutReloadingRanking() {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            addPlayer("p" + i, i, 1000 - i * 100);
+        }
+        ranking.setPoints("p1", 950);
+        addPlayer("p6", 0, 650);
+        Player created = mapper.copy(players.get("p6"));
+
+        // When
+        PlayerRanking.Update update = ranking.insert(List.of(created));
+
+        // Then
+        assertThat(created.getData().getRank()).isEqualTo(4);
+        assertThat(update.realigned()).isFalse();
+        assertThat(update.after()).containsExactly(created);
+        assertThat(update.deltas()).containsExactly(new RankingDeltaDto("p4", 5, 600),
+                new RankingDeltaDto("p5", 6, 500));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Integer>> ranks = ArgumentCaptor.forClass(Map.class);
+        verify(playerRepository, times(3)).updateRanks(ranks.capture());
+        assertThat(ranks.getValue()).containsOnlyKeys("p6", "p4", "p5");
+        verify(playerRepository).streamAllProjected(any(Sort.class), anyCollection());
+        assertThat(rankOf("p6")).isEqualTo(4);
+        assertThat(rankOf("p5")).isEqualTo(6);
+    }
+
+    @Test
+    void insert_shouldDoNothing_untilRankingIsLoaded() {
+        // Given
+        addPlayer("p1", 0, 100);
+
+        // When
+        PlayerRanking.Update update = ranking.insert(List.of(mapper.copy(players.get("p1"))));
+
+        // Then
+        assertThat(update.after()).isEmpty();
+        assertThat(update.deltas()).isEmpty();
+        verify(playerRepository, never()).updateRanks(anyMap());
+    }
+
+    @Test
+    void onChange_shouldReloadRanking_whenPointsChangedElsewhere() {
+        // Given
+        addPlayer("p1", 1, 300);
+        addPlayer("p2", 2, 200);
+        ranking.setPoints("p2", 250);
+        Player changed = mapper.copy(players.get("p1"));
+        changed.getData().setPoints(100);
+        players.put("p1", changed);
+
+        // When
+        ranking.onChange("p1", changed);
+        ranking.setPoints("p2", 260);
+
+        // Then
+        assertThat(rankOf("p2")).isEqualTo(1);
+        assertThat(rankOf("p1")).isEqualTo(2);
+    }
+
+    private void addPlayer(String id, int rank, int points) {
+        PlayerData data = new PlayerData();
+        data.setRank(rank);
+        data.setPoints(points);
+        Player player = new Player();
+        player.setId(id);
+        player.setData(data);
+        players.put(id, player);
+    }
+
+    private int rankOf(String id) {
+        return players.get(id).getData().getRank();
+    }
+}
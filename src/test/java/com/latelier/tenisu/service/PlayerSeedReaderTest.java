@@ -0,0 +1,69 @@
+package com.latelier.tenisu.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.latelier.tenisu.model.Player;
+
+class PlayerSeedReaderTest {
+
+    private final PlayerSeedReader playerSeedReader = new PlayerSeedReader(new ObjectMapper());
+
+    @Test
+    void read_shouldHandOverPlayersInFixedSizeBatches() throws IOException {
+        // Given
+        List<Integer> batchSizes = new ArrayList<>();
+        List<Player> players = new ArrayList<>();
+
+        // When
+        long count = playerSeedReader.read(new ClassPathResource("data/initial_data.json"), false, 2, batch -> {
+            batchSizes.add(batch.size());
+            players.addAll(batch);
+        });
+
+        // Then
+        assertThat(count).isEqualTo(5);
+        assertThat(batchSizes).containsExactly(2, 2, 1);
+        assertThat(players.get(0).getLastname()).isEqualTo("Djokovic");
+        assertThat(players.get(0).getData().getLast()).containsExactly(1, 1, 1, 1, 1);
+    }
+
+    @Test
+    void read_shouldReadMemoryMappedFile(@TempDir Path directory) throws IOException {
+        // Given
+        Path file = directory.resolve("players.json");
+        Files.writeString(file, """
+                [ { "id": "1", "firstname": "Roger", "data": { "rank": 1 } },
+                  { "id": "2", "firstname": "Rafael", "data": { "rank": 2 } } ]
+                """);
+        List<Player> players = new ArrayList<>();
+
+        // When
+        long count = playerSeedReader.read(new FileSystemResource(file), true, 10, players::addAll);
+
+        // Then
+        assertThat(count).isEqualTo(2);
+        assertThat(players).extracting(Player::getFirstname).containsExactly("Roger", "Rafael");
+    }
+
+    @Test
+    void read_shouldThrowIOException_whenContentIsNotAnArray() {
+        assertThatThrownBy(() -> playerSeedReader.read(new ByteArrayResource("{}".getBytes()), false, 10,
+                batch -> {
+                }))
+                .isInstanceOf(IOException.class);
+    }
+}
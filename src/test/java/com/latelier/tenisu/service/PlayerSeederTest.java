@@ -0,0 +1,181 @@
+package com.latelier.tenisu.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.latelier.tenisu.config.SeedMode;
+import com.latelier.tenisu.config.SeedProperties;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
+import com.latelier.tenisu.repository.PlayerRepository;
+import com.latelier.tenisu.repository.PlayerRepositoryCustomImpl;
+import com.latelier.tenisu.repository.SeedMetadataRepository;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+class PlayerSeederTest {
+
+    private static final String SEED = """
+            [ { "id": "1", "firstname": "Roger", "lastname": "Federer", "data": { "rank": 1 } },
+              { "id": "2", "firstname": "Rafael", "lastname": "Nadal", "data": { "rank": 2 } } ]
+            """;
+
+    @TempDir
+    Path directory;
+
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+
+    private PlayerRepository playerRepository;
+    private SeedMetadataRepository seedMetadataRepository;
+    private Path seedFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mongoServer = new MongoServer(new MemoryBackend());
+        mongoClient = MongoClients.create(mongoServer.bindAndGetConnectionString());
+        mongoTemplate = new MongoTemplate(mongoClient, "tenisu_test");
+        MongoRepositoryFactory factory = new MongoRepositoryFactory(mongoTemplate);
+        playerRepository = factory.getRepository(PlayerRepository.class,
+                RepositoryFragments.just(new PlayerRepositoryCustomImpl(mongoTemplate)));
+        seedMetadataRepository = factory.getRepository(SeedMetadataRepository.class);
+        seedFile = Files.writeString(directory.resolve("players.json"), SEED);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoClient.close();
+        mongoServer.shutdown();
+    }
+
+    @Test
+    void seed_shouldSkipSeeding_whenChecksumIsUnchanged() throws IOException {
+        // Given
+        assertThat(seeder(SeedMode.INCREMENTAL).seed()).isEqualTo(2);
+        playerRepository.save(buildPlayer("3", "Novak", "Djokovic", 3));
+
+        // When
+        long written = seeder(SeedMode.INCREMENTAL).seed();
+
+        // Then
+        assertThat(written).isZero();
+        assertThat(playerRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void seed_shouldUpsertOnlyChangedPlayersAndKeepOthers_whenFileChanged() throws IOException {
+        // Given
+        seeder(SeedMode.INCREMENTAL).seed();
+        playerRepository.save(buildPlayer("3", "Novak", "Djokovic", 3));
+        Files.writeString(seedFile, SEED.replace("\"rank\": 2", "\"rank\": 2, \"age\": 38")
+                .replace("} ]", "},\n  { \"id\": \"4\", \"firstname\": \"Andy\", \"lastname\": \"Murray\","
+                        + " \"data\": { \"rank\": 4, \"age\": 37 } } ]"));
+
+        // When
+        long written = seeder(SeedMode.INCREMENTAL).seed();
+
+        // Then
+        assertThat(written).isEqualTo(2);
+        assertThat(playerRepository.count()).isEqualTo(4);
+        assertThat(playerRepository.findById("2")).get()
+                .extracting(player -> player.getData().getAge()).isEqualTo(38);
+        // Un joueur inséré reçoit aussi les champs tenus à jour par l'application
+        assertThat(playerRepository.findById("4")).get()
+                .extracting(player -> player.getData().getRank()).isEqualTo(4);
+        assertThat(seedMetadataRepository.findById(location()).orElseThrow().getPlayers()).isEqualTo(2);
+    }
+
+    @Test
+    void seed_shouldKeepRankPointsAndResultsOfStoredPlayers_whenFileChanged() throws IOException {
+        // Given
+        seeder(SeedMode.INCREMENTAL).seed();
+        Player played = playerRepository.findById("2").orElseThrow();
+        played.getData().setRank(1);
+        played.getData().setPoints(3000);
+        played.getData().setLast(new int[] { 1, 1 });
+        playerRepository.save(played);
+        Files.writeString(seedFile, SEED.replace("\"rank\": 2", "\"rank\": 5, \"points\": 10, \"age\": 38")
+                .replace("\"Nadal\"", "\"Nadal\", \"shortname\": \"R.NAD\""));
+
+        // When
+        long written = seeder(SeedMode.INCREMENTAL).seed();
+
+        // Then
+        assertThat(written).isEqualTo(1);
+        Player stored = playerRepository.findById("2").orElseThrow();
+        assertThat(stored.getShortname()).isEqualTo("R.NAD");
+        assertThat(stored.getData().getAge()).isEqualTo(38);
+        assertThat(stored.getData().getRank()).isEqualTo(1);
+        assertThat(stored.getData().getPoints()).isEqualTo(3000);
+        assertThat(stored.getData().getLast()).containsExactly(1, 1);
+    }
+
+    @Test
+    void seed_shouldSkipStoredPlayer_whenOnlyItsRuntimeFieldsDiffer() throws IOException {
+        // Given
+        seeder(SeedMode.INCREMENTAL).seed();
+        Player played = playerRepository.findById("1").orElseThrow();
+        played.getData().setPoints(3000);
+        playerRepository.save(played);
+        Files.writeString(seedFile, SEED + "\n");
+
+        // When
+        long written = seeder(SeedMode.INCREMENTAL).seed();
+
+        // Then
+        assertThat(written).isZero();
+        assertThat(playerRepository.findById("1").orElseThrow().getData().getPoints()).isEqualTo(3000);
+    }
+
+    @Test
+    void seed_shouldReloadWholeCollection_whenModeIsReplace() throws IOException {
+        // Given
+        seeder(SeedMode.INCREMENTAL).seed();
+        playerRepository.save(buildPlayer("3", "Novak", "Djokovic", 3));
+
+        // When
+        long written = seeder(SeedMode.REPLACE).seed();
+
+        // Then
+        assertThat(written).isEqualTo(2);
+        assertThat(playerRepository.findAll()).extracting(Player::getId).containsExactlyInAnyOrder("1", "2");
+    }
+
+    private PlayerSeeder seeder(SeedMode mode) {
+        return new PlayerSeeder(mongoTemplate, playerRepository, seedMetadataRepository,
+                new PlayerSeedReader(new ObjectMapper()), new DefaultResourceLoader(),
+                new SeedProperties(location(), 1, false, mode));
+    }
+
+    private String location() {
+        return seedFile.toUri().toString();
+    }
+
+    private static Player buildPlayer(String id, String firstname, String lastname, int rank) {
+        Player player = new Player();
+        player.setId(id);
+        player.setFirstname(firstname);
+        player.setLastname(lastname);
+        PlayerData data = new PlayerData();
+        data.setRank(rank);
+        player.setData(data);
+        return player;
+    }
+}
@@ -3,12 +3,24 @@ package com.latelier.tenisu.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -16,19 +28,50 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 
+import com.latelier.tenisu.config.BatchProperties;
+import com.latelier.tenisu.config.MatchProperties;
+import com.latelier.tenisu.config.PlayerCacheProperties;
+import com.latelier.tenisu.config.SearchProperties;
+import com.latelier.tenisu.config.StatisticsMode;
+import com.latelier.tenisu.config.StatisticsProperties;
+import com.latelier.tenisu.dto.BatchItemResultDto;
+import com.latelier.tenisu.dto.BatchItemStatus;
+import com.latelier.tenisu.dto.BatchResultDto;
+import com.latelier.tenisu.dto.CountryWinRatioDto;
 import com.latelier.tenisu.dto.CreatePlayerDto;
+import com.latelier.tenisu.dto.FormDto;
+import com.latelier.tenisu.dto.MatchResultDto;
+import com.latelier.tenisu.dto.PercentilesDto;
+import com.latelier.tenisu.dto.PlayerPageDto;
+import com.latelier.tenisu.dto.PlayerResultsDto;
+import com.latelier.tenisu.dto.PlayerSearchCriteria;
+import com.latelier.tenisu.dto.PointsUpdateDto;
+import com.latelier.tenisu.dto.RankingDeltaDto;
 import com.latelier.tenisu.dto.StatisticsDto;
 import com.latelier.tenisu.exception.ExistingPlayerException;
 import com.latelier.tenisu.exception.PlayerNotFoundException;
 import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.FormCounter;
 import com.latelier.tenisu.model.Player;
 import com.latelier.tenisu.model.PlayerData;
+import com.latelier.tenisu.model.PlayerName;
+import com.latelier.tenisu.repository.PlayerIndexManager;
 import com.latelier.tenisu.repository.PlayerRepository;
+import com.latelier.tenisu.utils.PlayerColumns;
+import com.latelier.tenisu.utils.PlayerFields;
 import com.latelier.tenisu.utils.PlayerMapper;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class PlayerServiceTest {
 
@@ -38,6 +81,47 @@ class PlayerServiceTest {
     @Mock
     private PlayerMapper mapper;
 
+    @Spy
+    private PlayerCache playerCache = new PlayerCache(
+            new PlayerCacheProperties(100, Duration.ofMinutes(10), Duration.ofSeconds(30)),
+            new SimpleMeterRegistry());
+
+    @Mock
+    private RankedPlayersResponseCache rankedPlayersResponseCache;
+
+    @Mock
+    private PlayerColumnarStore columnarStore;
+
+    @Mock
+    private PlayerStatisticsEngine statisticsEngine;
+
+    @Mock
+    private PlayerStatisticsAggregation statisticsAggregation;
+
+    @Spy
+    private BatchProperties batchProperties = new BatchProperties(2);
+
+    @Spy
+    private StatisticsProperties statisticsProperties = new StatisticsProperties(StatisticsMode.INCREMENTAL);
+
+    @Spy
+    private AsyncTaskExecutor applicationTaskExecutor = new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+
+    @Mock
+    private PlayerIndexManager indexManager;
+
+    @Spy
+    private SearchProperties searchProperties = new SearchProperties(100);
+
+    @Mock
+    private PlayerRankingBroadcaster rankingBroadcaster;
+
+    @Mock
+    private PlayerRanking ranking;
+
+    @Spy
+    private MatchProperties matchProperties = new MatchProperties(52, List.of(10, 5));
+
     @InjectMocks
     private PlayerService playerService;
 
@@ -82,6 +166,68 @@ class PlayerServiceTest {
         assertEquals(Sort.Direction.ASC, order.getDirection());
     }
 
+    @Test
+    void getPlayersPageSortedByRank_shouldReturnFirstPageWithNextCursor() {
+        // Given
+        Player player1 = buildPlayer("player101", "Raphael", "NADAL", 1);
+        Player player2 = buildPlayer("player12", "Jannik", "SINNER", 2);
+        Player player3 = buildPlayer("player221", "Serena", "WILLIAM", 3);
+        when(playerRepository.findAllBy(any(Sort.class), eq(Limit.of(3))))
+                .thenReturn(List.of(player1, player2, player3));
+
+        // When
+        PlayerPageDto page = playerService.getPlayersPageSortedByRank(null, 2);
+
+        // Then
+        assertThat(page.players()).containsExactly(player1, player2);
+        assertEquals("2:player12", page.next());
+    }
+
+    @Test
+    void getPlayersPageSortedByRank_shouldReturnLastPageWithoutCursor() {
+        // Given
+        Player player3 = buildPlayer("player221", "Serena", "WILLIAM", 3);
+        when(playerRepository.findAllAfter(eq(2), eq("player12"), any(Sort.class), eq(Limit.of(3))))
+                .thenReturn(List.of(player3));
+
+        // When
+        PlayerPageDto page = playerService.getPlayersPageSortedByRank("2:player12", 2);
+
+        // Then
+        assertThat(page.players()).containsExactly(player3);
+        assertNull(page.next());
+    }
+
+    @Test
+    void getPlayersPageSortedByRank_shouldAcceptPlainRankCursor() {
+        // Given
+        when(playerRepository.findByDataRankGreaterThan(eq(10), any(Sort.class), eq(Limit.of(6))))
+                .thenReturn(List.of());
+
+        // When
+        PlayerPageDto page = playerService.getPlayersPageSortedByRank("10", 5);
+
+        // Then
+        assertThat(page.players()).isEmpty();
+        assertNull(page.next());
+    }
+
+    @Test
+    void getPlayersPageSortedByRank_shouldThrowIllegalArgumentException_whenLimitIsOutOfBounds() {
+        Assertions.assertThatThrownBy(() -> playerService.getPlayersPageSortedByRank(null, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Limit must be between 1 and 1000");
+        Assertions.assertThatThrownBy(() -> playerService.getPlayersPageSortedByRank(null, 1001))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getPlayersPageSortedByRank_shouldThrowIllegalArgumentException_whenCursorIsInvalid() {
+        Assertions.assertThatThrownBy(() -> playerService.getPlayersPageSortedByRank("abc:player12", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor: abc");
+    }
+
     @Test
     void getPlayerById_shouldReturnPlayer_whenPlayerExists() {
         // Given
@@ -112,6 +258,54 @@ class PlayerServiceTest {
                 .hasMessage("Player not found with id: " + playerId);
     }
 
+    @Test
+    void getPlayerById_shouldHitCache_whenPlayerWasAlreadyLoaded() {
+        // Given
+        String playerId = "player1L";
+        Player expectedPlayer = buildPlayer(playerId, "Roger", "FEDERER", 1);
+        when(playerRepository.findById(playerId)).thenReturn(Optional.of(expectedPlayer));
+
+        // When
+        playerService.getPlayerById(playerId);
+        Player actualPlayer = playerService.getPlayerById(playerId);
+
+        // Then
+        assertEquals(expectedPlayer, actualPlayer);
+        verify(playerRepository, times(1)).findById(playerId);
+        assertEquals(1, playerCache.stats().hitCount());
+        assertEquals(1, playerCache.stats().missCount());
+    }
+
+    @Test
+    void getPlayerById_shouldCacheUnknownIds() {
+        // Given
+        String playerId = "player999L";
+        when(playerRepository.findById(playerId)).thenReturn(Optional.empty());
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertThatThrownBy(() -> playerService.getPlayerById(playerId))
+                    .isInstanceOf(PlayerNotFoundException.class);
+        }
+
+        // Then
+        verify(playerRepository, times(1)).findById(playerId);
+    }
+
+    @Test
+    void getPlayerById_shouldNotQueryFields_whenIdIsCachedAsUnknown() {
+        // Given
+        String playerId = "player999L";
+        when(playerRepository.findById(playerId)).thenReturn(Optional.empty());
+        Assertions.assertThatThrownBy(() -> playerService.getPlayerById(playerId))
+                .isInstanceOf(PlayerNotFoundException.class);
+
+        // When & Then
+        Assertions.assertThatThrownBy(() -> playerService.getPlayerById(playerId, PlayerFields.of("data.form")))
+                .isInstanceOf(PlayerNotFoundException.class);
+        verify(playerRepository, never()).findProjectedById(eq(playerId), anyList());
+    }
+
     @Test
     void getCountryWithHighestWinRatio_shouldReturnCountryWithHighestWinRatio() {
         // Given
@@ -141,6 +335,141 @@ class PlayerServiceTest {
                 .isEqualTo(player2.getCountry()); // ES has the highest win ratio (3/3)
     }
 
+    @Test
+    void getCountryWithHighestWinRatio_shouldAggregateResultsOfAllPlayersOfACountry() {
+        // Given
+        Player player1 = new Player();
+        player1.setData(new PlayerData());
+        player1.getData().setLast(new int[] { 1, 1, 1 }); // 3 wins, no losses
+        player1.setCountry(new Country("picture-france", "FR"));
+
+        Player player2 = new Player();
+        player2.setData(new PlayerData());
+        player2.getData().setLast(new int[] { 0, 0, 0 }); // no wins, 3 losses
+        player2.setCountry(new Country("picture-france", "FR"));
+
+        Player player3 = new Player();
+        player3.setData(new PlayerData());
+        player3.getData().setLast(new int[] { 1, 0, 1 }); // 2 wins, 1 loss
+        player3.setCountry(new Country("picture-spain", "ES"));
+
+        // When
+        Country country = playerService.getCountryWithHighestWinRatio(List.of(player1, player2, player3));
+
+        // Then
+        assertEquals("ES", country.getCode()); // ES 2/3 beats FR 3/6, even though a French player won all
+    }
+
+    @Test
+    void getCountryLeaderboard_shouldReturnEngineLeaderboard() {
+        // Given
+        List<CountryWinRatioDto> expected = List.of(
+                new CountryWinRatioDto(new Country("picture-spain", "ES"), 2, 3, 2.0 / 3));
+        when(statisticsEngine.getCountryLeaderboard(1)).thenReturn(expected);
+
+        // When
+        List<CountryWinRatioDto> countries = playerService.getCountryLeaderboard(1);
+
+        // Then
+        assertEquals(expected, countries);
+        verify(statisticsAggregation, never()).getCountryLeaderboard(any(Integer.class));
+    }
+
+    @Test
+    void getCountryLeaderboard_shouldThrowIllegalArgumentException_whenTopIsNotPositive() {
+        Assertions.assertThatThrownBy(() -> playerService.getCountryLeaderboard(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Top must be positive");
+    }
+
+    @Test
+    void getForm_shouldReturnEachWindowFromCounters_withZeroForMissingOnes() {
+        // Given
+        PlayerData data = new PlayerData();
+        data.setForm(Map.of("5", new FormCounter(4, 5)));
+        Player player = new Player();
+        player.setData(data);
+        when(playerRepository.findProjectedById("1", List.of("data.form"))).thenReturn(Optional.of(player));
+
+        // When
+        List<FormDto> form = playerService.getForm("1");
+
+        // Then
+        assertThat(form).containsExactly(new FormDto(5, 4, 1, 0.8), new FormDto(10, 0, 0, 0));
+    }
+
+    @Test
+    void getForm_shouldThrowPlayerNotFoundException_whenPlayerDoesNotExist() {
+        when(playerRepository.findProjectedById("1", List.of("data.form"))).thenReturn(Optional.empty());
+
+        Assertions.assertThatThrownBy(() -> playerService.getForm("1"))
+                .isInstanceOf(PlayerNotFoundException.class)
+                .hasMessage("Player not found with id: 1");
+    }
+
+    @Test
+    void getHottestPlayers_shouldThrowIllegalArgumentException_whenWindowIsNotConfigured() {
+        Assertions.assertThatThrownBy(() -> playerService.getHottestPlayers(7, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown form window: 7, expected one of [10, 5]");
+        verify(playerRepository, never()).findHottest(anyInt(), anyInt());
+    }
+
+    @Test
+    void searchPlayers_shouldQueryRepositoryByRank_whenAFilterIsIndexed() {
+        // Given
+        PlayerSearchCriteria criteria = new PlayerSearchCriteria("F", null, null, null, 1000, null, null, null, null);
+        List<Player> expected = List.of(buildPlayer("player10", "Serena", "WILLIAMS", 1));
+        when(indexManager.leadingKeys()).thenReturn(Set.of("data.rank", "sex"));
+        when(playerRepository.search(criteria, PlayerRepository.BY_RANK_THEN_ID, Limit.of(10))).thenReturn(expected);
+
+        // When
+        List<Player> players = playerService.searchPlayers(criteria, 10);
+
+        // Then
+        assertEquals(expected, players);
+        verify(playerRepository, never()).estimatedCount();
+    }
+
+    @Test
+    void searchPlayers_shouldThrowIllegalArgumentException_whenNoFilterIsIndexedOnALargeCollection() {
+        // Given
+        PlayerSearchCriteria criteria = new PlayerSearchCriteria(null, null, null, null, 1000, null, 20, 30, null);
+        when(indexManager.leadingKeys()).thenReturn(Set.of("data.rank", "sex"));
+        when(playerRepository.estimatedCount()).thenReturn(101L);
+
+        // When & Then
+        Assertions.assertThatThrownBy(() -> playerService.searchPlayers(criteria, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Filters on [data.points, data.age] would scan all players,"
+                        + " combine them with a filter on one of [data.rank, sex]");
+        verify(playerRepository, never()).search(any(), any(), any());
+    }
+
+    @Test
+    void searchPlayers_shouldScan_whenTheCollectionIsSmall() {
+        // Given
+        PlayerSearchCriteria criteria = new PlayerSearchCriteria(null, null, null, null, 1000, null, null, null, null);
+        when(indexManager.leadingKeys()).thenReturn(Set.of("data.rank"));
+        when(playerRepository.estimatedCount()).thenReturn(100L);
+        when(playerRepository.search(criteria, PlayerRepository.BY_RANK_THEN_ID, Limit.of(10))).thenReturn(List.of());
+
+        // When
+        List<Player> players = playerService.searchPlayers(criteria, 10);
+
+        // Then
+        assertThat(players).isEmpty();
+    }
+
+    @Test
+    void searchPlayers_shouldThrowIllegalArgumentException_whenARangeIsEmpty() {
+        PlayerSearchCriteria criteria = new PlayerSearchCriteria(null, null, 10, 5, null, null, null, null, null);
+
+        Assertions.assertThatThrownBy(() -> playerService.searchPlayers(criteria, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Rank range is empty: min 10 is greater than max 5");
+    }
+
     @Test
     void getAverageIMC_shouldReturnCorrectAverageIMC() {
         // Given
@@ -243,6 +572,120 @@ class PlayerServiceTest {
         assertEquals(0.0, statistics.medianHeight());
     }
 
+    @Test
+    void getPercentiles_shouldReturnInterpolatedHeightPercentiles() {
+        // Given
+        List<Player> players = List.of(buildPlayer("1", "A", "A", 1), buildPlayer("2", "B", "B", 2),
+                buildPlayer("3", "C", "C", 3), buildPlayer("4", "D", "D", 4));
+        int[] heights = { 190, 170, 180, 160 };
+        for (int i = 0; i < heights.length; i++) {
+            players.get(i).getData().setHeight(heights[i]);
+        }
+        when(columnarStore.get()).thenReturn(PlayerColumns.of(players.iterator()));
+
+        // When
+        PercentilesDto percentiles = playerService.getPercentiles("HEIGHT", "50, 0,100,90");
+
+        // Then
+        assertEquals("height", percentiles.field());
+        assertEquals(4, percentiles.count());
+        assertThat(percentiles.percentiles()).containsExactly(
+                Map.entry("50", 175.0), Map.entry("0", 160.0), Map.entry("100", 190.0), Map.entry("90", 187.0));
+    }
+
+    @Test
+    void getPercentiles_shouldMatchSortedValues_whenRangeIsTooWideToCount() {
+        // Given
+        SplittableRandom random = new SplittableRandom(7);
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            Player player = buildPlayer(Integer.toString(i), "F" + i, "L" + i, i);
+            player.getData().setPoints(random.nextInt(0, 10_000_000));
+            players.add(player);
+        }
+        int[] sorted = players.stream().mapToInt(player -> player.getData().getPoints()).sorted().toArray();
+        when(columnarStore.get()).thenReturn(PlayerColumns.of(players.iterator()));
+
+        // When
+        PercentilesDto percentiles = playerService.getPercentiles("points", "50,99,99.9");
+
+        // Then
+        assertEquals(sorted[500], percentiles.percentiles().get("50"));
+        assertEquals(sorted[990], percentiles.percentiles().get("99"));
+        assertEquals(sorted[999], percentiles.percentiles().get("99.9"));
+    }
+
+    @Test
+    void getPercentiles_shouldReturnNoValue_whenNoPlayers() {
+        // Given
+        when(columnarStore.get()).thenReturn(PlayerColumns.of(List.<Player>of().iterator()));
+
+        // When
+        PercentilesDto percentiles = playerService.getPercentiles("age", "50");
+
+        // Then
+        assertEquals(0, percentiles.count());
+        assertThat(percentiles.percentiles()).isEmpty();
+    }
+
+    @Test
+    void getPercentiles_shouldThrowIllegalArgumentException_whenFieldOrPercentileIsInvalid() {
+        Assertions.assertThatThrownBy(() -> playerService.getPercentiles("shoe", "50"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown field: shoe, expected one of height, weight, age, points");
+        Assertions.assertThatThrownBy(() -> playerService.getPercentiles("height", "abc"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid percentile: abc");
+        Assertions.assertThatThrownBy(() -> playerService.getPercentiles("height", "101"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(columnarStore, never()).get();
+    }
+
+    @Test
+    void getStatistics_shouldReturnEngineStatistics() {
+        // Given
+        StatisticsDto expected = new StatisticsDto(new Country("picture-spain", "ES"), 22.37, 170.0);
+        when(statisticsEngine.getStatistics()).thenReturn(expected);
+
+        // When
+        StatisticsDto statistics = playerService.getStatistics();
+
+        // Then
+        assertEquals(expected, statistics);
+        verify(playerRepository, never()).findAll(any(Sort.class));
+        verify(statisticsAggregation, never()).getStatistics();
+    }
+
+    @Test
+    void getStatistics_shouldReturnAggregationStatistics_whenAggregationModeIsSelected() {
+        // Given
+        StatisticsDto expected = new StatisticsDto(new Country("picture-spain", "ES"), 22.37, 170.0);
+        when(statisticsProperties.mode()).thenReturn(StatisticsMode.AGGREGATION);
+        when(statisticsAggregation.getStatistics()).thenReturn(expected);
+
+        // When
+        StatisticsDto statistics = playerService.getStatistics();
+
+        // Then
+        assertEquals(expected, statistics);
+        verify(statisticsEngine, never()).getStatistics();
+    }
+
+    @Test
+    void getStatistics_shouldReturnColumnarStatistics_whenColumnarModeIsSelected() {
+        // Given
+        StatisticsDto expected = new StatisticsDto(new Country("picture-spain", "ES"), 22.37, 170.0);
+        when(statisticsProperties.mode()).thenReturn(StatisticsMode.COLUMNAR);
+        when(columnarStore.getStatistics()).thenReturn(expected);
+
+        // When
+        StatisticsDto statistics = playerService.getStatistics();
+
+        // Then
+        assertEquals(expected, statistics);
+        verify(statisticsEngine, never()).getStatistics();
+    }
+
     @Test
     void savePlayer_shouldSavePlayer_whenValidDto() {
         // Given
@@ -263,17 +706,27 @@ class PlayerServiceTest {
         data.setLast(new int[] { 1, 0, 1 }); // 2 wins, 1 loss
         dto.setData(data);
 
-        when(playerRepository.existsByFirstnameAndLastname(dto.getFirstname(), dto.getLastname())).thenReturn(false);
-        when(playerRepository.save(any(Player.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(playerRepository.insert(any(Player.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(mapper.toPlayer(dto)).thenCallRealMethod();
+        RankingDeltaDto shifted = new RankingDeltaDto("p2", 2, 9000);
+        when(ranking.insert(any())).thenReturn(new PlayerRanking.Update(List.of(), List.of(), List.of(shifted), false));
 
         // When
         Player savedPlayer = playerService.savePlayer(dto);
 
         // Then
         assertNotNull(savedPlayer);
-        verify(playerRepository).save(any(Player.class));
+        verify(playerRepository).insert(any(Player.class));
         verify(mapper).toPlayer(dto);
+        verify(playerCache).invalidate(savedPlayer.getId());
+        verify(rankedPlayersResponseCache).invalidate();
+        verify(columnarStore).invalidate();
+        verify(statisticsEngine).record(savedPlayer);
+        verify(rankingBroadcaster).record(savedPlayer);
+        verify(ranking).insert(List.of(savedPlayer));
+        verify(ranking, never()).invalidate();
+        verify(playerCache).invalidate("p2");
+        verify(rankingBroadcaster).record(shifted);
     }
 
     @Test
@@ -300,6 +753,68 @@ class PlayerServiceTest {
                 .hasMessage("Player data cannot be null or empty");
     }
 
+    @Test
+    void updatePoints_shouldThrowIllegalArgumentException_whenPointsAreNegative() {
+        // When & Then
+        Assertions.assertThatThrownBy(() -> playerService.updatePoints("p1", new PointsUpdateDto(-5)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Points must be positive or zero: -5");
+        verify(ranking, never()).setPoints(any(), anyInt());
+    }
+
+    @Test
+    void recordMatch_shouldThrowIllegalArgumentException_whenPlayerPlaysAgainstThemself() {
+        // When & Then
+        Assertions.assertThatThrownBy(() -> playerService.recordMatch(new MatchResultDto("p1", "p1", 10, 0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Winner and loser must be different players");
+    }
+
+    @Test
+    void recordResults_shouldReloadDerivedState_whenBulkWriteFails() {
+        // Given
+        Map<String, PlayerResultsDto> results = Map.of("p1", new PlayerResultsDto(10, List.of(1)));
+        when(ranking.recordResults(results)).thenThrow(new DataAccessResourceFailureException("Bulk write failed"));
+
+        // When & Then
+        Assertions.assertThatThrownBy(() -> playerService.recordResults(results))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        verify(playerCache).invalidate("p1");
+        verify(rankedPlayersResponseCache).invalidate();
+        verify(columnarStore).invalidate();
+        verify(ranking).invalidate();
+        verify(statisticsEngine).reload();
+        verify(statisticsEngine, never()).record(any(Player.class), any(Player.class));
+        verify(rankingBroadcaster).publishSnapshot();
+    }
+
+    @Test
+    void recordMatch_shouldUpdateStatisticsAndPublishNewRanks() {
+        // Given
+        MatchResultDto match = new MatchResultDto("p2", "p1", 90, 0);
+        Player winnerBefore = buildPlayer("p2", "Novak", "Djokovic", 1);
+        Player winnerAfter = buildPlayer("p2", "Novak", "Djokovic", 1);
+        Player loserBefore = buildPlayer("p1", "Rafael", "Nadal", 2);
+        Player loserAfter = buildPlayer("p1", "Rafael", "Nadal", 2);
+        RankingDeltaDto winnerDelta = new RankingDeltaDto("p2", 1, 2000);
+        RankingDeltaDto loserDelta = new RankingDeltaDto("p1", 2, 1900);
+        when(ranking.recordMatch(match)).thenReturn(new PlayerRanking.Update(List.of(winnerBefore, loserBefore),
+                List.of(winnerAfter, loserAfter), List.of(winnerDelta, loserDelta), false));
+
+        // When
+        List<Player> players = playerService.recordMatch(match);
+
+        // Then
+        assertThat(players).containsExactly(winnerAfter, loserAfter);
+        verify(statisticsEngine).record(winnerBefore, winnerAfter);
+        verify(statisticsEngine).record(loserBefore, loserAfter);
+        verify(playerCache).invalidate("p1");
+        verify(playerCache).invalidate("p2");
+        verify(rankedPlayersResponseCache).invalidate();
+        verify(rankingBroadcaster).record(winnerDelta);
+        verify(rankingBroadcaster).record(loserDelta);
+    }
+
     @Test
     void savePlayer_shouldThrowExistingPlayerException_whenPlayerAlreadyExists() {
         // Given
@@ -307,12 +822,77 @@ class PlayerServiceTest {
         dto.setFirstname("Roger");
         dto.setLastname("Federer");
 
-        when(playerRepository.existsByFirstnameAndLastname(dto.getFirstname(), dto.getLastname())).thenReturn(true);
+        when(mapper.toPlayer(dto)).thenCallRealMethod();
+        when(playerRepository.insert(any(Player.class))).thenThrow(new DuplicateKeyException("E11000"));
 
         // When & Then
         Assertions.assertThatThrownBy(() -> playerService.savePlayer(dto))
                 .isInstanceOf(ExistingPlayerException.class)
                 .hasMessage("Player with the same firstname and lastname already exists");
+        verify(statisticsEngine, never()).record(any(Player.class));
+    }
+
+    @Test
+    void savePlayers_shouldCreateNewPlayersAndRejectDuplicatesAndInvalidItems() {
+        // Given
+        List<CreatePlayerDto> dtos = List.of(
+                buildDto("Roger", "Federer"),
+                buildDto("Rafael", "Nadal"), // already in DB
+                buildDto("Roger", "Federer"), // duplicate in batch
+                buildDto(null, "Williams"),
+                buildDto("Serena", "Williams"));
+        when(mapper.toPlayer(any(CreatePlayerDto.class))).thenCallRealMethod();
+        when(playerRepository.findByFirstnameInAndLastnameIn(any(), any()))
+                .thenReturn(List.of(new PlayerName("Rafael", "Nadal")))
+                .thenReturn(List.of());
+        when(playerRepository.insertAllUnordered(any())).thenReturn(Set.of());
+        when(ranking.insert(any())).thenReturn(new PlayerRanking.Update(List.of(), List.of(), List.of(), false));
+
+        // When
+        BatchResultDto result = playerService.savePlayers(dtos.iterator());
+
+        // Then
+        assertEquals(2, result.created());
+        assertEquals(3, result.rejected());
+        assertThat(result.items()).extracting(BatchItemResultDto::index).containsExactly(0, 1, 2, 3, 4);
+        assertThat(result.items()).extracting(BatchItemResultDto::status).containsExactly(
+                BatchItemStatus.CREATED, BatchItemStatus.DUPLICATE, BatchItemStatus.DUPLICATE,
+                BatchItemStatus.INVALID, BatchItemStatus.CREATED);
+        assertNotNull(result.items().get(0).id());
+        // Chunks of 2: one name query and one bulk insert per chunk with new names,
+        // the second chunk only holds a duplicate and an invalid item
+        verify(playerRepository, times(2)).findByFirstnameInAndLastnameIn(any(), any());
+        verify(playerRepository, times(2)).insertAllUnordered(any());
+        verify(statisticsEngine, times(2)).record(any(Player.class));
+        verify(ranking, times(2)).insert(any());
+        verify(ranking, never()).invalidate();
+        verify(rankedPlayersResponseCache, times(2)).invalidate();
+    }
+
+    @Test
+    void savePlayers_shouldReportDuplicate_whenRejectedByUniqueIndex() {
+        // Given
+        when(mapper.toPlayer(any(CreatePlayerDto.class))).thenCallRealMethod();
+        when(playerRepository.findByFirstnameInAndLastnameIn(any(), any())).thenReturn(List.of());
+        when(playerRepository.insertAllUnordered(any())).thenReturn(Set.of(1));
+        when(ranking.insert(any())).thenReturn(new PlayerRanking.Update(List.of(), List.of(), List.of(), false));
+
+        // When
+        BatchResultDto result = playerService.savePlayers(
+                List.of(buildDto("Roger", "Federer"), buildDto("Rafael", "Nadal")).iterator());
+
+        // Then
+        assertEquals(1, result.created());
+        assertEquals(BatchItemStatus.DUPLICATE, result.items().get(1).status());
+        verify(statisticsEngine, times(1)).record(any(Player.class));
+    }
+
+    private CreatePlayerDto buildDto(String firstname, String lastname) {
+        CreatePlayerDto dto = new CreatePlayerDto();
+        dto.setFirstname(firstname);
+        dto.setLastname(lastname);
+        dto.setData(new PlayerData());
+        return dto;
     }
 
     private Player buildPlayer(String id, String firstname, String lastname, int rank) {
@@ -323,6 +903,7 @@ class PlayerServiceTest {
 
         PlayerData data = new PlayerData();
         data.setRank(rank);
+        player.setData(data);
 
         return player;
     }
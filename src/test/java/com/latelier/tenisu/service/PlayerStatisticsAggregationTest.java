@@ -0,0 +1,158 @@
+package com.latelier.tenisu.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import com.latelier.tenisu.config.ChangeStreamProperties;
+import com.latelier.tenisu.config.ParallelStatisticsProperties;
+import com.latelier.tenisu.config.StatisticsMode;
+import com.latelier.tenisu.config.StatisticsProperties;
+import com.latelier.tenisu.dto.CountryWinRatioDto;
+import com.latelier.tenisu.dto.StatisticsDto;
+import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
+import com.latelier.tenisu.repository.PlayerRepository;
+import com.latelier.tenisu.repository.PlayerRepositoryCustomImpl;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+class PlayerStatisticsAggregationTest {
+
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+
+    private PlayerStatisticsAggregation statisticsAggregation;
+    private PlayerStatisticsEngine statisticsEngine;
+    private PlayerColumnarStore columnarStore;
+    private PlayerColumnarStore parallelColumnarStore;
+
+    @BeforeEach
+    void setUp() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        mongoClient = MongoClients.create(mongoServer.bindAndGetConnectionString());
+        mongoTemplate = new MongoTemplate(mongoClient, "tenisu_test");
+        statisticsAggregation = new PlayerStatisticsAggregation(mongoTemplate);
+        statisticsEngine = new PlayerStatisticsEngine(null, new StatisticsProperties(StatisticsMode.INCREMENTAL),
+                new ChangeStreamProperties(false, Duration.ofSeconds(10), Duration.ofSeconds(5)));
+        PlayerRepository playerRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(
+                PlayerRepository.class, RepositoryFragments.just(new PlayerRepositoryCustomImpl(mongoTemplate)));
+        columnarStore = new PlayerColumnarStore(playerRepository, new ParallelStatisticsProperties(100000, 0));
+        // Seuil à un joueur : chaque joueur est résumé dans sa propre tranche
+        parallelColumnarStore = new PlayerColumnarStore(playerRepository, new ParallelStatisticsProperties(1, 2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelColumnarStore.destroy();
+        mongoClient.close();
+        mongoServer.shutdown();
+    }
+
+    @Test
+    void getStatistics_shouldReturnDefaultStatistics_whenNoPlayers() {
+        // When
+        StatisticsDto statistics = statisticsAggregation.getStatistics();
+
+        // Then
+        assertEquals(new Country("Unknown", "XX"), statistics.country());
+        assertEquals(0.0, statistics.averageIMC());
+        assertEquals(0.0, statistics.medianHeight());
+        assertEquals(statistics, columnarStore.getStatistics());
+    }
+
+    @Test
+    void columnarStore_shouldReloadPlayers_whenInvalidated() {
+        // Given
+        mongoTemplate.insert(buildPlayer("FR", 183, 81000, 1, 0));
+        assertEquals("FR", columnarStore.getStatistics().country().getCode());
+        mongoTemplate.insert(buildPlayer("ES", 185, 85000, 1, 1));
+
+        // When
+        columnarStore.invalidate();
+
+        // Then
+        assertEquals("ES", columnarStore.getStatistics().country().getCode());
+        assertEquals(184.0, columnarStore.getStatistics().medianHeight());
+    }
+
+    @Test
+    void getStatistics_shouldMatchIncrementalEngine() {
+        // Given
+        List<Player> players = List.of(
+                buildPlayer("FR", 183, 81000, 1, 0, 1),
+                buildPlayer("FR", 178, 72000, 0, 0, 0, 1),
+                buildPlayer("ES", 185, 85000, 1, 1, 1, 0),
+                buildPlayer("US", 168, 60000, 0, 0, 1),
+                buildPlayer("SRB", 188, 80000, 1, 1, 1, 1, 0),
+                buildPlayer("SUI", 0, 0),
+                buildPlayer("USA", 175, 62000));
+
+        // Then
+        assertSameStatistics(players, "SRB");
+    }
+
+    @Test
+    void getStatistics_shouldMatchIncrementalEngine_whenHeightCountIsEven() {
+        // Given
+        List<Player> players = List.of(
+                buildPlayer("FR", 183, 81000, 1, 1),
+                buildPlayer("ES", 185, 85000, 1, 1),
+                buildPlayer("US", 168, 60000, 1, 0),
+                buildPlayer("SRB", 170, 80000, 1, 1, 1, 1));
+
+        // Then
+        assertSameStatistics(players, "ES"); // ES, FR and SRB are tied, smallest code wins
+    }
+
+    private void assertSameStatistics(List<Player> players, String expectedCountryCode) {
+        mongoTemplate.insertAll(players);
+        statisticsEngine.rebuild(players.stream());
+
+        StatisticsDto aggregated = statisticsAggregation.getStatistics();
+        StatisticsDto incremental = statisticsEngine.getStatistics();
+        StatisticsDto columnar = columnarStore.getStatistics();
+        StatisticsDto parallel = parallelColumnarStore.getStatistics();
+
+        assertEquals(expectedCountryCode, aggregated.country().getCode());
+        assertEquals(incremental.country(), aggregated.country());
+        assertEquals(incremental.averageIMC(), aggregated.averageIMC(), 1e-9);
+        assertEquals(incremental.medianHeight(), aggregated.medianHeight());
+        assertEquals(incremental.country(), columnar.country());
+        assertEquals(incremental.averageIMC(), columnar.averageIMC(), 1e-9);
+        assertEquals(incremental.medianHeight(), columnar.medianHeight());
+        assertEquals(incremental.country(), parallel.country());
+        assertEquals(incremental.averageIMC(), parallel.averageIMC(), 1e-9);
+        assertEquals(incremental.medianHeight(), parallel.medianHeight());
+
+        List<CountryWinRatioDto> leaderboard = statisticsEngine.getCountryLeaderboard(3);
+        assertEquals(expectedCountryCode, leaderboard.get(0).country().getCode());
+        assertEquals(leaderboard, statisticsAggregation.getCountryLeaderboard(3));
+        assertEquals(leaderboard, columnarStore.getCountryLeaderboard(3));
+        assertEquals(leaderboard, parallelColumnarStore.getCountryLeaderboard(3));
+    }
+
+    private Player buildPlayer(String countryCode, int height, int weight, int... last) {
+        Player player = new Player();
+        player.setCountry(new Country("picture-" + countryCode, countryCode));
+        PlayerData data = new PlayerData();
+        data.setHeight(height);
+        data.setWeight(weight);
+        data.setLast(last);
+        player.setData(data);
+        return player;
+    }
+}
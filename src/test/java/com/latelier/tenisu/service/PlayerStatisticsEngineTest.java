@@ -0,0 +1,200 @@
+package com.latelier.tenisu.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.latelier.tenisu.config.ChangeStreamProperties;
+import com.latelier.tenisu.config.StatisticsMode;
+import com.latelier.tenisu.config.StatisticsProperties;
+import com.latelier.tenisu.dto.StatisticsDto;
+import com.latelier.tenisu.model.Country;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerChangeCheckpoint;
+import com.latelier.tenisu.model.PlayerData;
+import com.latelier.tenisu.repository.PlayerRepository;
+import com.latelier.tenisu.utils.PlayerMetrics;
+
+@ExtendWith(MockitoExtension.class)
+class PlayerStatisticsEngineTest {
+
+    @Mock
+    private PlayerRepository playerRepository;
+
+    @Spy
+    private StatisticsProperties statisticsProperties = new StatisticsProperties(StatisticsMode.INCREMENTAL);
+
+    @Spy
+    private ChangeStreamProperties changeStreamProperties = new ChangeStreamProperties(false, Duration.ofSeconds(10),
+            Duration.ofSeconds(5));
+
+    @InjectMocks
+    private PlayerStatisticsEngine statisticsEngine;
+
+    @Test
+    void getStatistics_shouldReturnDefaultStatistics_whenNoPlayers() {
+        // When
+        StatisticsDto statistics = statisticsEngine.getStatistics();
+
+        // Then
+        assertEquals(new Country("Unknown", "XX"), statistics.country());
+        assertEquals(0.0, statistics.averageIMC());
+        assertEquals(0.0, statistics.medianHeight());
+    }
+
+    @Test
+    void onApplicationReady_shouldLoadPlayersFromRepository() {
+        // Given
+        when(playerRepository.streamAllBy()).thenReturn(Stream.of(
+                buildPlayer("FR", 180, 75000, 1, -1, 1, 1),
+                buildPlayer("ES", 170, 65000, 1, 1, 1),
+                buildPlayer("US", 160, 55000, 1, 0, 1)));
+
+        // When
+        statisticsEngine.onApplicationReady();
+        StatisticsDto statistics = statisticsEngine.getStatistics();
+
+        // Then
+        assertEquals("ES", statistics.country().getCode());
+        assertEquals(22.37, statistics.averageIMC(), 0.01);
+        assertEquals(170.0, statistics.medianHeight());
+    }
+
+    @Test
+    void record_shouldUpdateStatistics() {
+        // Given
+        statisticsEngine.rebuild(Stream.of(
+                buildPlayer("FR", 180, 75000, 1, 1, 0),
+                buildPlayer("ES", 170, 65000, 1, 0, 0)));
+        assertEquals("FR", statisticsEngine.getStatistics().country().getCode());
+        assertEquals(175.0, statisticsEngine.getStatistics().medianHeight());
+
+        // When
+        statisticsEngine.record(buildPlayer("ES", 190, 80000, 1, 1, 1, 1));
+        StatisticsDto statistics = statisticsEngine.getStatistics();
+
+        // Then
+        assertEquals("ES", statistics.country().getCode()); // 5 wins out of 7 games
+        assertEquals(180.0, statistics.medianHeight());
+    }
+
+    @Test
+    void getStatistics_shouldAggregateWinRatioByCountry() {
+        // Given
+        statisticsEngine.rebuild(Stream.of(
+                buildPlayer("FR", 180, 75000, 1, 1, 1),
+                buildPlayer("FR", 180, 75000, 0, 0, 0, 0, 0, 0, 0),
+                buildPlayer("ES", 170, 65000, 1, 1, 0)));
+
+        // When
+        StatisticsDto statistics = statisticsEngine.getStatistics();
+
+        // Then
+        assertEquals("ES", statistics.country().getCode()); // FR is 3/10, ES is 2/3
+    }
+
+    @Test
+    void getStatistics_shouldComputeAverageIMCAndMedianHeight() {
+        // Given
+        statisticsEngine.rebuild(Stream.of(
+                buildPlayer("FR", 183, 81000, 1, 0, 1), // IMC 24.19
+                buildPlayer("ES", 175, 70000, 1, 1, 1), // IMC 22.86
+                buildPlayer("US", 168, 60000, 0, 0, 1), // IMC 21.26
+                buildPlayer("SRB", 188, 80000, 1, 1, 0))); // IMC 22.63
+
+        // When
+        StatisticsDto statistics = statisticsEngine.getStatistics();
+
+        // Then
+        assertEquals("ES", statistics.country().getCode());
+        assertEquals(22.735, statistics.averageIMC(), 1e-9);
+        assertEquals(179.0, statistics.medianHeight()); // Median of 168, 175, 183, 188
+    }
+
+    @Test
+    void record_shouldBeIgnored_whenChangeFeedIsEnabled() {
+        // Given
+        when(changeStreamProperties.enabled()).thenReturn(true);
+
+        // When
+        statisticsEngine.record(buildPlayer("ES", 190, 80000, 1, 1, 1, 1));
+
+        // Then
+        assertEquals(0.0, statisticsEngine.getStatistics().medianHeight());
+        verify(playerRepository, never()).streamAllBy();
+    }
+
+    @Test
+    void apply_shouldReplacePreviousVersionOfPlayer() {
+        // Given
+        Player before = buildPlayer("ES", 170, 65000, 1, 1, 1);
+        statisticsEngine.rebuild(Stream.of(before, buildPlayer("FR", 180, 75000, 1, 0, 0)));
+
+        // When
+        statisticsEngine.apply(before, buildPlayer("ES", 190, 80000, 0, 0, 0));
+        StatisticsDto statistics = statisticsEngine.getStatistics();
+
+        // Then
+        assertEquals("FR", statistics.country().getCode()); // ES is now 0/3
+        assertEquals(185.0, statistics.medianHeight());
+        assertEquals((PlayerMetrics.imc(180, 75000) + PlayerMetrics.imc(190, 80000)) / 2, statistics.averageIMC(),
+                1e-9);
+    }
+
+    @Test
+    void apply_shouldRemovePlayer_whenDeleted() {
+        // Given
+        Player deleted = buildPlayer("ES", 170, 65000, 1, 1, 1);
+        statisticsEngine.rebuild(Stream.of(deleted, buildPlayer("FR", 180, 75000, 1, 0, 0)));
+
+        // When
+        statisticsEngine.apply(deleted, null);
+
+        // Then
+        assertEquals(180.0, statisticsEngine.getStatistics().medianHeight());
+        assertEquals(List.of("FR", "ES"), statisticsEngine.getCountryLeaderboard(2).stream()
+                .map(country -> country.country().getCode())
+                .toList());
+    }
+
+    @Test
+    void restore_shouldReturnStatisticsOfCheckpoint() {
+        // Given
+        statisticsEngine.rebuild(Stream.of(
+                buildPlayer("FR", 183, 81000, 1, 0, 1),
+                buildPlayer("ES", 175, 70000, 1, 1, 1),
+                buildPlayer("US", 168, 60000, 0, 0, 1)));
+        StatisticsDto expected = statisticsEngine.getStatistics();
+        PlayerChangeCheckpoint checkpoint = statisticsEngine.checkpoint();
+        statisticsEngine.rebuild(Stream.empty());
+
+        // When
+        statisticsEngine.restore(checkpoint);
+
+        // Then
+        assertEquals(expected, statisticsEngine.getStatistics());
+    }
+
+    private Player buildPlayer(String countryCode, int height, int weight, int... last) {
+        Player player = new Player();
+        player.setCountry(new Country("picture-" + countryCode, countryCode));
+        PlayerData data = new PlayerData();
+        data.setHeight(height);
+        data.setWeight(weight);
+        data.setLast(last);
+        player.setData(data);
+        return player;
+    }
+}
@@ -0,0 +1,126 @@
+package com.latelier.tenisu.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.latelier.tenisu.dto.SerializedPlayersDto;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.model.PlayerData;
+import com.latelier.tenisu.repository.PlayerRepository;
+import com.latelier.tenisu.utils.PlayersFormat;
+
+@ExtendWith(MockitoExtension.class)
+class RankedPlayersResponseCacheTest {
+
+    @Mock
+    private PlayerRepository playerRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private RankedPlayersResponseCache rankedPlayersResponseCache;
+
+    @Test
+    void get_shouldSerializePlayersOnce_whenRosterIsUnchanged() throws Exception {
+        // Given
+        when(playerRepository.streamAllBy(any(Sort.class)))
+                .thenAnswer(invocation -> Stream.of(buildPlayer("player101", 1), buildPlayer("player12", 2)));
+
+        // When
+        SerializedPlayersDto first = rankedPlayersResponseCache.get();
+        SerializedPlayersDto second = rankedPlayersResponseCache.get();
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(first.count()).isEqualTo(2);
+        Player[] players = objectMapper.readValue(first.body(), Player[].class);
+        assertThat(players).extracting(Player::getId).containsExactly("player101", "player12");
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(first.body());
+        }
+        verify(playerRepository, times(1)).streamAllBy(any(Sort.class));
+    }
+
+    @Test
+    void get_shouldSerializeEachFormatSeparately() throws Exception {
+        // Given
+        when(playerRepository.streamAllBy(any(Sort.class)))
+                .thenAnswer(invocation -> Stream.of(buildPlayer("player101", 1), buildPlayer("player12", 2)));
+
+        // When
+        SerializedPlayersDto json = rankedPlayersResponseCache.get(PlayersFormat.JSON);
+        SerializedPlayersDto cbor = rankedPlayersResponseCache.get(PlayersFormat.CBOR);
+
+        // Then
+        assertThat(rankedPlayersResponseCache.get(PlayersFormat.CBOR)).isSameAs(cbor);
+        assertThat(cbor.etag()).isNotEqualTo(json.etag());
+        assertThat(cbor.body().length).isLessThan(json.body().length);
+        Player[] players = new ObjectMapper(new CBORFactory()).readValue(cbor.body(), Player[].class);
+        assertThat(players).extracting(Player::getId).containsExactly("player101", "player12");
+        verify(playerRepository, times(2)).streamAllBy(any(Sort.class));
+    }
+
+    @Test
+    void get_shouldRebuildWithNewEtag_afterInvalidate() {
+        // Given
+        when(playerRepository.streamAllBy(any(Sort.class)))
+                .thenReturn(Stream.of(buildPlayer("player101", 1)))
+                .thenReturn(Stream.of(buildPlayer("player101", 1), buildPlayer("player12", 2)));
+        SerializedPlayersDto before = rankedPlayersResponseCache.get();
+
+        // When
+        rankedPlayersResponseCache.invalidate();
+        SerializedPlayersDto after = rankedPlayersResponseCache.get();
+
+        // Then
+        assertThat(after.count()).isEqualTo(2);
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        verify(playerRepository, times(2)).streamAllBy(any(Sort.class));
+    }
+
+    @Test
+    void get_shouldNotKeepList_whenInvalidatedWhileSerializing() {
+        // Given
+        when(playerRepository.streamAllBy(any(Sort.class)))
+                .thenReturn(Stream.of(buildPlayer("player101", 1))
+                        .peek(player -> rankedPlayersResponseCache.invalidate()))
+                .thenReturn(Stream.of(buildPlayer("player101", 1), buildPlayer("player12", 2)));
+
+        // When
+        SerializedPlayersDto stale = rankedPlayersResponseCache.get();
+        SerializedPlayersDto fresh = rankedPlayersResponseCache.get();
+
+        // Then
+        assertThat(stale.count()).isEqualTo(1);
+        assertThat(fresh.count()).isEqualTo(2);
+        assertThat(rankedPlayersResponseCache.get()).isSameAs(fresh);
+        verify(playerRepository, times(2)).streamAllBy(any(Sort.class));
+    }
+
+    private Player buildPlayer(String id, int rank) {
+        Player player = new Player();
+        player.setId(id);
+        PlayerData data = new PlayerData();
+        data.setRank(rank);
+        player.setData(data);
+        return player;
+    }
+}
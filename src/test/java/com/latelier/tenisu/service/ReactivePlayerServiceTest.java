@@ -0,0 +1,131 @@
+package com.latelier.tenisu.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+
+import com.latelier.tenisu.config.PlayerCacheProperties;
+import com.latelier.tenisu.config.StatisticsMode;
+import com.latelier.tenisu.config.StatisticsProperties;
+import com.latelier.tenisu.dto.CreatePlayerDto;
+import com.latelier.tenisu.exception.ExistingPlayerException;
+import com.latelier.tenisu.exception.PlayerNotFoundException;
+import com.latelier.tenisu.model.Player;
+import com.latelier.tenisu.repository.ReactivePlayerRepository;
+import com.latelier.tenisu.utils.PlayerMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePlayerServiceTest {
+
+    @Mock
+    private ReactivePlayerRepository reactivePlayerRepository;
+
+    @Mock
+    private PlayerService playerService;
+
+    @Mock
+    private PlayerMapper mapper;
+
+    @Spy
+    private PlayerCache playerCache = new PlayerCache(
+            new PlayerCacheProperties(100, Duration.ofMinutes(10), Duration.ofSeconds(30)),
+            new SimpleMeterRegistry());
+
+    @Mock
+    private RankedPlayersResponseCache rankedPlayersResponseCache;
+
+    @Mock
+    private PlayerStatisticsEngine statisticsEngine;
+
+    @Spy
+    private StatisticsProperties statisticsProperties = new StatisticsProperties(StatisticsMode.INCREMENTAL);
+
+    @Mock
+    private PlayerRankingBroadcaster rankingBroadcaster;
+    @InjectMocks
+    private ReactivePlayerService reactivePlayerService;
+
+    @Test
+    void getPlayerById_shouldQueryMongoOnce_whenCalledTwice() {
+        // Given
+        Player player = buildPlayer("52", "Novak", "Djokovic");
+        when(reactivePlayerRepository.findById("52")).thenReturn(Mono.just(player));
+
+        // When & Then
+        StepVerifier.create(reactivePlayerService.getPlayerById("52")).expectNext(player).verifyComplete();
+        StepVerifier.create(reactivePlayerService.getPlayerById("52")).expectNext(player).verifyComplete();
+        verify(reactivePlayerRepository, times(1)).findById("52");
+    }
+
+    @Test
+    void getPlayerById_shouldFailWithPlayerNotFoundException_whenPlayerDoesNotExist() {
+        // Given
+        when(reactivePlayerRepository.findById("unknown")).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(reactivePlayerService.getPlayerById("unknown"))
+                .expectError(PlayerNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void savePlayer_shouldRunInsertHookOfBlockingService_whenPlayerIsInserted() {
+        // Given
+        CreatePlayerDto dto = new CreatePlayerDto();
+        dto.setFirstname("Novak");
+        dto.setLastname("Djokovic");
+        Player player = buildPlayer("52", "Novak", "Djokovic");
+        when(mapper.toPlayer(dto)).thenReturn(player);
+        when(reactivePlayerRepository.insert(player)).thenReturn(Mono.just(player));
+
+        // When & Then
+        StepVerifier.create(reactivePlayerService.savePlayer(dto)).expectNext(player).verifyComplete();
+        verify(playerService).afterInsert(player);
+    }
+
+    @Test
+    void savePlayer_shouldFailWithExistingPlayerException_whenNameIsTaken() {
+        // Given
+        CreatePlayerDto dto = new CreatePlayerDto();
+        dto.setFirstname("Novak");
+        dto.setLastname("Djokovic");
+        when(mapper.toPlayer(dto)).thenReturn(buildPlayer(null, "Novak", "Djokovic"));
+        when(reactivePlayerRepository.insert(any(Player.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+
+        // When & Then
+        StepVerifier.create(reactivePlayerService.savePlayer(dto))
+                .expectError(ExistingPlayerException.class)
+                .verify();
+    }
+
+    @Test
+    void savePlayer_shouldFailWithIllegalArgumentException_whenNamesAreMissing() {
+        StepVerifier.create(reactivePlayerService.savePlayer(new CreatePlayerDto()))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+    }
+
+    private Player buildPlayer(String id, String firstname, String lastname) {
+        Player player = new Player();
+        player.setId(id);
+        player.setFirstname(firstname);
+        player.setLastname(lastname);
+        return player;
+    }
+}